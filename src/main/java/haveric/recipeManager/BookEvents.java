@@ -0,0 +1,21 @@
+package haveric.recipeManager;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.*;
+
+/**
+ * Updates held recipe books, only registered when books exist and 'update-books' is enabled
+ */
+public class BookEvents implements Listener {
+    protected BookEvents() { }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerItemHeld(PlayerItemHeldEvent event) {
+        Player player = event.getPlayer();
+
+        RecipeBooks.getInstance().updateBook(player, player.getInventory().getItem(event.getNewSlot()));
+    }
+}
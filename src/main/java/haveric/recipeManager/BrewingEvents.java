@@ -0,0 +1,115 @@
+package haveric.recipeManager;
+
+import haveric.recipeManager.data.BrewingStandData;
+import haveric.recipeManager.data.BrewingStands;
+import haveric.recipeManager.flag.args.Args;
+import haveric.recipeManager.messages.MessageSender;
+import haveric.recipeManager.recipes.*;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.block.BrewingStand;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.*;
+import org.bukkit.inventory.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * RecipeManager handled brewing stand events, only registered when there are brew recipes
+ */
+public class BrewingEvents implements Listener {
+    protected BrewingEvents() { }
+
+    /*
+     * Brewing stand craft events
+     */
+
+    @EventHandler
+    public void inventoryClick(InventoryClickEvent event) {
+        try {
+            Inventory inv = event.getInventory();
+            HumanEntity ent = event.getWhoClicked();
+
+            if (ent instanceof Player) {
+                InventoryHolder holder = inv.getHolder();
+
+                if (inv instanceof BrewerInventory && holder instanceof BrewingStand) {
+                    if (event.getRawSlot() < inv.getSize()) {
+                        BrewingStandData data = BrewingStands.get(((BrewingStand) holder).getLocation());
+                        data.setFuelerUUID(ent.getUniqueId());
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            event.setCancelled(true);
+            CommandSender sender;
+            if (event.getWhoClicked() instanceof Player) {
+                sender = event.getWhoClicked();
+            } else {
+                sender = null;
+            }
+
+            MessageSender.getInstance().error(sender, e, event.getEventName() + " cancelled due to error:");
+        }
+    }
+
+    @EventHandler
+    public void brewEvent(BrewEvent event) {
+        BrewerInventory inventory = event.getContents();
+
+        ItemStack ingredient = inventory.getIngredient();
+        BrewRecipe recipe = RecipeManager.getRecipes().getBrewRecipe(ingredient);
+
+        if (recipe != null) {
+            Block block = event.getBlock();
+            Location location = block.getLocation();
+            BrewingStandData data = BrewingStands.getExisting(location);
+            UUID fuelerUUID = null;
+
+            if (data != null) {
+                fuelerUUID = data.getFuelerUUID();
+            }
+
+            Args a = Args.create().inventory(inventory).location(location).player(fuelerUUID).recipe(recipe).build();
+            ItemResult result = recipe.getResult(a);
+
+            if (result != null && recipe.sendPrepare(a)) {
+                if (recipe.checkFlagsFast(a) && result.checkFlagsFast(a)) {
+                    @SuppressWarnings("unchecked")
+                    List<Boolean> potionBools = (List<Boolean>) a.extra();
+
+                    ItemStack bukkitResult = result.toItemStack();
+
+                    boolean cancel = false;
+                    if (potionBools.get(0)) {
+                        inventory.setItem(0, bukkitResult.clone());
+                        cancel = true;
+                    }
+
+                    if (potionBools.get(1)) {
+                        inventory.setItem(1, bukkitResult.clone());
+                        cancel = true;
+                    }
+
+                    if (potionBools.get(2)) {
+                        inventory.setItem(2, bukkitResult.clone());
+                        cancel = true;
+                    }
+
+                    if (cancel) {
+                        event.setCancelled(true);
+                        ItemStack originalIngredient = inventory.getItem(3);
+                        originalIngredient.setAmount(originalIngredient.getAmount() - 1);
+
+                        inventory.setItem(3, originalIngredient);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -5,9 +5,12 @@ import haveric.recipeManager.tools.Tools;
 import haveric.recipeManagerCommon.RMCChatColor;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class ErrorReporter {
 
@@ -20,11 +23,24 @@ public class ErrorReporter {
         return instance;
     }
 
-    private HashMap<String, List<String>> fileErrors;
-    private String currentFile;
-    private int currentLine;
-    private boolean ignore = false;
+    private volatile Map<String, List<String>> fileErrors;
+    // Full names of the files errors were reported for, printed file names have their extension removed and may be the same for several files
+    private volatile Set<String> errorSources;
 
+    // File, line and ignore state is kept per thread so recipe files can be parsed in parallel
+    private final ThreadLocal<ErrorContext> context = new ThreadLocal<ErrorContext>() {
+        @Override
+        protected ErrorContext initialValue() {
+            return new ErrorContext();
+        }
+    };
+
+    private static class ErrorContext {
+        private String currentFile;
+        private String currentSource;
+        private int currentLine;
+        private boolean ignore = false;
+    }
 
 
     /**
@@ -33,18 +49,19 @@ public class ErrorReporter {
      */
     public void startCatching() {
         stopCatching();
-        fileErrors = new HashMap<>();
+        errorSources = Collections.synchronizedSet(new HashSet<String>());
+        fileErrors = Collections.synchronizedMap(new HashMap<String, List<String>>());
     }
 
     /**
      * Stops catching the errors and ditches any caught errors so far!<br>
-     * Calling this requires calling {@link #startCatching()} again to queue errors.
+     * Calling this requires calling {@link #startCatching()} again to queue errors.<br>
+     * File, line and ignore state is only reset for the calling thread.
      */
     public void stopCatching() {
         fileErrors = null;
-        currentFile = null;
-        currentLine = 0;
-        ignore = false;
+        errorSources = null;
+        context.remove();
     }
 
     /**
@@ -63,9 +80,10 @@ public class ErrorReporter {
      */
     public int getCatchedAmount() {
         int caught;
+        Map<String, List<String>> errors = fileErrors;
 
-        if (isCatching()) {
-            caught = fileErrors.size();
+        if (errors != null) {
+            caught = errors.size();
         } else {
             caught = -1;
         }
@@ -73,6 +91,17 @@ public class ErrorReporter {
         return caught;
     }
 
+    /**
+     * @param file
+     *            full file name as set by {@link #setFile(String, String)}
+     * @return true if any errors or warnings were queued for the file
+     */
+    public boolean hasErrors(String file) {
+        Set<String> sources = errorSources;
+
+        return sources != null && sources.contains(file);
+    }
+
     /**
      * Print the queued errors (if any)
      *
@@ -139,19 +168,34 @@ public class ErrorReporter {
 
     /**
      * Set the current file path/name - printed in queued errors.<br>
-     * This also resets line to 0.
+     * This also resets line to 0.<br>
+     * Only applies to errors reported from the calling thread.
      *
      */
     public void setFile(String file) {
-        currentFile = file;
-        currentLine = 0;
+        setFile(file, file);
+    }
+
+    /**
+     * Set the current file like {@link #setFile(String)} but with a different name to check for errors with {@link #hasErrors(String)}.
+     *
+     * @param file
+     *            name printed in queued errors
+     * @param source
+     *            full name of the file, like its path relative to the recipes folder
+     */
+    public void setFile(String file, String source) {
+        ErrorContext errorContext = context.get();
+        errorContext.currentFile = file;
+        errorContext.currentSource = source;
+        errorContext.currentLine = 0;
     }
 
     /**
      * @return the current file the parser is at.
      */
     public String getFile() {
-        return currentFile;
+        return context.get().currentFile;
     }
 
     /**
@@ -160,14 +204,14 @@ public class ErrorReporter {
      *
      */
     public void setLine(int line) {
-        currentLine = line;
+        context.get().currentLine = line;
     }
 
     /**
      * @return the current line the parser is at.
      */
     public int getLine() {
-        return currentLine;
+        return context.get().currentLine;
     }
 
     /**
@@ -177,7 +221,7 @@ public class ErrorReporter {
      */
     public void setIgnoreErrors(boolean set) {
         if (isCatching()) {
-            ignore = set;
+            context.get().ignore = set;
         }
     }
 
@@ -213,28 +257,40 @@ public class ErrorReporter {
     }
 
     private void entry(String type, String message, String tip) {
-        if (!isCatching()) {
+        Map<String, List<String>> errorMap = fileErrors;
+        ErrorContext errorContext = context.get();
+
+        if (errorMap == null) {
             String infoMessage = type + ":" + RMCChatColor.RESET + " " + message;
 
             if (tip != null) {
                 infoMessage += RMCChatColor.DARK_GREEN + " TIP: " + RMCChatColor.GRAY + tip;
             }
             MessageSender.getInstance().info(infoMessage);
-        } else if (!ignore) {
-            List<String> errors = fileErrors.get(currentFile);
+        } else if (!errorContext.ignore) {
+            String errorMessage = "line " + String.format("%-5d", errorContext.currentLine) + type + ": " + RMCChatColor.RESET + message;
 
-            if (errors == null) {
-                errors = new ArrayList<>();
+            if (tip != null) {
+                errorMessage += Files.NL + RMCChatColor.DARK_GREEN + "          TIP: " + RMCChatColor.GRAY + tip;
             }
 
-            String errorMessage = "line " + String.format("%-5d", currentLine) + type + ": " + RMCChatColor.RESET + message;
+            synchronized (errorMap) {
+                List<String> errors = errorMap.get(errorContext.currentFile);
 
-            if (tip != null) {
-                errorMessage += Files.NL + RMCChatColor.DARK_GREEN + "          TIP: " + RMCChatColor.GRAY + tip;
+                if (errors == null) {
+                    errors = new ArrayList<>();
+                }
+
+                errors.add(errorMessage);
+
+                errorMap.put(errorContext.currentFile, errors);
             }
-            errors.add(errorMessage);
 
-            fileErrors.put(currentFile, errors);
+            Set<String> sources = errorSources;
+
+            if (sources != null && errorContext.currentSource != null) {
+                sources.add(errorContext.currentSource);
+            }
         }
     }
 }
@@ -45,6 +45,7 @@ public class Files {
     public static final String FILE_ENCHANT_ALIASES = "enchant aliases.yml";
 
     public static final String FILE_USED_VERSION = "used.version";
+    public static final String FILE_RECIPE_CACHE = "recipes.cache";
     public static final String FILE_CHANGELOG = "changelog.txt";
 
     public static final String FILE_INFO_BASICS = "basic recipes.html";
@@ -0,0 +1,239 @@
+package haveric.recipeManager;
+
+import haveric.recipeManager.api.events.RecipeManagerFuelBurnEndEvent;
+import haveric.recipeManager.api.events.RecipeManagerFuelBurnRandomEvent;
+import haveric.recipeManager.data.BlockID;
+import haveric.recipeManager.data.RegionStore;
+import haveric.recipeManager.recipes.FuelRecipe;
+import haveric.recipeManager.tools.LongHashMap;
+import haveric.recipeManager.tools.TimerWheel;
+import org.apache.commons.lang.Validate;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.Furnace;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Triggers the fuel burn random and end events of custom fuels from a timing wheel that's advanced by a single task once per tick.<br>
+ * Timers are dropped when their furnace is broken or its chunk unloads.
+ */
+public class FuelBurns {
+    private static final int WHEEL_TICKS = 512;
+
+    private static TimerWheel<FuelBurn> wheel = new TimerWheel<>(WHEEL_TICKS);
+
+    // Timers by world and chunk key, see RegionStore.chunkKey()
+    private static Map<UUID, LongHashMap<List<FuelBurn>>> pending = new HashMap<>();
+
+    private static BukkitTask task;
+
+    private static class FuelBurn {
+        private BlockID id;
+        private FuelRecipe recipe;
+        private UUID fuelerUUID;
+        private boolean end;
+        private boolean cancelled = false;
+
+        private FuelBurn(BlockID newId, FuelRecipe newRecipe, UUID newFuelerUUID, boolean newEnd) {
+            id = newId;
+            recipe = newRecipe;
+            fuelerUUID = newFuelerUUID;
+            end = newEnd;
+        }
+    }
+
+    private FuelBurns() {
+    }
+
+    protected static void clean() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        wheel.clear();
+        pending.clear();
+    }
+
+    /**
+     * Schedules the random and end events for a fuel that started burning.
+     *
+     * @param location
+     *            furnace location
+     * @param recipe
+     * @param fuelerUUID
+     *            can be null
+     * @param randomTicks
+     *            ticks until the random event
+     * @param burnTicks
+     *            ticks until the end event
+     */
+    public static void schedule(Location location, FuelRecipe recipe, UUID fuelerUUID, long randomTicks, long burnTicks) {
+        Validate.notNull(location, "location argument must not be null!");
+        Validate.notNull(recipe, "recipe argument must not be null!");
+
+        BlockID id = new BlockID(location);
+
+        add(new FuelBurn(id, recipe, fuelerUUID, false), randomTicks);
+        add(new FuelBurn(id, recipe, fuelerUUID, true), burnTicks);
+
+        if (task == null) {
+            task = new BukkitRunnable() {
+                public void run() {
+                    tick();
+                }
+            }.runTaskTimer(RecipeManager.getPlugin(), 1, 1);
+        }
+    }
+
+    private static void add(FuelBurn burn, long delay) {
+        LongHashMap<List<FuelBurn>> chunks = pending.get(burn.id.getWorldID());
+
+        if (chunks == null) {
+            chunks = new LongHashMap<>();
+            pending.put(burn.id.getWorldID(), chunks);
+        }
+
+        long chunkKey = RegionStore.chunkKey(burn.id.getX() >> 4, burn.id.getZ() >> 4);
+        List<FuelBurn> burns = chunks.get(chunkKey);
+
+        if (burns == null) {
+            burns = new ArrayList<>(2);
+            chunks.put(chunkKey, burns);
+        }
+
+        burns.add(burn);
+        wheel.schedule(burn, delay);
+    }
+
+    private static List<FuelBurn> getPending(UUID worldId, long chunkKey) {
+        LongHashMap<List<FuelBurn>> chunks = pending.get(worldId);
+
+        if (chunks == null) {
+            return null;
+        }
+
+        return chunks.get(chunkKey);
+    }
+
+    private static void removePending(FuelBurn burn) {
+        UUID worldId = burn.id.getWorldID();
+        long chunkKey = RegionStore.chunkKey(burn.id.getX() >> 4, burn.id.getZ() >> 4);
+        List<FuelBurn> burns = getPending(worldId, chunkKey);
+
+        if (burns != null) {
+            burns.remove(burn);
+
+            if (burns.isEmpty()) {
+                removeChunk(worldId, chunkKey);
+            }
+        }
+    }
+
+    private static void removeChunk(UUID worldId, long chunkKey) {
+        LongHashMap<List<FuelBurn>> chunks = pending.get(worldId);
+
+        chunks.remove(chunkKey);
+
+        if (chunks.isEmpty()) {
+            pending.remove(worldId);
+        }
+    }
+
+    /**
+     * Drops the timers of the furnaces in the chunk.
+     *
+     * @param chunk
+     */
+    public static void unloadChunk(Chunk chunk) {
+        Validate.notNull(chunk, "chunk argument must not be null!");
+
+        UUID worldId = chunk.getWorld().getUID();
+        long chunkKey = RegionStore.chunkKey(chunk.getX(), chunk.getZ());
+        List<FuelBurn> burns = getPending(worldId, chunkKey);
+
+        if (burns != null) {
+            for (FuelBurn burn : burns) {
+                burn.cancelled = true;
+            }
+
+            removeChunk(worldId, chunkKey);
+        }
+    }
+
+    /**
+     * Drops the timers of the furnace at the location.
+     *
+     * @param location
+     */
+    public static void remove(Location location) {
+        Validate.notNull(location, "location argument must not be null!");
+
+        BlockID id = new BlockID(location);
+        long chunkKey = RegionStore.chunkKey(id.getX() >> 4, id.getZ() >> 4);
+        List<FuelBurn> burns = getPending(id.getWorldID(), chunkKey);
+
+        if (burns != null) {
+            List<FuelBurn> removed = new ArrayList<>();
+
+            for (FuelBurn burn : burns) {
+                if (burn.id.equals(id)) {
+                    burn.cancelled = true;
+                    removed.add(burn);
+                }
+            }
+
+            burns.removeAll(removed);
+
+            if (burns.isEmpty()) {
+                removeChunk(id.getWorldID(), chunkKey);
+            }
+        }
+    }
+
+    /**
+     * @return number of scheduled events, including dropped ones that weren't due yet
+     */
+    public static int size() {
+        return wheel.size();
+    }
+
+    private static void tick() {
+        for (FuelBurn burn : wheel.advance()) {
+            if (burn.cancelled) {
+                continue;
+            }
+
+            removePending(burn);
+
+            Block block = burn.id.toBlock();
+
+            if (block == null || (block.getType() != Material.FURNACE && block.getType() != Material.BURNING_FURNACE)) {
+                continue;
+            }
+
+            Furnace furnace = (Furnace) block.getState();
+
+            if (burn.end) {
+                Bukkit.getPluginManager().callEvent(new RecipeManagerFuelBurnEndEvent(burn.recipe, furnace, burn.fuelerUUID));
+            } else {
+                Bukkit.getPluginManager().callEvent(new RecipeManagerFuelBurnRandomEvent(burn.recipe, furnace, burn.fuelerUUID));
+            }
+        }
+
+        if (wheel.size() == 0 && task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
@@ -0,0 +1,704 @@
+package haveric.recipeManager;
+
+import haveric.recipeManager.api.events.RecipeManagerFuelBurnEndEvent;
+import haveric.recipeManager.api.events.RecipeManagerFuelBurnRandomEvent;
+import haveric.recipeManager.data.FurnaceData;
+import haveric.recipeManager.data.Furnaces;
+import haveric.recipeManager.flag.FlagType;
+import haveric.recipeManager.flag.Flaggable;
+import haveric.recipeManager.flag.args.Args;
+import haveric.recipeManager.messages.MessageSender;
+import haveric.recipeManager.messages.MessagePrefix;
+import haveric.recipeManager.recipes.*;
+import haveric.recipeManager.tools.ToolsItem;
+import haveric.recipeManagerCommon.recipes.RMCRecipeInfo.RecipeOwner;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Furnace;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event.Result;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.*;
+import org.bukkit.inventory.*;
+
+import java.util.UUID;
+
+/**
+ * RecipeManager handled furnace events, only registered when there are smelt or fuel recipes
+ */
+public class FurnaceEvents implements Listener {
+    protected FurnaceEvents() { }
+
+    /*
+     * Furnace craft events
+     */
+
+    @EventHandler
+    public void inventoryDrag(InventoryDragEvent event) {
+        Inventory inv = event.getInventory();
+
+        if (inv instanceof FurnaceInventory) {
+            HumanEntity entity = event.getWhoClicked();
+
+            if (entity instanceof Player) {
+                if (event.getRawSlots().contains(0)) {
+                    FurnaceInventory inventory = (FurnaceInventory) inv;
+                    Furnace furnace = inventory.getHolder();
+                    ItemStack slot = inventory.getItem(0);
+
+                    if (slot == null || slot.getType() == Material.AIR) {
+                        ItemStack cursor = event.getOldCursor();
+
+                        SmeltRecipe recipe = RecipeManager.getRecipes().getSmeltRecipe(cursor);
+
+                        if (recipe != null) {
+                            if (recipe.hasFlag(FlagType.REMOVE)) {
+                                event.setCancelled(true);
+                            }
+
+                            FurnaceData data = Furnaces.getExisting(furnace.getLocation());
+                            ItemStack fuel = null;
+                            UUID fuelerUUID = null;
+
+                            if (data != null) {
+                                fuel = data.getFuel();
+                                fuelerUUID = data.getFuelerUUID();
+                            }
+
+                            if (fuel == null) {
+                                fuel = inventory.getFuel();
+                            }
+
+                            ItemStack recipeFuel = recipe.getFuel();
+
+                            if (recipeFuel != null && !ToolsItem.isSameItem(recipeFuel, fuel, true)) {
+                                event.setCancelled(true);
+                            } else {
+                                Args a = Args.create().player(fuelerUUID).location(furnace.getLocation()).recipe(recipe).result(recipe.getResult()).inventory(inventory).extra(inventory.getSmelting()).build();
+                                ItemResult result = recipe.getResult(a);
+
+                                if (furnaceHandleFlaggable(recipe, a, false, true) && (result == null || furnaceHandleFlaggable(result, a, false, true)) && isRecipeSameAsResult(a)) {
+                                    ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) (200 - recipe.getCookTicks()));
+                                } else {
+                                    ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) 0);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @EventHandler
+    public void inventoryClick(InventoryClickEvent event) {
+        try {
+            Inventory inv = event.getInventory();
+            HumanEntity ent = event.getWhoClicked();
+
+            if (ent instanceof Player) {
+                InventoryHolder holder = inv.getHolder();
+
+                if (inv instanceof FurnaceInventory && holder instanceof Furnace) {
+                    furnaceClick(event, (Furnace) holder, (Player) ent);
+                }
+            }
+        } catch (Throwable e) {
+            event.setCancelled(true);
+            CommandSender sender;
+            if (event.getWhoClicked() instanceof Player) {
+                sender = event.getWhoClicked();
+            } else {
+                sender = null;
+            }
+
+            MessageSender.getInstance().error(sender, e, event.getEventName() + " cancelled due to error:");
+        }
+    }
+
+    private void furnaceClick(InventoryClickEvent event, Furnace furnace, Player player) throws Throwable {
+        FurnaceData data = Furnaces.get(furnace.getLocation());
+        if (data.getFuelerUUID() == null) {
+            data.setFuelerUUID(player.getUniqueId());
+        }
+
+        if (!RecipeManager.getPlugin().canCraft(player)) {
+            event.setCancelled(true);
+            return;
+        }
+
+        if (event.getRawSlot() == -1) {
+            return;
+        }
+
+        FurnaceInventory inventory = furnace.getInventory();
+        ItemStack cursor = event.getCursor();
+        ItemStack clicked = event.getCurrentItem();
+        int slot = event.getRawSlot();
+
+        switch (slot) {
+            case 0: // INGREDIENT slot
+                if (event.getClick() == ClickType.NUMBER_KEY) {
+                    if (clicked == null || clicked.getType() == Material.AIR) {
+                        int hotbarButton = event.getHotbarButton();
+                        ItemStack hotbarItem = player.getInventory().getItem(hotbarButton);
+
+                        if (hotbarItem != null && hotbarItem.getType() != Material.AIR) {
+                            SmeltRecipe recipe = RecipeManager.getRecipes().getSmeltRecipe(hotbarItem);
+
+                            if (recipe != null) {
+                                if (recipe.hasFlag(FlagType.REMOVE)) {
+                                    event.setCancelled(true);
+                                }
+
+                                data.setFuelerUUID(player.getUniqueId());
+
+                                Args a = Args.create().player(data.getFuelerUUID()).location(furnace.getLocation()).recipe(recipe).result(recipe.getResult()).inventory(inventory).extra(inventory.getSmelting()).build();
+
+                                if (furnaceHandleFlaggable(recipe, a, false, true) && isRecipeSameAsResult(a)) {
+                                    ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) (200 - recipe.getCookTicks()));
+                                } else {
+                                    ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) 0);
+                                }
+                            }
+                        }
+                    }
+                } else if (cursor != null && cursor.getType() != Material.AIR) {
+                    if (clicked == null || clicked.getType() == Material.AIR || !ToolsItem.isSameItem(cursor, clicked, true)) {
+                        SmeltRecipe recipe = RecipeManager.getRecipes().getSmeltRecipe(cursor);
+
+                        if (recipe != null) {
+                            if (recipe.hasFlag(FlagType.REMOVE)) {
+                                event.setCancelled(true);
+                            }
+
+                            data.setFuelerUUID(player.getUniqueId());
+
+                            ItemStack fuel = data.getFuel();
+
+                            if (fuel == null) {
+                                fuel = inventory.getFuel();
+                            }
+
+                            ItemStack recipeFuel = recipe.getFuel();
+
+                            if (recipeFuel != null && !ToolsItem.isSameItem(recipeFuel, fuel, true)) {
+                                event.setCancelled(true);
+                            } else {
+                                Args a = Args.create().player(data.getFuelerUUID()).location(furnace.getLocation()).recipe(recipe).result(recipe.getResult()).inventory(inventory).extra(inventory.getSmelting()).build();
+                                ItemResult result = recipe.getResult(a);
+
+                                if (furnaceHandleFlaggable(recipe, a, false, true) && (result == null || furnaceHandleFlaggable(result, a, false, true)) && isRecipeSameAsResult(a)) {
+                                    ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) (200 - recipe.getCookTicks()));
+                                } else {
+                                    ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) 0);
+                                }
+                            }
+                        }
+                    }
+                }
+                break;
+            case 1: // FUEL slot
+                ItemStack fuel = ToolsItem.nullIfAir(cursor);
+
+                if (fuel != null) {
+                    data.setFuelerUUID(player.getUniqueId());
+                }
+
+                if (event.getClick() == ClickType.NUMBER_KEY) {
+                    int hotbarButton = event.getHotbarButton();
+                    ItemStack hotbarItem = player.getInventory().getItem(hotbarButton);
+
+                    FuelRecipe fuelRecipe = Recipes.getInstance().getFuelRecipe(hotbarItem);
+
+                    if (fuelRecipe != null && !fuelRecipe.getInfo().getOwner().equals(RecipeOwner.MINECRAFT)) {
+                        if (hotbarItem != null && hotbarItem.getType() != Material.AIR) {
+                            if (clicked == null || clicked.getType() == Material.AIR) {
+                                event.setCurrentItem(hotbarItem.clone());
+                                ToolsItem.replaceItem(player.getInventory(), hotbarButton, new ItemStack(Material.AIR));
+                                event.setResult(Result.DENY);
+                            }
+                        }
+                    }
+                } else if (event.isLeftClick()) {
+                    FuelRecipe fuelRecipe = Recipes.getInstance().getFuelRecipe(cursor);
+
+                    if (fuelRecipe != null && !fuelRecipe.getInfo().getOwner().equals(RecipeOwner.MINECRAFT)) {
+                        if (cursor != null && cursor.getType() != Material.AIR) {
+                            if (clicked == null || clicked.getType() == Material.AIR) {
+                                event.setCurrentItem(cursor.clone());
+                                event.setCursor(new ItemStack(Material.AIR));
+                                event.setResult(Result.DENY);
+                            } else {
+                                if (ToolsItem.isSameItem(cursor, clicked, false)) {
+                                    int clickedAmount = clicked.getAmount();
+                                    int cursorAmount = cursor.getAmount();
+
+                                    int total = clickedAmount + cursorAmount;
+                                    int maxStack = clicked.getType().getMaxStackSize();
+                                    if (total <= maxStack) {
+                                        ItemStack combinedClone = clicked.clone();
+                                        combinedClone.setAmount(total);
+                                        event.setCurrentItem(combinedClone);
+                                        event.setCursor(new ItemStack(Material.AIR));
+                                        event.setResult(Result.DENY);
+                                    } else {
+                                        int left = total - maxStack;
+
+                                        ItemStack maxClone = clicked.clone();
+                                        maxClone.setAmount(maxStack);
+                                        event.setCurrentItem(maxClone);
+
+                                        if (left > 0) {
+                                            ItemStack leftClone = clicked.clone();
+                                            leftClone.setAmount(left);
+                                            event.setCursor(leftClone);
+                                        }
+                                        event.setResult(Result.DENY);
+                                    }
+                                } else {
+                                    ItemStack clickedClone = clicked.clone();
+                                    ItemStack cursorClone = cursor.clone();
+                                    event.setCurrentItem(cursorClone);
+                                    event.setCursor(clickedClone);
+                                    event.setResult(Result.DENY);
+                                }
+                            }
+                        }
+                    }
+                } else if (event.isRightClick()) {
+                    FuelRecipe fuelRecipe = Recipes.getInstance().getFuelRecipe(cursor);
+
+                    if (fuelRecipe != null && !fuelRecipe.getInfo().getOwner().equals(RecipeOwner.MINECRAFT)) {
+                        if (cursor != null && cursor.getType() != Material.AIR) {
+                            if (clicked == null || clicked.getType() == Material.AIR) {
+                                int cursorAmount = cursor.getAmount();
+                                ItemStack cursorClone = cursor.clone();
+                                cursorClone.setAmount(cursorAmount - 1);
+
+                                ItemStack singleClone = cursor.clone();
+                                singleClone.setAmount(1);
+                                event.setCurrentItem(singleClone);
+                                event.setCursor(cursorClone);
+                                event.setResult(Result.DENY);
+                            } else {
+                                if (ToolsItem.isSameItem(cursor, clicked, false)) {
+                                    int clickedAmount = clicked.getAmount();
+                                    int cursorAmount = cursor.getAmount();
+
+                                    int maxStack = clicked.getType().getMaxStackSize();
+
+                                    if (clickedAmount + 1 < maxStack) {
+                                        ItemStack clickedClone = clicked.clone();
+                                        clickedClone.setAmount(clickedAmount + 1);
+                                        event.setCurrentItem(clickedClone);
+
+                                        ItemStack cursorClone = cursor.clone();
+                                        cursorClone.setAmount(cursorAmount - 1);
+                                        event.setCursor(cursorClone);
+                                        event.setResult(Result.DENY);
+                                    }
+                                } else {
+                                    ItemStack clickedClone = clicked.clone();
+                                    ItemStack cursorClone = cursor.clone();
+                                    event.setCurrentItem(cursorClone);
+                                    event.setCursor(clickedClone);
+                                    event.setResult(Result.DENY);
+                                }
+                            }
+                        }
+                    }
+                }
+
+                break;
+
+            case 2: // RESULT slot
+                break;
+
+            default: // player inventory - Shift+Click handling in player inventory while having furnace UI opened
+                if (slot == -999 || !event.isShiftClick() || clicked == null || clicked.getType() == Material.AIR) {
+                    break; // abort if clicked outside of inventory OR not shift+click OR clicked on empty slot
+                }
+
+                // Get the target slot for the shift+click
+                // First checks if the setting is for normal shift+click mode
+                // Then checks if the clicked item is a fuel recipe and sends it to fuel slot if so, otherwise to ingredient slot
+                // If it's left/right click mode then see if it's right click and send to fuel slot otherwise to ingredient slot
+                int targetSlot = 0;
+
+                if (Settings.getInstance().getFurnaceShiftClick() == 'f' || event.isRightClick()) {
+                    if (RecipeManager.getRecipes().getFuelRecipe(clicked) != null) {
+                        targetSlot = 1;
+                    }
+                }
+
+                ItemStack item = inventory.getItem(targetSlot); // Get the item at the target slot
+                boolean similarItems = clicked.isSimilar(item); // Check if the clicked item is similar to the item at the targeted slot
+
+                // Check if it's normal shift+click mode setting and if targeted slot is the fuel slot and there is an item there but it's not similar to our clicked item
+                if (Settings.getInstance().getFurnaceShiftClick() == 'f' && targetSlot == 1 && item != null && !similarItems) {
+                    targetSlot = 0; // change the target slot to ingredient slot
+                    item = inventory.getItem(targetSlot); // get the item at the new set slot
+                    similarItems = clicked.isSimilar(item); // update similarity check
+                }
+
+                if (item == null || item.getType() == Material.AIR) { // If targeted item slot is empty
+                    if (targetSlot == 1) {
+                        inventory.setItem(targetSlot, clicked); // send the item to the slot
+                        event.setCurrentItem(null); // clear the clicked slot
+
+                        event.setCancelled(true); // cancel only if we're going to mess with the items
+                        new UpdateInventory(player, 0); // update inventory to see the changes client-side
+                    } else {
+                        SmeltRecipe recipe = RecipeManager.getRecipes().getSmeltRecipe(clicked);
+
+                        if (recipe != null) {
+                            data.setFuelerUUID(player.getUniqueId());
+
+                            ItemStack recipeIngredient = recipe.getIngredient();
+                            if (ToolsItem.isSameItem(clicked, recipeIngredient, true)) {
+                                data = Furnaces.get(furnace.getLocation());
+                                fuel = data.getFuel();
+
+                                if (fuel == null) {
+                                    fuel = inventory.getFuel();
+                                }
+
+                                ItemStack recipeFuel = recipe.getFuel();
+
+                                if (recipeFuel != null && !ToolsItem.isSameItem(recipeFuel, fuel, true)) {
+                                    event.setCancelled(true);
+                                } else {
+                                    Args a = Args.create().player(data.getFuelerUUID()).location(furnace.getLocation()).recipe(recipe).result(recipe.getResult()).inventory(inventory).extra(inventory.getSmelting()).build();
+                                    ItemResult result = recipe.getResult(a);
+
+                                    if (furnaceHandleFlaggable(recipe, a, false, true) && (result == null || furnaceHandleFlaggable(result, a, false, true)) && isRecipeSameAsResult(a)) {
+                                        inventory.setItem(targetSlot, clicked); // send the item to the slot
+                                        event.setCurrentItem(null); // clear the clicked slot
+                                        ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) (200 - recipe.getCookTicks()));
+                                    } else {
+                                        ToolsItem.updateFurnaceCookTimeDelayed(furnace, (short) 0);
+                                    }
+                                }
+                            } else {
+                                event.setCancelled(true);
+                            }
+                            event.setCancelled(true); // cancel only if we're going to mess with the items
+                            new UpdateInventory(player, 0); // update inventory to see the changes client-side
+                        }
+                    }
+                } else {
+                    // Otherwise the targeted slot contains some item, need to identify if we can stack over it
+
+                    int maxStack = Math.min(inventory.getMaxStackSize(), item.getType().getMaxStackSize()); // see how much we can place on that slot
+                    int itemAmount = item.getAmount(); // get how many items there are in the stack
+
+                    if (similarItems && itemAmount < maxStack) { // if item has room for more and they're similar
+                        event.setCancelled(true); // cancel only if we're going to mess with the items
+                        data.setFuelerUUID(player.getUniqueId());
+
+                        int amount = itemAmount + clicked.getAmount(); // add the stacks together
+                        int diff = amount - maxStack; // check to see if there are any leftovers
+
+                        item.setAmount(Math.min(amount, maxStack)); // set the amount of targeted slot to the added amount OR max stack if it's exceeded
+
+                        if (diff > 0) {
+                            clicked.setAmount(diff); // reduce stack amount from clicked stack if there are leftovers
+                        } else {
+                            event.setCurrentItem(null); // entirely remove the clicked stack if there are no leftovers
+                        }
+
+                        new UpdateInventory(player, 0); // update inventory to see the changes client-side
+                    }
+                }
+        }
+    }
+
+    private boolean isRecipeSameAsResult(Args a) {
+        boolean isSame = false;
+        ItemStack smelted = a.inventory().getItem(2);
+
+        if (smelted != null && smelted.getType() != Material.AIR) {
+            ItemResult result = a.result();
+            if (result != null) {
+                isSame = ToolsItem.isSameItem(smelted, result, true);
+            }
+        } else {
+            isSame = true;
+        }
+
+        return isSame;
+    }
+
+    private boolean furnaceHandleFlaggable(Flaggable flaggable, Args a, boolean craft, boolean sendReasons) {
+        if (flaggable == null) {
+            return false;
+        }
+
+        MessagePrefix msg = MessagePrefix.furnace(a.location());
+
+        a.clear();
+
+        boolean checked;
+        if (sendReasons) {
+            checked = flaggable.checkFlags(a);
+        } else {
+            checked = flaggable.checkFlagsFast(a);
+        }
+
+        if (checked) {
+            a.sendEffects(a.player(), msg);
+        } else {
+            if (sendReasons) {
+                a.sendReasons(a.player(), msg);
+            }
+            return false;
+        }
+
+        a.clear();
+
+        if (flaggable.sendPrepare(a)) {
+            a.sendEffects(a.player(), msg);
+        } else {
+            if (sendReasons) {
+                a.sendReasons(a.player(), msg);
+            }
+            return false;
+        }
+
+        if (craft) {
+            a.clear();
+
+            if (flaggable.sendCrafted(a)) {
+                a.sendEffects(a.player(), msg);
+            } else {
+                if (sendReasons) {
+                    a.sendReasons(a.player(), msg);
+                }
+                return false;
+            }
+        }
+
+        a.clear();
+
+        return true;
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void furnaceBurn(FurnaceBurnEvent event) {
+        short burnTime = 0;
+        short cookTime = 0;
+
+        Furnace furnace = (Furnace) event.getBlock().getState();
+
+        FurnaceInventory inventory = furnace.getInventory();
+
+        Location furnaceLocation = furnace.getLocation();
+        FurnaceData data = Furnaces.get(furnaceLocation);
+
+        ItemStack fuel = event.getFuel();
+
+        FuelRecipe fuelRecipe = RecipeManager.getRecipes().getFuelRecipe(fuel);
+
+        if (fuelRecipe != null) {
+            if (fuelRecipe.hasFlag(FlagType.REMOVE)) {
+                event.setCancelled(true);
+            }
+
+            Args a = Args.create().player(data.getFuelerUUID()).location(furnaceLocation).recipe(fuelRecipe).inventory(inventory).extra(inventory.getSmelting()).build();
+
+            if (!furnaceHandleFlaggable(fuelRecipe, a, true, false)) {
+                event.setCancelled(true);
+            }
+
+            burnTime = (short) fuelRecipe.getBurnTicks();
+        }
+
+        data.setFuel(fuel);
+
+        ItemStack ingredient = inventory.getSmelting();
+        SmeltRecipe recipe = RecipeManager.getRecipes().getSmeltRecipe(ingredient);
+
+        if (recipe != null) {
+            if (recipe.hasFlag(FlagType.REMOVE)) {
+                event.setCancelled(true);
+            }
+
+            ItemStack recipeFuel = recipe.getFuel();
+
+            if (recipeFuel != null && !ToolsItem.isSameItem(recipeFuel, fuel, true)) {
+                event.setCancelled(true);
+            }
+
+            Args a = Args.create().player(data.getFuelerUUID()).location(furnaceLocation).recipe(recipe).inventory(inventory).extra(inventory.getSmelting()).build();
+            ItemResult result = recipe.getResult(a);
+
+            boolean recipeFlaggable = furnaceHandleFlaggable(recipe, a, false, false);
+            boolean resultFlaggable = false;
+            if (result != null) {
+                resultFlaggable = furnaceHandleFlaggable(result, a, false, false);
+            }
+
+            if (!isRecipeSameAsResult(a) || !recipeFlaggable || (result != null && !resultFlaggable)) {
+                event.setCancelled(true);
+            }
+
+            cookTime = (short) (200 - recipe.getCookTicks());
+        }
+
+        if (fuelRecipe != null) {
+            event.setBurnTime(burnTime);
+
+            long randTime = (long) Math.floor(Math.random() * burnTime);
+            FuelBurns.schedule(furnaceLocation, fuelRecipe, data.getFuelerUUID(), randTime, burnTime);
+        }
+
+        boolean isBurning = furnace.getType() == Material.BURNING_FURNACE;
+        if (recipe != null && !isBurning) {
+            furnace.setCookTime(cookTime);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void randomBurn(RecipeManagerFuelBurnRandomEvent event) {
+        FuelRecipe recipe = event.getRecipe();
+        Furnace furnace = event.getFurnace();
+        FurnaceInventory inventory = furnace.getInventory();
+        Args a = Args.create().player(event.getFuelerUUID()).location(furnace.getLocation()).recipe(recipe).inventory(inventory).extra(inventory.getSmelting()).build();
+
+        a.clear();
+
+        MessagePrefix msg = MessagePrefix.furnace(a.location());
+
+        if (recipe.sendFuelRandom(a)) {
+            a.sendEffects(a.player(), msg);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void afterBurn(RecipeManagerFuelBurnEndEvent event) {
+        FuelRecipe recipe = event.getRecipe();
+        Furnace furnace = event.getFurnace();
+        FurnaceInventory inventory = furnace.getInventory();
+        Location furnaceLocation = furnace.getLocation();
+        FurnaceData data = Furnaces.getExisting(furnaceLocation);
+
+        if (data != null) {
+            data.setFuel(null);
+        }
+
+        Args a = Args.create().player(event.getFuelerUUID()).location(furnaceLocation).recipe(recipe).inventory(inventory).extra(inventory.getSmelting()).build();
+
+        a.clear();
+
+        MessagePrefix msg = MessagePrefix.furnace(a.location());
+
+        if (recipe.sendFuelEnd(a)) {
+            a.sendEffects(a.player(), msg);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void furnaceSmelt(FurnaceSmeltEvent event) {
+        Furnace furnace = (Furnace) event.getBlock().getState();
+        FurnaceInventory inventory = furnace.getInventory();
+
+        short cookTime = 0;
+        ItemStack ingredient = inventory.getSmelting();
+        SmeltRecipe recipe = RecipeManager.getRecipes().getSmeltRecipe(ingredient);
+
+        if (recipe != null) {
+            if (recipe.hasFlag(FlagType.REMOVE)) {
+                event.setCancelled(true);
+            }
+
+            FurnaceData data = Furnaces.getExisting(furnace.getLocation());
+            UUID fuelerUUID = null;
+
+            if (data != null) {
+                fuelerUUID = data.getFuelerUUID();
+            }
+
+            Args a = Args.create().player(fuelerUUID).location(furnace.getLocation()).recipe(recipe).inventory(inventory).extra(inventory.getSmelting()).build();
+
+            ItemResult result = recipe.getResult(a);
+
+            event.setResult(event.getResult());
+
+            boolean recipeFlaggable = furnaceHandleFlaggable(recipe, a, true, true);
+            boolean resultFlaggable = false;
+            if (result != null) {
+                resultFlaggable = furnaceHandleFlaggable(result, a, true, true);
+            }
+
+            if (!isRecipeSameAsResult(a) || !recipeFlaggable || (result != null && !resultFlaggable)) {
+                event.setResult(new ItemStack(Material.AIR));
+            } else {
+                if (a.result() == null || a.result().getType() == Material.AIR || result.hasFlag(FlagType.NO_RESULT)) {
+                    event.setResult(new ItemStack(Material.AIR));
+                } else {
+                    event.setResult(result.toItemStack());
+
+                    if (recipe.hasFlag(FlagType.INGREDIENT_CONDITION) || result.hasFlag(FlagType.INGREDIENT_CONDITION)) {
+                        recipe.subtractIngredient(inventory, result, true);
+                    }
+                }
+            }
+
+            cookTime = (short) (200 - recipe.getCookTicks());
+        }
+
+        if (recipe != null) {
+            ItemStack recipeFuel = recipe.getFuel();
+
+            if (recipeFuel != null && !ToolsItem.isSameItem(recipeFuel, inventory.getFuel(), true)) {
+               cookTime = 0;
+            }
+
+            furnace.setCookTime(cookTime);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void furnaceTakeResult(FurnaceExtractEvent event) {
+        try {
+            if (event.getExpToDrop() == 0) {
+                return;
+            }
+
+            BlockState state = event.getBlock().getState();
+
+            if (!(state instanceof Furnace)) {
+                return; // highly unlikely but better safe than sorry
+            }
+
+            SmeltRecipe recipe = furnaceResultRecipe((Furnace) state);
+
+            if (recipe != null) {
+                event.setExpToDrop(0);
+            }
+        } catch (Throwable e) {
+            MessageSender.getInstance().error(null, e, event.getEventName() + " cancelled due to error:");
+        }
+    }
+
+    private SmeltRecipe furnaceResultRecipe(Furnace furnace) {
+        ItemStack ingredient = ToolsItem.nullIfAir(furnace.getInventory().getSmelting());
+        SmeltRecipe smeltRecipe = null;
+        ItemStack result = furnace.getInventory().getResult();
+
+        if (ingredient == null) {
+            // Guess recipe by result - inaccurate
+            smeltRecipe = RecipeManager.getRecipes().getSmeltRecipeByResult(result);
+        } else {
+            smeltRecipe = RecipeManager.getRecipes().getSmeltRecipe(ingredient);
+        }
+
+        return smeltRecipe;
+    }
+}
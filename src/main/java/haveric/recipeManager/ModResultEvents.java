@@ -0,0 +1,58 @@
+package haveric.recipeManager;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.*;
+import org.bukkit.event.player.*;
+import org.bukkit.inventory.*;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.List;
+
+/**
+ * Removes the recipe id lore that mods can leave on results, only registered when 'fix-mod-results' is enabled
+ */
+public class ModResultEvents implements Listener {
+    protected ModResultEvents() { }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void inventoryClose(InventoryCloseEvent event) {
+        for (ItemStack item : event.getPlayer().getInventory().getContents()) {
+            itemProcess(item);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void playerItemHeld(PlayerItemHeldEvent event) {
+        itemProcess(event.getPlayer().getInventory().getItem(event.getNewSlot()));
+    }
+
+    private void itemProcess(ItemStack item) {
+        if (item == null || !item.hasItemMeta()) {
+            return;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+
+        if (meta == null) {
+            return;
+        }
+
+        List<String> lore = meta.getLore();
+
+        if (lore == null || lore.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < lore.size(); i++) {
+            String s = lore.get(i);
+
+            if (s != null && s.startsWith(Recipes.RECIPE_ID_STRING)) {
+                lore.remove(i);
+                meta.setLore(lore);
+                item.setItemMeta(meta);
+            }
+        }
+    }
+}
@@ -1,20 +1,41 @@
 package haveric.recipeManager;
 
+import haveric.recipeManager.flag.FlagDescriptor;
+import haveric.recipeManager.flag.FlagFactory;
 import haveric.recipeManager.messages.MessageSender;
 import net.milkbowl.vault.permission.Permission;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
 
 public class Perms {
     public static final String FLAG_PREFIX = "recipemanager.flag.";
     public static final String FLAG_ALL = FLAG_PREFIX + "*";
 
+    // Bukkit has no event for permission changes, so cached flag permissions are also re-read after this many milliseconds
+    private static final long FLAG_PERMISSIONS_EXPIRE = 30000;
+
     private Permission permission = null;
     private static Perms instance = null;
 
+    // Flag types each player has permission for, by player UUID and flag descriptor id
+    private Map<UUID, FlagPermissions> flagPermissions = new HashMap<>();
+
+    private static class FlagPermissions {
+        private BitSet allowed;
+        private long expires;
+
+        private FlagPermissions(BitSet newAllowed, long newExpires) {
+            allowed = newAllowed;
+            expires = newExpires;
+        }
+    }
+
     protected Perms() {
        // Exists only to defeat instantiation.
     }
@@ -57,6 +78,56 @@ public class Perms {
 
     protected void clean() {
         permission = null;
+        flagPermissions.clear();
+    }
+
+    /**
+     * Checks if the player has permission for the flag, read once for all flags and cached until the player quits or changes worlds, or plugin reloads.<br>
+     * The cache is also read again after {@link #FLAG_PERMISSIONS_EXPIRE} (30 seconds), so permissions changed by other means apply within that time.
+     *
+     * @param player
+     * @param flag
+     * @return true if the player has permission for the flag
+     */
+    public boolean hasFlagPermission(Player player, FlagDescriptor flag) {
+        long now = System.currentTimeMillis();
+        FlagPermissions permissions = flagPermissions.get(player.getUniqueId());
+
+        if (permissions == null || permissions.expires < now) {
+            permissions = new FlagPermissions(readFlagPermissions(player), now + FLAG_PERMISSIONS_EXPIRE);
+            flagPermissions.put(player.getUniqueId(), permissions);
+        }
+
+        return permissions.allowed.get(flag.getId());
+    }
+
+    private BitSet readFlagPermissions(Player player) {
+        Map<String, FlagDescriptor> flags = FlagFactory.getInstance().getFlags();
+        BitSet allowed = new BitSet(flags.size());
+
+        if (hasFlagAll(player)) {
+            allowed.set(0, flags.size());
+            return allowed;
+        }
+
+        for (FlagDescriptor flag : flags.values()) {
+            for (String name : flag.getNames()) {
+                if (hasFlagPrefix(player, name)) {
+                    allowed.set(flag.getId());
+                    break;
+                }
+            }
+        }
+
+        return allowed;
+    }
+
+    public void clearFlagPermissions(UUID playerUUID) {
+        flagPermissions.remove(playerUUID);
+    }
+
+    public void clearFlagPermissions() {
+        flagPermissions.clear();
     }
 
     public static boolean hasFlagAll(Player player) {
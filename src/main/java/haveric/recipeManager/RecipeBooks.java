@@ -33,8 +33,12 @@ public class RecipeBooks {
     private static String DIR_BOOKS;
     private static String FILE_ERRORLOG;
 
+    private static final Pattern AUTHOR_STAMP = Pattern.compile("(.*) ([\\d\\w]+) ([0-9]+) ([0-9]+)");
+    private static final int MAX_STAMPS = 1024;
+
     private final Map<String, RecipeBook> books = new HashMap<>();
-    private final int generated = (int) (System.currentTimeMillis() / 1000);
+    private final Map<String, BookStamp> stamps = new HashMap<>();
+    private int generation = (int) (System.currentTimeMillis() / 1000);
 
     private static RecipeBooks instance;
 
@@ -69,6 +73,40 @@ public class RecipeBooks {
 
     public void clean() {
         books.clear();
+        stamps.clear();
+    }
+
+    /**
+     * Book details hidden in the author of generated books.
+     */
+    private static class BookStamp {
+        private final String id;
+        private final int volume;
+        private final int generation;
+
+        private BookStamp(String newId, int newVolume, int newGeneration) {
+            id = newId;
+            volume = newVolume;
+            generation = newGeneration;
+        }
+    }
+
+    /**
+     * Books stamped with an older generation are outdated.<br>
+     * Starts at the enable time in seconds and only increases so stamps from previous runs stay older.
+     *
+     * @return current generation number
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    private void nextGeneration() {
+        generation = Math.max(generation + 1, (int) (System.currentTimeMillis() / 1000));
+
+        for (RecipeBook book : books.values()) {
+            book.clearCache();
+        }
     }
 
     public void reload(CommandSender sender) {
@@ -164,6 +202,8 @@ public class RecipeBooks {
         for (Entry<String, File> e : files.entrySet()) {
             initBookRecipes(sender, e.getValue());
         }
+
+        nextGeneration();
     }
 
     /**
@@ -235,6 +275,12 @@ public class RecipeBooks {
 
         RecipeBook book = getBook(id);
 
+        if (book == null) {
+            return;
+        }
+
+        book.clearVolumes();
+
         // Loading recipes from volumes...
         Map<Integer, List<String>> volumesMap = new HashMap<>(); // need List for saving to YAML properly
         Set<String> allRecipes = new HashSet<>();
@@ -571,54 +617,71 @@ public class RecipeBooks {
             return;
         }
 
-        Matcher match = Pattern.compile("(.*) ([\\d\\w]+) ([0-9]+) ([0-9]+)").matcher(RMCUtil.unhideString(meta.getAuthor()));
+        BookStamp stamp = getStamp(player, meta.getAuthor());
 
-        if (match.find() && match.groupCount() >= 4) {
-            String id = match.group(2);
-            RecipeBook book = getBook(id);
+        if (stamp == null || stamp.generation >= generation) {
+            return; // not a recipe book or already up to date
+        }
 
-            if (book == null) {
-                Messages.getInstance().sendOnceCustom(player, "recipebook.update.extinct", "{title}", meta.getTitle());
-                return;
-            }
+        RecipeBook book = getBook(stamp.id);
 
-            int volume;
-            int updated;
+        if (book == null) {
+            Messages.getInstance().sendOnceCustom(player, "recipebook.update.extinct", "{title}", meta.getTitle());
+            return;
+        }
 
-            try {
-                volume = Integer.parseInt(match.group(3));
-                updated = Integer.parseInt(match.group(4));
-            } catch (NumberFormatException e) {
-                MessageSender.getInstance().error(null, e, "Error while parsing " + player.getName() + "'s held book details.");
-                return;
-            }
+        if (stamp.volume > book.getVolumesNum()) {
+            Messages.getInstance().sendOnceCustom(player, "recipebook.update.novolume", "{title}", meta.getTitle(), "{volume}", stamp.volume);
+            return;
+        }
 
-            if (generated > updated) {
-                if (volume > book.getVolumesNum()) {
-                    Messages.getInstance().sendOnceCustom(player, "recipebook.update.novolume", "{title}", meta.getTitle(), "{volume}", volume);
-                    return;
-                }
+        BookMeta bookMeta = book.getBookMeta(stamp.volume);
 
-                ItemStack bookItem = book.getBookItem(volume);
-                BookMeta bookMeta = (BookMeta) bookItem.getItemMeta();
+        boolean titleDiff = !bookMeta.getTitle().equals(meta.getTitle());
 
-                boolean titleDiff = !bookMeta.getTitle().equals(meta.getTitle());
+        if (titleDiff || !bookMeta.getPages().equals(meta.getPages())) {
+            Messages.getInstance().send(player, "recipebook.update.done");
 
-                if (titleDiff || !bookMeta.getPages().equals(meta.getPages())) {
-                    Messages.getInstance().send(player, "recipebook.update.done");
+            if (titleDiff) {
+                Messages.getInstance().send(player, "recipebook.update.changed.title", "{oldtitle}", meta.getTitle(), "{newtitle}", bookMeta.getTitle());
+            }
 
-                    if (titleDiff) {
-                        Messages.getInstance().send(player, "recipebook.update.changed.title", "{oldtitle}", meta.getTitle(), "{newtitle}", bookMeta.getTitle());
-                    }
+            if (meta.getPageCount() != bookMeta.getPageCount()) {
+                Messages.getInstance().send(player, "recipebook.update.changed.pages", "{oldpages}", meta.getPageCount(), "{newpages}", bookMeta.getPageCount());
+            }
+        }
 
-                    if (meta.getPageCount() != bookMeta.getPageCount()) {
-                        Messages.getInstance().send(player, "recipebook.update.changed.pages", "{oldpages}", meta.getPageCount(), "{newpages}", bookMeta.getPageCount());
-                    }
-                }
+        item.setItemMeta(bookMeta);
+    }
 
-                item.setItemMeta(bookMeta);
+    /**
+     * Parses the details hidden in a book's author, results are remembered per author string.
+     *
+     * @return stamp or null if the author has no stamp
+     */
+    private BookStamp getStamp(Player player, String author) {
+        if (stamps.containsKey(author)) {
+            return stamps.get(author);
+        }
+
+        BookStamp stamp = null;
+        Matcher match = AUTHOR_STAMP.matcher(RMCUtil.unhideString(author));
+
+        if (match.find()) {
+            try {
+                stamp = new BookStamp(match.group(2), Integer.parseInt(match.group(3)), Integer.parseInt(match.group(4)));
+            } catch (NumberFormatException e) {
+                MessageSender.getInstance().error(null, e, "Error while parsing " + player.getName() + "'s held book details.");
             }
         }
+
+        if (stamps.size() >= MAX_STAMPS) {
+            stamps.clear();
+        }
+
+        stamps.put(author, stamp);
+
+        return stamp;
     }
 
     public Map<String, RecipeBook> getBooks() {
@@ -0,0 +1,573 @@
+package haveric.recipeManager;
+
+import haveric.recipeManager.flag.Flaggable;
+import haveric.recipeManager.flag.Flags;
+import haveric.recipeManager.messages.MessageSender;
+import haveric.recipeManager.recipes.*;
+import haveric.recipeManager.tools.Tools;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Binary cache of the recipes parsed from each recipe file, allows loading unchanged files without parsing them.<br>
+ * Only files that parsed without errors or warnings are cached, the rest are always parsed.<br>
+ * Flags are stored as their expressions and parsed again when the recipes are read, items with meta are stored in their YAML form.<br>
+ * The whole cache is discarded if the plugin or server version, settings, messages or alias files change.
+ */
+public class RecipeCache {
+    private static final int FORMAT_VERSION = 3;
+
+    private static final byte TYPE_CRAFT = 0;
+    private static final byte TYPE_COMBINE = 1;
+    private static final byte TYPE_SMELT = 2;
+    private static final byte TYPE_FUEL = 3;
+    private static final byte TYPE_BREW = 4;
+
+    private static final byte ITEM_NONE = 0;
+    private static final byte ITEM_PLAIN = 1;
+    private static final byte ITEM_META = 2;
+
+    private final File file;
+    private final String digest;
+    private final Map<String, CachedFile> files = new HashMap<>();
+    private boolean changed = false;
+
+    public RecipeCache(File newFile) {
+        file = newFile;
+        digest = createDigest();
+    }
+
+    /**
+     * Reads the cache file, an outdated or unreadable cache is ignored.
+     */
+    public void load() {
+        files.clear();
+        changed = true; // rewritten unless read below
+
+        if (digest == null || !file.exists()) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(digest)) {
+                return;
+            }
+
+            int numFiles = in.readInt();
+
+            for (int i = 0; i < numFiles; i++) {
+                String name = in.readUTF();
+                long checksum = in.readLong();
+                int[] lines = new int[in.readInt()];
+
+                for (int r = 0; r < lines.length; r++) {
+                    lines[r] = in.readInt();
+                }
+
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+
+                files.put(name, new CachedFile(checksum, lines, data));
+            }
+
+            changed = false;
+        } catch (IOException | RuntimeException e) {
+            files.clear();
+
+            MessageSender.getInstance().log("Recipe cache could not be read, all recipe files will be parsed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the file's recipes, their flags are parsed again so set the {@link ErrorReporter}'s file before calling this.
+     *
+     * @param fileName
+     * @param checksum
+     *            checksum of the file's current contents
+     * @return cached recipes or null if the file isn't cached or it changed since
+     */
+    public List<BaseRecipe> getRecipes(String fileName, long checksum) {
+        CachedFile cached = files.get(fileName);
+        List<BaseRecipe> recipes = null;
+
+        if (cached != null && cached.checksum == checksum) {
+            try {
+                recipes = readRecipes(cached);
+            } catch (IOException | RuntimeException e) {
+                remove(fileName);
+
+                MessageSender.getInstance().log("Cached recipes of '" + fileName + "' could not be read, parsing the file instead: " + e.getMessage());
+            }
+        }
+
+        return recipes;
+    }
+
+    /**
+     * @param fileName
+     * @return lines of the recipe directives in the same order as {@link #getRecipes(String, long)} or null if the file isn't cached
+     */
+    public int[] getLines(String fileName) {
+        CachedFile cached = files.get(fileName);
+        int[] lines = null;
+
+        if (cached != null) {
+            lines = cached.lines;
+        }
+
+        return lines;
+    }
+
+    /**
+     * Sets the file's entry, only call this if the file was parsed without errors or warnings.
+     *
+     * @param lines
+     *            line of each recipe's directive, used for reporting errors about recipes loaded from the cache
+     * @return true if cached, false if the recipes can't be cached
+     */
+    public boolean put(String fileName, long checksum, List<BaseRecipe> recipes, int[] lines) {
+        CachedFile cached = files.get(fileName);
+
+        // same contents give the same recipes, only write the cache if something changed
+        if (cached != null && cached.checksum == checksum) {
+            return true;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (BaseRecipe recipe : recipes) {
+                writeRecipe(out, recipe);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            remove(fileName);
+            return false;
+        }
+
+        files.put(fileName, new CachedFile(checksum, lines, bytes.toByteArray()));
+        changed = true;
+
+        return true;
+    }
+
+    public void remove(String fileName) {
+        if (files.remove(fileName) != null) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Removes the files that no longer exist.
+     *
+     * @param fileNames
+     *            names of all existing recipe files
+     */
+    public void retain(Collection<String> fileNames) {
+        if (files.keySet().retainAll(fileNames)) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Writes the cache file if any entry changed since it was loaded.
+     */
+    public void save() throws IOException {
+        if (digest == null || !changed) {
+            return;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(digest);
+            out.writeInt(files.size());
+
+            for (Entry<String, CachedFile> entry : files.entrySet()) {
+                CachedFile cached = entry.getValue();
+
+                out.writeUTF(entry.getKey());
+                out.writeLong(cached.checksum);
+                out.writeInt(cached.lines.length);
+
+                for (int line : cached.lines) {
+                    out.writeInt(line);
+                }
+
+                out.writeInt(cached.data.length);
+                out.write(cached.data);
+            }
+        }
+
+        changed = false;
+    }
+
+    private static List<BaseRecipe> readRecipes(CachedFile cached) throws IOException {
+        List<BaseRecipe> recipes = new ArrayList<>(cached.lines.length);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(cached.data))) {
+            for (int line : cached.lines) {
+                ErrorReporter.getInstance().setLine(line); // flag errors point to the recipe's directive
+                recipes.add(readRecipe(in));
+            }
+        }
+
+        return recipes;
+    }
+
+    private static void writeRecipe(DataOutputStream out, BaseRecipe recipe) throws IOException {
+        if (recipe instanceof CraftRecipe) {
+            CraftRecipe r = (CraftRecipe) recipe;
+            ItemStack[] ingredients = r.getIngredients();
+
+            out.writeByte(TYPE_CRAFT);
+            writeHeader(out, recipe);
+            out.writeBoolean(r.isMirrorShape());
+
+            // store the shape as it was before mirroring, setMirrorShape() mirrors it again when read
+            if (r.isMirrorShape()) {
+                ingredients = Tools.mirrorItemMatrix(ingredients);
+            }
+
+            for (ItemStack item : ingredients) {
+                writeItem(out, item);
+            }
+
+            writeResults(out, r.getResults());
+        } else if (recipe instanceof CombineRecipe) {
+            CombineRecipe r = (CombineRecipe) recipe;
+            List<ItemStack> ingredients = r.getIngredients();
+
+            out.writeByte(TYPE_COMBINE);
+            writeHeader(out, recipe);
+            out.writeInt(ingredients.size());
+
+            for (ItemStack item : ingredients) {
+                writeItem(out, item);
+            }
+
+            writeResults(out, r.getResults());
+        } else if (recipe instanceof SmeltRecipe) {
+            SmeltRecipe r = (SmeltRecipe) recipe;
+
+            out.writeByte(TYPE_SMELT);
+            writeHeader(out, recipe);
+            writeItem(out, r.getIngredient());
+            writeItem(out, r.getFuel());
+
+            if (r.hasFuel()) {
+                writeFlags(out, r.getFuel());
+            }
+
+            out.writeFloat(r.getMinTime());
+            out.writeFloat(r.getMaxTime());
+            writeResult(out, r.getResult());
+        } else if (recipe instanceof FuelRecipe) {
+            FuelRecipe r = (FuelRecipe) recipe;
+
+            out.writeByte(TYPE_FUEL);
+            writeHeader(out, recipe);
+            writeItem(out, r.getIngredient());
+            out.writeFloat(r.getMinTime());
+            out.writeFloat(r.getMaxTime());
+        } else if (recipe instanceof BrewRecipe) {
+            BrewRecipe r = (BrewRecipe) recipe;
+
+            out.writeByte(TYPE_BREW);
+            writeHeader(out, recipe);
+            writeItem(out, r.getIngredient());
+            writeItem(out, r.getPotion());
+            writeResults(out, r.getResults());
+        } else {
+            throw new IllegalArgumentException("Recipe can't be cached: " + recipe);
+        }
+    }
+
+    private static BaseRecipe readRecipe(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        String name = null;
+
+        if (in.readBoolean()) {
+            name = in.readUTF();
+        }
+
+        BaseRecipe recipe;
+
+        switch (type) {
+            case TYPE_CRAFT:
+                CraftRecipe craftRecipe = new CraftRecipe();
+                readFlags(in, craftRecipe);
+
+                boolean mirror = in.readBoolean();
+                ItemStack[] ingredients = new ItemStack[9];
+
+                for (int i = 0; i < 9; i++) {
+                    ingredients[i] = readItem(in);
+                }
+
+                craftRecipe.setIngredients(ingredients);
+
+                if (mirror) {
+                    craftRecipe.setMirrorShape(true);
+                }
+
+                craftRecipe.setResults(readResults(in, craftRecipe));
+                recipe = craftRecipe;
+                break;
+            case TYPE_COMBINE:
+                CombineRecipe combineRecipe = new CombineRecipe();
+                readFlags(in, combineRecipe);
+
+                int numIngredients = in.readInt();
+                List<ItemStack> ingredientList = new ArrayList<>(numIngredients);
+
+                for (int i = 0; i < numIngredients; i++) {
+                    ingredientList.add(readItem(in));
+                }
+
+                combineRecipe.setIngredients(ingredientList);
+                combineRecipe.setResults(readResults(in, combineRecipe));
+                recipe = combineRecipe;
+                break;
+            case TYPE_SMELT:
+                SmeltRecipe smeltRecipe = new SmeltRecipe();
+                readFlags(in, smeltRecipe);
+                smeltRecipe.setIngredient(readItem(in));
+
+                ItemStack fuel = readItem(in);
+                if (fuel != null) {
+                    smeltRecipe.setFuel(fuel);
+                    readFlags(in, smeltRecipe.getFuel());
+                }
+
+                smeltRecipe.setMinTime(in.readFloat());
+                smeltRecipe.setMaxTime(in.readFloat());
+                smeltRecipe.setResult(readResult(in, smeltRecipe));
+                recipe = smeltRecipe;
+                break;
+            case TYPE_FUEL:
+                FuelRecipe fuelRecipe = new FuelRecipe(new Flags());
+                readFlags(in, fuelRecipe);
+                fuelRecipe.setIngredient(readItem(in));
+                fuelRecipe.setMinTime(in.readFloat());
+                fuelRecipe.setMaxTime(in.readFloat());
+                recipe = fuelRecipe;
+                break;
+            case TYPE_BREW:
+                BrewRecipe brewRecipe = new BrewRecipe();
+                readFlags(in, brewRecipe);
+                brewRecipe.setIngredient(readItem(in));
+                brewRecipe.setPotion(readItem(in));
+                brewRecipe.setResults(readResults(in, brewRecipe));
+                recipe = brewRecipe;
+                break;
+            default:
+                throw new IOException("Unknown cached recipe type: " + type);
+        }
+
+        if (name != null) {
+            recipe.setName(name);
+        }
+
+        return recipe;
+    }
+
+    private static void writeHeader(DataOutputStream out, BaseRecipe recipe) throws IOException {
+        out.writeBoolean(recipe.hasCustomName());
+
+        if (recipe.hasCustomName()) {
+            out.writeUTF(recipe.getName());
+        }
+
+        writeFlags(out, recipe);
+    }
+
+    private static void writeFlags(DataOutputStream out, Flaggable flaggable) throws IOException {
+        out.writeBoolean(flaggable.hasFlags());
+
+        if (flaggable.hasFlags()) {
+            List<String> lines = flaggable.getFlags().getSourceLines();
+
+            if (lines == null) {
+                throw new IllegalArgumentException("Flags weren't all parsed from the file: " + flaggable.getFlags());
+            }
+
+            out.writeInt(lines.size());
+
+            for (String line : lines) {
+                out.writeUTF(line);
+            }
+        }
+    }
+
+    /**
+     * Parses the flags again in their original order, call it at the point the recipe parser parses them.
+     */
+    private static void readFlags(DataInputStream in, Flaggable flaggable) throws IOException {
+        if (in.readBoolean()) {
+            Flags flags = flaggable.getFlags();
+            int numLines = in.readInt();
+
+            for (int i = 0; i < numLines; i++) {
+                flags.parseFlag(in.readUTF());
+            }
+        } else {
+            flaggable.clearFlags();
+        }
+    }
+
+    private static void writeItem(DataOutputStream out, ItemStack item) throws IOException {
+        if (item == null) {
+            out.writeByte(ITEM_NONE);
+        } else if (item.hasItemMeta()) {
+            YamlConfiguration yml = new YamlConfiguration();
+            yml.set("item", new ItemStack(item)); // results are stored as plain items
+            byte[] data = yml.saveToString().getBytes("UTF-8");
+
+            out.writeByte(ITEM_META);
+            out.writeInt(data.length);
+            out.write(data);
+        } else {
+            out.writeByte(ITEM_PLAIN);
+            out.writeInt(item.getTypeId());
+            out.writeInt(item.getAmount());
+            out.writeShort(item.getDurability());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ItemStack readItem(DataInputStream in) throws IOException {
+        byte form = in.readByte();
+        ItemStack item;
+
+        switch (form) {
+            case ITEM_NONE:
+                item = null;
+                break;
+            case ITEM_PLAIN:
+                int type = in.readInt();
+                int amount = in.readInt();
+                short data = in.readShort();
+
+                item = new ItemStack(type, amount, data);
+                break;
+            case ITEM_META:
+                byte[] yamlData = new byte[in.readInt()];
+                in.readFully(yamlData);
+
+                YamlConfiguration yml = new YamlConfiguration();
+
+                try {
+                    yml.loadFromString(new String(yamlData, "UTF-8"));
+                } catch (InvalidConfigurationException e) {
+                    throw new IOException("Invalid cached item: " + e.getMessage(), e);
+                }
+
+                item = yml.getItemStack("item");
+
+                if (item == null) {
+                    throw new IOException("Cached item could not be read");
+                }
+                break;
+            default:
+                throw new IOException("Unknown cached item form: " + form);
+        }
+
+        return item;
+    }
+
+    private static void writeResults(DataOutputStream out, List<ItemResult> results) throws IOException {
+        out.writeInt(results.size());
+
+        for (ItemResult result : results) {
+            writeResult(out, result);
+        }
+    }
+
+    private static void writeResult(DataOutputStream out, ItemResult result) throws IOException {
+        writeItem(out, result);
+        out.writeFloat(result.getChance());
+        writeFlags(out, result);
+    }
+
+    private static List<ItemResult> readResults(DataInputStream in, BaseRecipe recipe) throws IOException {
+        int numResults = in.readInt();
+        List<ItemResult> results = new ArrayList<>(numResults);
+
+        for (int i = 0; i < numResults; i++) {
+            results.add(readResult(in, recipe));
+        }
+
+        return results;
+    }
+
+    private static ItemResult readResult(DataInputStream in, BaseRecipe recipe) throws IOException {
+        ItemResult result = new ItemResult(readItem(in), in.readFloat());
+        result.setRecipe(recipe); // result flags are parsed with the recipe's ingredients already set
+        readFlags(in, result);
+
+        return result;
+    }
+
+    /**
+     * Everything besides the recipe files that changes how recipes are parsed.
+     */
+    private static String createDigest() {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-1");
+            File dataFolder = RecipeManager.getPlugin().getDataFolder();
+
+            md.update(RecipeManager.getPlugin().getDescription().getVersion().getBytes("UTF-8"));
+            md.update(Bukkit.getVersion().getBytes("UTF-8"));
+
+            for (String name : new String[] { Files.FILE_CONFIG, Files.FILE_MESSAGES, Files.FILE_ITEM_ALIASES, Files.FILE_ITEM_DATAS, Files.FILE_ENCHANT_ALIASES }) {
+                File settingsFile = new File(dataFolder, name);
+                md.update(name.getBytes("UTF-8"));
+
+                if (settingsFile.exists()) {
+                    try (InputStream in = new FileInputStream(settingsFile)) {
+                        byte[] buffer = new byte[8192];
+                        int read;
+
+                        while ((read = in.read(buffer)) != -1) {
+                            md.update(buffer, 0, read);
+                        }
+                    }
+                }
+            }
+
+            StringBuilder s = new StringBuilder();
+
+            for (byte b : md.digest()) {
+                s.append(String.format("%02x", b));
+            }
+
+            return s.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            return null; // cache is not used
+        }
+    }
+
+    private static class CachedFile {
+        private final long checksum;
+        private final int[] lines;
+        // recipes as written by writeRecipe(), read again for each reload since parsing flags creates new objects
+        private final byte[] data;
+
+        private CachedFile(long newChecksum, int[] newLines, byte[] newData) {
+            checksum = newChecksum;
+            lines = newLines;
+            data = newData;
+        }
+    }
+}
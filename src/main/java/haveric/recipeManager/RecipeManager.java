@@ -4,6 +4,7 @@ import haveric.recipeManager.api.events.RecipeManagerEnabledEvent;
 import haveric.recipeManager.commands.*;
 import haveric.recipeManager.data.BrewingStandData;
 import haveric.recipeManager.data.BrewingStands;
+import haveric.recipeManager.data.Cooldowns;
 import haveric.recipeManager.data.FurnaceData;
 import haveric.recipeManager.data.Furnaces;
 import haveric.recipeManager.flag.args.ArgBuilder;
@@ -63,6 +64,7 @@ public class RecipeManager extends JavaPlugin {
         BrewingStandData.init();
         Furnaces.load(); // load saved furnaces...
         BrewingStands.load();
+        Cooldowns.load();
 
         events = new Events();
         recipes = new Recipes();
@@ -149,9 +151,24 @@ public class RecipeManager extends JavaPlugin {
      *            Set to true to only check recipes, settings are unaffected.
      */
     public void reload(CommandSender sender, boolean check, boolean firstTime) {
+        reload(sender, check, firstTime, false);
+    }
+
+    /**
+     * Reload RecipeManager's settings, messages, etc and re-parse recipes.
+     *
+     * @param sender
+     *            To whom to send the messages to, null = console.
+     * @param check
+     *            Set to true to only check recipes, settings are unaffected.
+     * @param incremental
+     *            Set to true to only re-parse recipe files that changed since the last load, a full reload is done instead if settings or aliases changed.
+     */
+    public void reload(CommandSender sender, boolean check, boolean firstTime, boolean incremental) {
         Settings.getInstance().reload(sender); // (re)load settings
         Messages.getInstance().reload(sender); // (re)load messages from messages.yml
         Files.reload(sender); // (re)generate info files if they do not exist
+        Perms.getInstance().clearFlagPermissions(); // re-read flag permissions
 
         Updater.init(this, 32835, null);
 
@@ -167,7 +184,16 @@ public class RecipeManager extends JavaPlugin {
         } else {
             metrics.stop();
         }
-        if (!check) {
+        if (!check && RecipeRegistrator.cancelRegistration()) {
+            incremental = false; // the cancelled recipes were never swapped in
+        }
+
+        boolean incrementalReload = incremental && !check && !firstTime && RecipeProcessor.canReloadIncrementally();
+
+        // Registering over several ticks keeps the current recipes, on the server too, until the new ones replace them
+        boolean staged = !check && !incrementalReload && Settings.getInstance().getRegisterTickBudget() > 0;
+
+        if (!check && !incrementalReload && !staged) {
             if (Settings.getInstance().getClearRecipes() || !firstTime) {
                 Vanilla.removeAllButSpecialRecipes();
                 Recipes.getInstance().clean();
@@ -175,12 +201,19 @@ public class RecipeManager extends JavaPlugin {
 
             if (!firstTime && !Settings.getInstance().getClearRecipes()) {
                 Vanilla.restoreAllButSpecialRecipes();
-                Recipes.getInstance().index.putAll(Vanilla.initialRecipes);
+                Recipes.getInstance().addAllToIndex(Vanilla.initialRecipes);
             }
         }
 
-        RecipeProcessor.reload(sender, check); // (re)parse recipe files
-        Events.reload(); // (re)register events
+        if (staged) {
+            RecipeProcessor.reloadStaged(sender, firstTime); // (re)parse recipe files
+        } else {
+            RecipeProcessor.reload(sender, check, incrementalReload); // (re)parse recipe files
+        }
+
+        if (check) {
+            Events.reload(); // (re)register events, otherwise done once the parsed recipes are registered
+        }
     }
 
     private void scanPlugins() {
@@ -247,6 +280,11 @@ public class RecipeManager extends JavaPlugin {
             BrewingStands.save();
             BrewingStands.clean();
 
+            Cooldowns.save();
+            Cooldowns.clean();
+
+            FuelBurns.clean();
+
             Workbenches.clean();
             Players.clean();
             Vanilla.clean();
@@ -293,6 +331,15 @@ public class RecipeManager extends JavaPlugin {
         return recipes;
     }
 
+    /**
+     * Replaces the recipe storage, used to swap in recipes that were registered over several ticks.
+     *
+     * @param newRecipes
+     */
+    protected static void setRecipes(Recipes newRecipes) {
+        recipes = newRecipes;
+    }
+
     /**
      * Checks sender's <i>recipemanager.craft</i> permission
      *
@@ -1,17 +1,39 @@
 package haveric.recipeManager;
 
+import haveric.recipeManager.flag.FlagType;
 import haveric.recipeManager.messages.MessageSender;
+import haveric.recipeManager.recipes.BaseRecipe;
+import haveric.recipeManager.recipes.ConditionEvaluator;
 import haveric.recipeManager.recipes.RecipeFileParser;
 import haveric.recipeManager.recipes.RecipeParserFactory;
 import haveric.recipeManagerCommon.RMCChatColor;
+import haveric.recipeManagerCommon.recipes.RMCRecipeInfo;
+import haveric.recipeManagerCommon.util.RMCUtil;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
 
 /**
  * Processes all recipe files and updates main Recipes class once done.
@@ -19,10 +41,22 @@ import java.util.List;
 public class RecipeProcessor implements Runnable {
     private final CommandSender sender;
     private final boolean check;
+    private final boolean incremental;
+    private final boolean staged;
+    private final boolean firstLoad;
 
     // Storage
     private static volatile RecipeRegistrator registrator = null;
     private final List<String> fileList = new ArrayList<>();
+    private final List<String> parseList = new ArrayList<>();
+    private final List<BaseRecipe> oldRecipes = new ArrayList<>();
+    private final Set<String> replacedFiles = new HashSet<>();
+    private Map<String, FileState> parsedStates = null;
+    private String parsedSettingsStamp = null;
+
+    // State of the last registered load, used by incremental reloads
+    private static volatile Map<String, FileState> fileStates = null;
+    private static volatile String settingsStamp = null;
 
     // Constants
     private static String DIR_RECIPES;
@@ -31,9 +65,37 @@ public class RecipeProcessor implements Runnable {
     private static BukkitTask task;
 
     public static void reload(CommandSender sender, boolean check) {
+        reload(sender, check, false);
+    }
+
+    /**
+     * @param incremental
+     *            Set to true to only re-parse the recipe files that changed since the last load and apply just their differences, see {@link #canReloadIncrementally()}
+     */
+    public static void reload(CommandSender sender, boolean check, boolean incremental) {
+        DIR_RECIPES = RecipeManager.getPlugin().getDataFolder() + File.separator + "recipes" + File.separator;
+        FILE_ERRORLOG = DIR_RECIPES + "errors.log";
+        new RecipeProcessor(sender, check, incremental && !check && fileStates != null, false, false);
+    }
+
+    /**
+     * Loads all recipes into a new storage that is registered over several ticks and only then replaces the recipes in use, see {@link Settings#getRegisterTickBudget()}.<br>
+     * The recipes in use and the server's recipes are left untouched until then.
+     *
+     * @param firstLoad
+     *            Set to true if no recipes were loaded yet, the server's recipes are then only reset if clear-recipes is enabled
+     */
+    public static void reloadStaged(CommandSender sender, boolean firstLoad) {
         DIR_RECIPES = RecipeManager.getPlugin().getDataFolder() + File.separator + "recipes" + File.separator;
         FILE_ERRORLOG = DIR_RECIPES + "errors.log";
-        new RecipeProcessor(sender, check);
+        new RecipeProcessor(sender, false, false, true, firstLoad);
+    }
+
+    /**
+     * @return true if recipes were loaded before and none of the settings files that affect parsing changed since then
+     */
+    public static boolean canReloadIncrementally() {
+        return fileStates != null && getSettingsStamp().equals(settingsStamp);
     }
 
     /**
@@ -42,12 +104,15 @@ public class RecipeProcessor implements Runnable {
     public static void reload(CommandSender sender, boolean check, String newDirectory, String errorDirectory) {
         DIR_RECIPES = newDirectory;
         FILE_ERRORLOG = errorDirectory + File.separator + "errors.log";
-        new RecipeProcessor(sender, check);
+        new RecipeProcessor(sender, check, false, false, false);
     }
 
-    private RecipeProcessor(CommandSender newSender, boolean newCheck) {
+    private RecipeProcessor(CommandSender newSender, boolean newCheck, boolean newIncremental, boolean newStaged, boolean newFirstLoad) {
         sender = newSender;
         check = newCheck;
+        incremental = newIncremental;
+        staged = newStaged;
+        firstLoad = newFirstLoad;
 
         if (task != null) {
             task.cancel();
@@ -68,11 +133,13 @@ public class RecipeProcessor implements Runnable {
         try {
             String message;
             if (check) {
-                message = "Checking";
+                message = "Checking all";
+            } else if (incremental) {
+                message = "Loading changed";
             } else {
-                message = "Loading";
+                message = "Loading all";
             }
-            MessageSender.getInstance().sendAndLog(sender, message + " all recipes...");
+            MessageSender.getInstance().sendAndLog(sender, message + " recipes...");
 
             File dir = new File(DIR_RECIPES);
 
@@ -83,36 +150,90 @@ public class RecipeProcessor implements Runnable {
             // Scan for files
             analyzeDirectory(dir);
 
-            if (fileList.isEmpty()) {
+            Map<String, FileState> states = null;
+            String stamp = null;
+            if (!check) {
+                states = new HashMap<>();
+                stamp = getSettingsStamp();
+
+                if (incremental) {
+                    scanChanges(states);
+                } else {
+                    scanFiles(states);
+                }
+            } else {
+                parseList.addAll(fileList);
+            }
+
+            if (incremental && parseList.isEmpty() && oldRecipes.isEmpty()) {
+                registrator = null; // nothing to apply
+
+                MessageSender.getInstance().sendAndLog(sender, "No recipe files changed since they were last loaded.");
+                ErrorReporter.getInstance().stopCatching();
+            } else if (incremental && requiresFullReload(oldRecipes)) {
+                reloadAll("Changed recipe files had overridden or removed recipes, reloading all recipes...");
+            } else if (fileList.isEmpty() && !incremental) {
+                registrator = createRegistrator(); // nothing to parse, the recipes are still replaced
+
                 MessageSender.getInstance().sendAndLog(sender, "<yellow>No recipe files exist in the recipes folder.");
             } else {
-                registrator = new RecipeRegistrator();
+                registrator = createRegistrator();
 
-                long lastDisplay = System.currentTimeMillis();
-                long time;
-                int numFiles = fileList.size();
-                int parsedFiles = 0;
+                if (incremental) {
+                    registrator.setReplacedFiles(replacedFiles);
+                }
 
-                RecipeParserFactory parserFactory = new RecipeParserFactory();
-                RecipeFileParser recipeParser = new RecipeFileParser(registrator, parserFactory);
+                RecipeCache cache = null;
+                int cachedFiles = 0;
+                if (!check && !incremental && Settings.getInstance().getRecipeCache()) {
+                    cache = new RecipeCache(new File(RecipeManager.getPlugin().getDataFolder(), Files.FILE_RECIPE_CACHE));
+                    cache.load();
 
-                // Start reading files...
-                for (String name : fileList) {
-                    try {
-                        recipeParser.parseFile(DIR_RECIPES, name);
-                        parsedFiles++;
-                        time = System.currentTimeMillis();
+                    cachedFiles = queueCachedFiles(cache, states);
+                }
+
+                // files are listed in file system order, sort them so duplicate recipes are always reported on the same file
+                Collections.sort(parseList);
+
+                int threads = Math.min(Settings.getInstance().getParseThreads(), parseList.size());
+
+                if (threads > 1) {
+                    parseFilesParallel(threads);
+                } else {
+                    parseFiles();
+                }
+
+                if (incremental && requiresFullReload(registrator.getQueuedRecipes().keySet())) {
+                    reloadAll("Changed recipe files override or remove recipes, reloading all recipes...");
+                    return;
+                }
+
+                if (states != null) {
+                    for (Entry<BaseRecipe, RMCRecipeInfo> entry : registrator.getQueuedRecipes().entrySet()) {
+                        FileState state = states.get(entry.getValue().getAdder());
 
-                        // display progress each second
-                        if (time > lastDisplay + 500) {
-                            MessageSender.getInstance().sendAndLog(sender, "Recipes processed " + (parsedFiles / numFiles * 100) + "%...");
-                            lastDisplay = time;
+                        if (state != null) {
+                            state.recipes.add(entry.getKey());
                         }
-                    } catch (Throwable e) {
-                        MessageSender.getInstance().error(sender, e, "Error while reading recipe files!");
+                    }
+
+                    parsedStates = states;
+                    parsedSettingsStamp = stamp;
+
+                    if (cache != null) {
+                        saveCache(cache, states);
                     }
                 }
 
+                String files;
+                if (incremental) {
+                    files = parseList.size() + " changed files";
+                } else if (cachedFiles > 0) {
+                    files = fileList.size() + " files (" + cachedFiles + " cached)";
+                } else {
+                    files = fileList.size() + " files";
+                }
+
                 int errors = ErrorReporter.getInstance().getCatchedAmount();
 
                 String parsed;
@@ -138,11 +259,11 @@ public class RecipeProcessor implements Runnable {
                         senderMessage += ", see console.";
                     }
 
-                    MessageSender.getInstance().sendAndLog(sender, RMCChatColor.YELLOW + parsed + " " + loaded + " recipes from " + fileList.size() + " files in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds, " + errors + senderMessage);
+                    MessageSender.getInstance().sendAndLog(sender, RMCChatColor.YELLOW + parsed + " " + loaded + " recipes from " + files + " in " + (System.currentTimeMillis() - start) / 1000.0 + " seconds, " + errors + senderMessage);
 
                     ErrorReporter.getInstance().print(FILE_ERRORLOG);
                 } else {
-                    MessageSender.getInstance().sendAndLog(sender, parsed + " " + loaded + " recipes from " + fileList.size() + " files without errors, elapsed time " + (System.currentTimeMillis() - start) / 1000.0 + " seconds.");
+                    MessageSender.getInstance().sendAndLog(sender, parsed + " " + loaded + " recipes from " + files + " without errors, elapsed time " + (System.currentTimeMillis() - start) / 1000.0 + " seconds.");
 
                     File log = new File(FILE_ERRORLOG);
 
@@ -166,15 +287,337 @@ public class RecipeProcessor implements Runnable {
             if (Settings.getInstance().getMultithreading()) {
                 new BukkitRunnable() {
                     public void run() {
-                        registrator.registerRecipesToServer(sender, start);
+                        registerRecipes(start);
                     }
                 }.runTask(RecipeManager.getPlugin());
             } else {
-                registrator.registerRecipesToServer(sender, start);
+                registerRecipes(start);
+            }
+        }
+    }
+
+    private void registerRecipes(long start) {
+        if (incremental) {
+            registrator.registerChangedRecipesToServer(sender, start, oldRecipes);
+        } else {
+            registrator.registerRecipesToServer(sender, start);
+        }
+
+        // a failed parse leaves no states so the next reload is a full one
+        fileStates = parsedStates;
+        settingsStamp = parsedSettingsStamp;
+    }
+
+    /**
+     * Queues the recipes of unchanged files from the cache and removes those files from the parse list.<br>
+     * Cached recipes are still checked against the existing and already queued recipes like parsed ones, since those can change without the file changing.
+     *
+     * @return number of files loaded from cache
+     */
+    private int queueCachedFiles(RecipeCache cache, Map<String, FileState> states) {
+        ConditionEvaluator conditionEvaluator = new ConditionEvaluator(registrator);
+        int cachedFiles = 0;
+        Iterator<String> iterator = parseList.iterator();
+
+        while (iterator.hasNext()) {
+            String name = iterator.next();
+
+            ErrorReporter.getInstance().setFile(getErrorFileName(name), name); // cached flags are parsed again
+            List<BaseRecipe> recipes = cache.getRecipes(name, states.get(name).checksum);
+
+            if (recipes == null) {
+                continue;
+            }
+
+            int[] lines = cache.getLines(name);
+
+            for (int i = 0; i < recipes.size(); i++) {
+                BaseRecipe recipe = recipes.get(i);
+
+                if (conditionEvaluator.recipeExists(recipe, lines[i], name)) {
+                    registrator.queueRecipe(recipe, name);
+                } else {
+                    ErrorReporter.getInstance().error("Recipe was not added! Review previous errors and fix them.", "Warnings do not prevent recipe creation but they should be fixed as well!");
+                }
+            }
+
+            iterator.remove();
+            cachedFiles++;
+        }
+
+        return cachedFiles;
+    }
+
+    private RecipeRegistrator createRegistrator() {
+        if (staged) {
+            return new RecipeRegistrator(firstLoad);
+        }
+
+        return new RecipeRegistrator();
+    }
+
+    /**
+     * Caches every file that loaded without errors or warnings, the others are dropped from the cache.
+     */
+    private void saveCache(RecipeCache cache, Map<String, FileState> states) {
+        for (Entry<String, FileState> entry : states.entrySet()) {
+            String name = entry.getKey();
+
+            if (ErrorReporter.getInstance().hasErrors(name)) {
+                cache.remove(name);
+            } else {
+                List<BaseRecipe> recipes = entry.getValue().recipes;
+                int[] lines = new int[recipes.size()];
+
+                for (int i = 0; i < lines.length; i++) {
+                    lines[i] = registrator.getQueuedLine(recipes.get(i));
+                }
+
+                cache.put(name, entry.getValue().checksum, recipes, lines);
+            }
+        }
+
+        cache.retain(states.keySet());
+
+        try {
+            cache.save();
+        } catch (IOException e) {
+            MessageSender.getInstance().error(sender, e, "Couldn't save the recipe cache!");
+        }
+    }
+
+    /**
+     * @return the file name the parser uses for reporting errors
+     */
+    private static String getErrorFileName(String fileName) {
+        return RMCUtil.removeExtensions(fileName, Files.FILE_RECIPE_EXTENSIONS);
+    }
+
+    /**
+     * Stops this incremental reload and queues a full reload on the main thread instead.
+     */
+    private void reloadAll(String message) {
+        registrator = null;
+
+        ErrorReporter.getInstance().stopCatching();
+        MessageSender.getInstance().sendAndLog(sender, RMCChatColor.YELLOW + message);
+
+        new BukkitRunnable() {
+            public void run() {
+                RecipeManager.getPlugin().reload(sender, false, false, false);
+            }
+        }.runTask(RecipeManager.getPlugin());
+    }
+
+    /**
+     * Overridden and removed recipes replace the original ones, only a full reload can restore those.
+     */
+    private boolean requiresFullReload(Collection<BaseRecipe> recipes) {
+        for (BaseRecipe recipe : recipes) {
+            if (recipe.hasFlag(FlagType.OVERRIDE) || recipe.hasFlag(FlagType.REMOVE)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Records the state of all files for a full load, all of them get parsed.
+     */
+    private void scanFiles(Map<String, FileState> states) throws IOException {
+        for (String name : fileList) {
+            File file = new File(DIR_RECIPES + name);
+
+            states.put(name, new FileState(file, getChecksum(file)));
+            parseList.add(name);
+        }
+    }
+
+    /**
+     * Compares the files against the last load, only new and changed files get parsed.<br>
+     * A file's checksum is only computed when its modified time or size differ, so touched but unchanged files are skipped too.<br>
+     * Recipes previously loaded from changed and deleted files are collected to be removed.
+     */
+    private void scanChanges(Map<String, FileState> states) throws IOException {
+        Map<String, FileState> lastStates = fileStates;
+
+        for (String name : fileList) {
+            File file = new File(DIR_RECIPES + name);
+            FileState last = lastStates.get(name);
+
+            if (last != null && last.lastModified == file.lastModified() && last.length == file.length()) {
+                states.put(name, last);
+                continue;
+            }
+
+            FileState state = new FileState(file, getChecksum(file));
+
+            if (last != null && last.checksum == state.checksum) {
+                state.recipes.addAll(last.recipes); // only touched, contents are the same
+            } else {
+                parseList.add(name);
+                replacedFiles.add(name);
+
+                if (last != null) {
+                    oldRecipes.addAll(last.recipes);
+                }
+            }
+
+            states.put(name, state);
+        }
+
+        for (Entry<String, FileState> entry : lastStates.entrySet()) {
+            if (!states.containsKey(entry.getKey())) {
+                replacedFiles.add(entry.getKey());
+                oldRecipes.addAll(entry.getValue().recipes);
             }
         }
     }
 
+    private static long getChecksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Settings, aliases and messages change how recipes are parsed, any change to them requires a full reload.
+     */
+    private static String getSettingsStamp() {
+        File dataFolder = RecipeManager.getPlugin().getDataFolder();
+        StringBuilder s = new StringBuilder();
+
+        for (String name : new String[] { Files.FILE_CONFIG, Files.FILE_MESSAGES, Files.FILE_ITEM_ALIASES, Files.FILE_ITEM_DATAS, Files.FILE_ENCHANT_ALIASES }) {
+            File file = new File(dataFolder, name);
+
+            s.append(file.lastModified()).append(':').append(file.length()).append(';');
+        }
+
+        return s.toString();
+    }
+
+    private void parseFiles() {
+        long lastDisplay = System.currentTimeMillis();
+        long time;
+        int numFiles = parseList.size();
+        int parsedFiles = 0;
+
+        RecipeParserFactory parserFactory = new RecipeParserFactory();
+        RecipeFileParser recipeParser = new RecipeFileParser(registrator, parserFactory);
+
+        // Start reading files...
+        for (String name : parseList) {
+            try {
+                recipeParser.parseFile(DIR_RECIPES, name);
+                parsedFiles++;
+                time = System.currentTimeMillis();
+
+                // display progress each second
+                if (time > lastDisplay + 500) {
+                    MessageSender.getInstance().sendAndLog(sender, "Recipes processed " + (parsedFiles / numFiles * 100) + "%...");
+                    lastDisplay = time;
+                }
+            } catch (Throwable e) {
+                MessageSender.getInstance().error(sender, e, "Error while reading recipe files!");
+            }
+        }
+    }
+
+    /**
+     * Parses each file on a worker pool into its own registrator, each with its own parser, flags and error context.<br>
+     * Results are merged in the sorted parse list order so duplicate recipes are resolved exactly like {@link #parseFiles()} does.
+     */
+    private void parseFilesParallel(int threads) {
+        long lastDisplay = System.currentTimeMillis();
+        long time;
+        int numFiles = parseList.size();
+        int parsedFiles = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<ParsedFile>> results = new ArrayList<>(numFiles);
+
+        for (final String name : parseList) {
+            results.add(executor.submit(new Callable<ParsedFile>() {
+                public ParsedFile call() {
+                    ParsedFile parsed = new ParsedFile();
+                    parsed.registrator = registrator.createFileRegistrator();
+
+                    RecipeFileParser recipeParser = new RecipeFileParser(parsed.registrator, new RecipeParserFactory());
+
+                    try {
+                        recipeParser.parseFile(DIR_RECIPES, name);
+                    } catch (Throwable e) {
+                        parsed.error = e;
+                    }
+
+                    parsed.name = name;
+                    parsed.errorFile = recipeParser.getCurrentFile();
+
+                    return parsed;
+                }
+            }));
+        }
+
+        executor.shutdown();
+
+        try {
+            for (Future<ParsedFile> result : results) {
+                ParsedFile parsed = result.get();
+
+                if (parsed.error != null) {
+                    MessageSender.getInstance().error(sender, parsed.error, "Error while reading recipe files!");
+                    continue;
+                }
+
+                ErrorReporter.getInstance().setFile(parsed.errorFile, parsed.name);
+                registrator.queueRecipes(parsed.registrator);
+                parsedFiles++;
+                time = System.currentTimeMillis();
+
+                // display progress each second
+                if (time > lastDisplay + 500) {
+                    MessageSender.getInstance().sendAndLog(sender, "Recipes processed " + (parsedFiles * 100 / numFiles) + "%...");
+                    lastDisplay = time;
+                }
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            MessageSender.getInstance().error(sender, e.getCause(), "Error while reading recipe files!");
+        }
+    }
+
+    private static class ParsedFile {
+        private RecipeRegistrator registrator;
+        private String name;
+        private String errorFile;
+        private Throwable error;
+    }
+
+    private static class FileState {
+        private final long lastModified;
+        private final long length;
+        private final long checksum;
+        private final List<BaseRecipe> recipes = new ArrayList<>();
+
+        private FileState(File file, long newChecksum) {
+            lastModified = file.lastModified();
+            length = file.length();
+            checksum = newChecksum;
+        }
+    }
+
     private void analyzeDirectory(File dir) {
         if (dir.isFile()) {
             addFile(dir);
@@ -1,24 +1,98 @@
 package haveric.recipeManager;
 
+import haveric.recipeManager.flag.FlagType;
 import haveric.recipeManager.messages.MessageSender;
 import haveric.recipeManager.recipes.*;
 import haveric.recipeManagerCommon.RMCChatColor;
 import haveric.recipeManagerCommon.recipes.RMCRecipeInfo;
 import haveric.recipeManagerCommon.recipes.RMCRecipeInfo.RecipeOwner;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
+import org.bukkit.inventory.Recipe;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 public class RecipeRegistrator {
-    private Map<BaseRecipe, RMCRecipeInfo> queuedRecipes = new HashMap<>();
+    // keeps the parsed order so merging files reports duplicates in the order they were written
+    private Map<BaseRecipe, RMCRecipeInfo> queuedRecipes = new LinkedHashMap<>();
+    private Map<BaseRecipe, Integer> queuedLines = new HashMap<>();
+    private Set<String> replacedFiles = new HashSet<>();
     private boolean registered = false;
 
+    // Storage the recipes are registered into over several ticks, null when registering into the recipes in use
+    private final Recipes staging;
+    private final boolean resetServer;
+    private final boolean restoreServer;
+
+    private static BukkitTask registerTask = null;
+    // Recipes registered through the API into the recipes in use while registering over ticks, see recipeRegistered()
+    private static Map<BaseRecipe, RMCRecipeInfo> forwardedRecipes = new LinkedHashMap<>();
+    // Recipes removed from the server with a single pass over the server's recipes when registering over ticks
+    private static final int SERVER_BATCH_SIZE = 64;
+
     protected RecipeRegistrator() {
+        staging = null;
+        resetServer = false;
+        restoreServer = false;
     }
-    
+
+    /**
+     * Creates a registrator that registers into a new storage over several ticks, see {@link Settings#getRegisterTickBudget()}.<br>
+     * Recipes are checked against the new storage while parsing, the recipes in use and the server's recipes are only replaced once all recipes are registered.
+     *
+     * @param firstLoad
+     *            true if no recipes were loaded yet, the server's recipes are then only reset if clear-recipes is enabled
+     */
+    protected RecipeRegistrator(boolean firstLoad) {
+        boolean clearRecipes = Settings.getInstance().getClearRecipes();
+
+        if (clearRecipes) {
+            staging = new Recipes();
+        } else {
+            staging = new Recipes(Vanilla.initialRecipes);
+        }
+
+        resetServer = clearRecipes || !firstLoad;
+        restoreServer = !firstLoad && !clearRecipes;
+    }
+
+    private RecipeRegistrator(RecipeRegistrator registrator) {
+        staging = registrator.staging;
+        resetServer = false;
+        restoreServer = false;
+        replacedFiles.addAll(registrator.replacedFiles);
+    }
+
+    /**
+     * @return a registrator for parsing a single file on its own that checks recipes against the same storage, see {@link #queueRecipes(RecipeRegistrator)}
+     */
+    protected RecipeRegistrator createFileRegistrator() {
+        return new RecipeRegistrator(this);
+    }
+
+    /**
+     * @return the storage queued recipes are checked against and registered into
+     */
+    public Recipes getRecipes() {
+        if (staging == null) {
+            return RecipeManager.getRecipes();
+        }
+
+        return staging;
+    }
+
     public void queueRecipe(BaseRecipe recipe, String adder) {
         if (recipe instanceof CraftRecipe) {
             queueRecipe(recipe, adder, "Recipe is invalid! Needs at least one result and exactly 9 ingredient slots, empty ones can be null.");
@@ -46,6 +120,69 @@ public class RecipeRegistrator {
 
         queuedRecipes.remove(recipe); // if exists, update key too!
         queuedRecipes.put(recipe, new RMCRecipeInfo(RecipeOwner.RECIPEMANAGER, adder));
+        queuedLines.put(recipe, ErrorReporter.getInstance().getLine()); // parsers queue right after pointing the line at the directive
+    }
+
+    /**
+     * Queues all recipes from a registrator that was used to parse a single file on its own.<br>
+     * Recipes already queued from a previous file are rejected with the same errors as when files are parsed in sequence,
+     * so merging files in their original order keeps the result identical.<br>
+     * The error reporter's file must be set to the merged file before calling this.
+     *
+     * @param fileRegistrator
+     *            registrator holding a single file's recipes
+     */
+    protected void queueRecipes(RecipeRegistrator fileRegistrator) {
+        if (registered) {
+            throw new IllegalAccessError("You can't add recipes after registering this class! You must create a new one.");
+        }
+
+        for (Entry<BaseRecipe, RMCRecipeInfo> entry : fileRegistrator.queuedRecipes.entrySet()) {
+            BaseRecipe recipe = entry.getKey();
+            Integer line = fileRegistrator.queuedLines.get(recipe);
+
+            if (line != null) {
+                ErrorReporter.getInstance().setLine(line);
+            }
+
+            RMCRecipeInfo queued = getQueuedRecipe(recipe);
+
+            if (queued == null) {
+                queuedRecipes.remove(recipe); // if exists, update key too!
+                queuedRecipes.put(recipe, entry.getValue());
+                queuedLines.put(recipe, line);
+            } else {
+                ErrorReporter.getInstance().error("Recipe already created with this plugin, file: " + queued.getAdder());
+                ErrorReporter.getInstance().error("Recipe was not added! Review previous errors and fix them.", "Warnings do not prevent recipe creation but they should be fixed as well!");
+            }
+        }
+    }
+
+    /**
+     * @return line of the recipe's directive in its file or 0 if unknown
+     */
+    protected int getQueuedLine(BaseRecipe recipe) {
+        Integer line = queuedLines.get(recipe);
+
+        if (line == null) {
+            return 0;
+        }
+
+        return line;
+    }
+
+    private RMCRecipeInfo getQueuedRecipe(BaseRecipe recipe) {
+        RMCRecipeInfo info = queuedRecipes.get(recipe);
+
+        if (info == null && recipe instanceof CraftRecipe) {
+            CraftRecipe mirrored = new CraftRecipe();
+            mirrored.setIngredients(((CraftRecipe) recipe).getIngredients());
+            mirrored.setMirrorShape(true);
+
+            info = queuedRecipes.get(mirrored);
+        }
+
+        return info;
     }
 
     protected void registerRecipesToServer(CommandSender sender, long start) {
@@ -53,28 +190,387 @@ public class RecipeRegistrator {
             throw new IllegalAccessError("This class is already registered, create a new one!");
         }
 
-        Iterator<Entry<BaseRecipe, RMCRecipeInfo>> iterator;
-        Entry<BaseRecipe, RMCRecipeInfo> entry;
-        BaseRecipe recipe;
-        RMCRecipeInfo info;
+        if (staging != null) {
+            registerRecipesOverTicks(sender, start, Settings.getInstance().getRegisterTickBudget());
+            return;
+        }
 
         // Remove old custom recipes/re-add old original recipes
-        iterator = RecipeManager.getRecipes().index.entrySet().iterator();
+        removeRegisteredRecipes(RecipeManager.getRecipes());
 
-        while (iterator.hasNext()) {
-            entry = iterator.next();
-            info = entry.getValue();
-            recipe = entry.getKey();
+        // TODO registering event or something to re-register plugin recipes
+
+        registerQueuedRecipes(sender, start);
+    }
+
+    /**
+     * Registers only the changes of an incremental reload, recipes from files that were not re-parsed are left untouched.
+     *
+     * @param sender
+     * @param start
+     * @param oldRecipes
+     *            recipes previously loaded from the changed and deleted files, see {@link #setReplacedFiles(Collection)}
+     */
+    protected void registerChangedRecipesToServer(CommandSender sender, long start, Collection<BaseRecipe> oldRecipes) {
+        if (registered) {
+            throw new IllegalAccessError("This class is already registered, create a new one!");
+        }
+
+        Recipes recipes = RecipeManager.getRecipes();
+        List<BaseRecipe> removeRecipes = new ArrayList<>(oldRecipes.size());
 
-            if (info.getOwner() == RecipeOwner.RECIPEMANAGER) {
-                iterator.remove();
-                recipe.remove();
+        for (BaseRecipe recipe : oldRecipes) {
+            RMCRecipeInfo info = recipes.index.get(recipe);
+
+            if (info != null && info.getOwner() == RecipeOwner.RECIPEMANAGER && isReplacedFile(info.getAdder())) {
+                removeRecipes.add(recipe);
             }
         }
 
-        // TODO registering event or something to re-register plugin recipes
+        recipes.removeRecipes(removeRecipes);
+
+        registerQueuedRecipes(sender, start);
+    }
+
+    /**
+     * Registers the queued recipes into the staging storage and applies their server changes, spending at most the budget each tick.<br>
+     * The recipes in use are only replaced once all steps are done, crafting keeps using them until then.
+     * Recipes registered through the API in the meantime are registered again into the staging storage when it's swapped in.
+     */
+    private void registerRecipesOverTicks(final CommandSender sender, final long start, final int budget) {
+        cancelRegistration();
+
+        registered = true; // mark this class as registered so it doesn't get re-registered
+
+        final List<RegisterStep> steps = createSteps();
+        final int size = queuedRecipes.size();
+
+        registerTask = new BukkitRunnable() {
+            private long lastDisplay = System.currentTimeMillis();
+            private int step = 0;
+
+            public void run() {
+                long tickEnd = System.nanoTime() + budget * 1000000L;
+
+                while (step < steps.size()) {
+                    RegisterStep current = steps.get(step);
+
+                    if (!current.run(tickEnd)) {
+                        long time = System.currentTimeMillis();
+
+                        if (time > lastDisplay + 1000) {
+                            MessageSender.getInstance().sendAndLog(sender, RMCChatColor.YELLOW + current.getProgress());
+                            lastDisplay = time;
+                        }
+
+                        return;
+                    }
+
+                    step++;
+                }
+
+                cancel();
+                registerTask = null;
+
+                swapRecipes();
+                finishRegistration(sender, start, size);
+            }
+        }.runTaskTimer(RecipeManager.getPlugin(), 0, 1);
+    }
+
+    /**
+     * Work done over several ticks, see {@link #registerRecipesOverTicks(CommandSender, long, int)}.
+     */
+    private abstract static class RegisterStep {
+        private final String name;
+        protected int done = 0;
+        protected int total = 0;
+
+        private RegisterStep(String newName) {
+            name = newName;
+        }
+
+        /**
+         * @param tickEnd
+         *            {@link System#nanoTime()} to stop at
+         * @return true once all of the step's work is done
+         */
+        protected abstract boolean run(long tickEnd);
+
+        private String getProgress() {
+            if (total > 0) {
+                return String.format("%s %d%%...", name, (done * 100) / total);
+            }
+
+            return name + "...";
+        }
+    }
+
+    /**
+     * Steps that leave the server's recipes the same as {@link #registerRecipesToServer(CommandSender, long)} does in a single tick.
+     */
+    private List<RegisterStep> createSteps() {
+        final List<BaseRecipe> recipes = new ArrayList<>(queuedRecipes.keySet());
+        final Map<BaseRecipe, Recipe> removedOriginals = new IdentityHashMap<>();
+        List<RegisterStep> steps = new ArrayList<>();
+
+        steps.add(new RegisterStep("Registering recipes") {
+            @Override
+            protected boolean run(long tickEnd) {
+                total = recipes.size();
 
-        iterator = queuedRecipes.entrySet().iterator();
+                while (done < total) {
+                    BaseRecipe recipe = recipes.get(done);
+
+                    staging.registerRecipe(recipe, queuedRecipes.get(recipe), false, null);
+                    done++;
+
+                    if (System.nanoTime() >= tickEnd) {
+                        break;
+                    }
+                }
+
+                return done >= total;
+            }
+        });
+
+        if (resetServer) {
+            // Reset the server's recipes the same way a full reload does before registering
+            steps.add(new RegisterStep("Removing server recipes") {
+                private int kept = 0;
+
+                @Override
+                protected boolean run(long tickEnd) {
+                    Iterator<Recipe> iterator = Bukkit.recipeIterator();
+
+                    // the recipes before the kept ones were removed by previous ticks
+                    for (int i = 0; i < kept && iterator.hasNext(); i++) {
+                        iterator.next();
+                    }
+
+                    while (iterator.hasNext()) {
+                        try {
+                            Recipe recipe = iterator.next();
+
+                            if (recipe == null || Vanilla.isSpecialRecipe(recipe)) {
+                                kept++;
+                            } else {
+                                iterator.remove();
+                                done++;
+                            }
+                        } catch (NullPointerException e) {
+                            kept++; // Catch any invalid Bukkit recipes
+                        }
+
+                        if (System.nanoTime() >= tickEnd) {
+                            return !iterator.hasNext();
+                        }
+                    }
+
+                    return true;
+                }
+            });
+
+            if (restoreServer) {
+                final List<BaseRecipe> initialRecipes = new ArrayList<>(Vanilla.initialRecipes.keySet());
+
+                steps.add(new RegisterStep("Restoring server recipes") {
+                    @Override
+                    protected boolean run(long tickEnd) {
+                        total = initialRecipes.size();
+
+                        while (done < total) {
+                            Vanilla.restoreRecipe(initialRecipes.get(done));
+                            done++;
+
+                            if (System.nanoTime() >= tickEnd) {
+                                break;
+                            }
+                        }
+
+                        return done >= total;
+                    }
+                });
+            }
+        } else {
+            steps.add(new RegisterStep("Removing old recipes") {
+                private List<BaseRecipe> oldRecipes;
+
+                @Override
+                protected boolean run(long tickEnd) {
+                    if (oldRecipes == null) {
+                        oldRecipes = getRegisteredRecipes(RecipeManager.getRecipes());
+                        total = oldRecipes.size();
+                    }
+
+                    while (done < total) {
+                        List<BaseRecipe> batch = oldRecipes.subList(done, Math.min(done + SERVER_BATCH_SIZE, total));
+                        List<BaseRecipe> serverRecipes = new ArrayList<>(batch.size());
+
+                        // same as Recipes.removeRecipes() but the recipes in use keep their index until they're replaced
+                        for (BaseRecipe recipe : batch) {
+                            Recipes.restoreOriginal(recipe);
+
+                            if (!(recipe.hasFlag(FlagType.REMOVE) || recipe.hasFlag(FlagType.OVERRIDE))) {
+                                serverRecipes.add(recipe);
+                            }
+                        }
+
+                        Vanilla.removeCustomRecipes(serverRecipes);
+                        done += batch.size();
+
+                        if (System.nanoTime() >= tickEnd) {
+                            break;
+                        }
+                    }
+
+                    return done >= total;
+                }
+            });
+        }
+
+        steps.add(new RegisterStep("Removing original recipes") {
+            private List<BaseRecipe> originals;
+
+            @Override
+            protected boolean run(long tickEnd) {
+                if (originals == null) {
+                    originals = new ArrayList<>();
+
+                    for (BaseRecipe recipe : recipes) {
+                        if (recipe.hasFlag(FlagType.OVERRIDE) || recipe.hasFlag(FlagType.REMOVE)) {
+                            originals.add(recipe);
+                        }
+                    }
+
+                    total = originals.size();
+                }
+
+                while (done < total) {
+                    List<BaseRecipe> batch = originals.subList(done, Math.min(done + SERVER_BATCH_SIZE, total));
+
+                    removedOriginals.putAll(Vanilla.removeCustomRecipes(batch));
+                    done += batch.size();
+
+                    if (System.nanoTime() >= tickEnd) {
+                        break;
+                    }
+                }
+
+                return done >= total;
+            }
+        });
+
+        steps.add(new RegisterStep("Adding recipes to the server") {
+            @Override
+            protected boolean run(long tickEnd) {
+                total = recipes.size();
+
+                while (done < total) {
+                    staging.addToServer(recipes.get(done), removedOriginals);
+                    done++;
+
+                    if (System.nanoTime() >= tickEnd) {
+                        break;
+                    }
+                }
+
+                return done >= total;
+            }
+        });
+
+        return steps;
+    }
+
+    /**
+     * Replaces the recipes in use with the staged recipes once all their server changes are applied.
+     */
+    private void swapRecipes() {
+        Recipes recipes = RecipeManager.getRecipes();
+
+        // Recipes registered through the API while registering went into the recipes in use, move them over
+        for (Entry<BaseRecipe, RMCRecipeInfo> entry : forwardedRecipes.entrySet()) {
+            BaseRecipe recipe = entry.getKey();
+
+            recipes.removeRecipe(recipe);
+            staging.registerRecipe(recipe, entry.getValue(), true, null);
+        }
+
+        forwardedRecipes.clear();
+
+        RecipeManager.setRecipes(staging);
+
+        recipes.clean(); // also drops remembered results and cached displays of the replaced recipes
+    }
+
+    /**
+     * Remembers a recipe registered through the API while a registration is spread over ticks, so it's not lost when the staged recipes are swapped in.
+     *
+     * @param recipes
+     *            storage the recipe was registered into
+     * @param recipe
+     * @param info
+     */
+    protected static void recipeRegistered(Recipes recipes, BaseRecipe recipe, RMCRecipeInfo info) {
+        if (registerTask != null && recipes == RecipeManager.getRecipes()) {
+            forwardedRecipes.remove(recipe); // if exists, update key too!
+            forwardedRecipes.put(recipe, info);
+        }
+    }
+
+    /**
+     * Cancels a registration that is still spread over ticks, its recipes never replace the current ones.<br>
+     * The server's recipes might be partially changed, only cancel it to start a full reload.
+     *
+     * @return true if a registration was cancelled
+     */
+    protected static boolean cancelRegistration() {
+        if (registerTask == null) {
+            return false;
+        }
+
+        registerTask.cancel();
+        registerTask = null;
+        forwardedRecipes.clear(); // they stay in the recipes in use
+
+        return true;
+    }
+
+    private static void removeRegisteredRecipes(Recipes recipes) {
+        recipes.removeRecipes(getRegisteredRecipes(recipes));
+    }
+
+    private static List<BaseRecipe> getRegisteredRecipes(Recipes recipes) {
+        List<BaseRecipe> oldRecipes = new ArrayList<>();
+
+        for (Entry<BaseRecipe, RMCRecipeInfo> entry : recipes.index.entrySet()) {
+            if (entry.getValue().getOwner() == RecipeOwner.RECIPEMANAGER) {
+                oldRecipes.add(entry.getKey());
+            }
+        }
+
+        return oldRecipes;
+    }
+
+    /**
+     * Removes the original recipes of all queued overriding and removing recipes in a single pass over the server's recipes.
+     */
+    private Map<BaseRecipe, Recipe> removeOriginalRecipes() {
+        List<BaseRecipe> recipes = new ArrayList<>();
+
+        for (BaseRecipe recipe : queuedRecipes.keySet()) {
+            if (recipe.hasFlag(FlagType.OVERRIDE) || recipe.hasFlag(FlagType.REMOVE)) {
+                recipes.add(recipe);
+            }
+        }
+
+        return Vanilla.removeCustomRecipes(recipes);
+    }
+
+    private void registerQueuedRecipes(CommandSender sender, long start) {
+        Map<BaseRecipe, Recipe> removedOriginals = removeOriginalRecipes();
+        Iterator<Entry<BaseRecipe, RMCRecipeInfo>> iterator = queuedRecipes.entrySet().iterator();
+        Entry<BaseRecipe, RMCRecipeInfo> entry;
         long lastDisplay = System.currentTimeMillis();
         long time;
         int processed = 0;
@@ -83,7 +579,7 @@ public class RecipeRegistrator {
         while (iterator.hasNext()) {
             entry = iterator.next();
 
-            RecipeManager.getRecipes().registerRecipe(entry.getKey(), entry.getValue());
+            RecipeManager.getRecipes().registerRecipe(entry.getKey(), entry.getValue(), true, removedOriginals);
 
             time = System.currentTimeMillis();
 
@@ -96,13 +592,35 @@ public class RecipeRegistrator {
         }
 
         registered = true; // mark this class as registered so it doesn't get re-registered
+
+        finishRegistration(sender, start, processed);
+    }
+
+    private void finishRegistration(CommandSender sender, long start, int processed) {
         queuedRecipes.clear(); // clear the queue to let the class vanish
+        queuedLines.clear();
 
         RecipeBooks.getInstance().reloadAfterRecipes(sender); // (re)create recipe books for recipes
+        Events.reload(); // listeners depend on the registered recipes and books
 
         MessageSender.getInstance().send(sender, String.format("All done in %.3f seconds, %d recipes processed.", ((System.currentTimeMillis() - start) / 1000.0), processed));
     }
 
+    /**
+     * Sets the files whose registered recipes are replaced by this registrator, their recipes don't count as duplicates while parsing.
+     *
+     * @param files
+     *            changed and deleted files of an incremental reload
+     */
+    protected void setReplacedFiles(Collection<String> files) {
+        replacedFiles.clear();
+        replacedFiles.addAll(files);
+    }
+
+    public boolean isReplacedFile(String adder) {
+        return replacedFiles.contains(adder);
+    }
+
     public Map<BaseRecipe, RMCRecipeInfo> getQueuedRecipes() {
         return queuedRecipes;
     }
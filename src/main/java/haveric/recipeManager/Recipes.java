@@ -4,17 +4,24 @@ import com.google.common.collect.ImmutableMap;
 import haveric.recipeManager.flag.args.Args;
 import haveric.recipeManager.flag.FlagType;
 import haveric.recipeManager.recipes.*;
+import haveric.recipeManager.tools.LongHashMap;
 import haveric.recipeManager.tools.Tools;
 import haveric.recipeManagerCommon.RMCChatColor;
 import haveric.recipeManagerCommon.recipes.RMCRecipeInfo;
 import haveric.recipeManagerCommon.recipes.RMCRecipeInfo.RecipeOwner;
 import org.bukkit.Bukkit;
+import org.bukkit.Material;
 import org.bukkit.inventory.*;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.UUID;
 
 /**
@@ -25,34 +32,81 @@ public class Recipes {
     //public static final String FURNACE_OWNER_STRING = RMCChatColor.GRAY + "Placed by: " + RMCChatColor.WHITE;
     public static final String RECIPE_ID_STRING = RMCChatColor.GRAY + "RecipeManager #";
 
-    // Remember results for re-use on failure
-    private static final Map<UUID, ItemResult> staticResults = new HashMap<>();
+    // Remember results for re-use on failure, per player and recipe
+    private static final int REMEMBERED_RESULTS_PLAYERS = 1000;
+    private static final int REMEMBERED_RESULTS_PER_PLAYER = 8;
+    private static final long REMEMBERED_RESULTS_EXPIRE = 5 * 60 * 1000;
+    private static final RememberedResults staticResults = new RememberedResults(REMEMBERED_RESULTS_PLAYERS, REMEMBERED_RESULTS_PER_PLAYER, REMEMBERED_RESULTS_EXPIRE);
 
     // Recipe index
     protected Map<BaseRecipe, RMCRecipeInfo> index = new HashMap<>();
+    // Number of indexed recipes owned by RecipeManager by recipe class, see hasCustomRecipes()
+    private Map<Class<? extends BaseRecipe>, Integer> customRecipes = new HashMap<>();
 
     // Quick-find index
     protected Map<Integer, CraftRecipe> indexCraft = new HashMap<>();
     protected Map<Integer, CombineRecipe> indexCombine = new HashMap<>();
-    protected Map<String, SmeltRecipe> indexSmelt = new HashMap<>();
-    protected Map<String, SmeltRecipe> indexSmeltFuels = new HashMap<>();
-    protected Map<String, FuelRecipe> indexFuels = new HashMap<>();
-    protected Map<String, BrewRecipe> indexBrew = new HashMap<>();
+    // Item-keyed indexes, see LongHashMap.itemKey() - wildcard data recipes are stored under Vanilla.DATA_WILDCARD
+    protected LongHashMap<SmeltRecipe> indexSmelt = new LongHashMap<>();
+    protected LongHashMap<SmeltRecipe> indexSmeltFuels = new LongHashMap<>();
+    protected LongHashMap<FuelRecipe> indexFuels = new LongHashMap<>();
+    protected LongHashMap<BrewRecipe> indexBrew = new LongHashMap<>();
+    protected LongHashMap<List<SmeltRecipe>> indexSmeltResults = new LongHashMap<>();
     protected Map<String, BaseRecipe> indexName = new HashMap<>();
 
+    // Structural index for identifying workbench recipes without reading the result's lore, keyed by a hash of the shape, ingredients and result type
+    protected LongHashMap<List<WorkbenchRecipe>> indexWorkbenchShape = new LongHashMap<>();
+    private Map<WorkbenchRecipe, WorkbenchShape> workbenchShapes = new HashMap<>();
+
+    // Inverted item indexes for searching recipes by ingredient or result, see LongHashMap.itemKey() - recipes are also stored under their items' Vanilla.DATA_WILDCARD key
+    protected LongHashMap<List<BaseRecipe>> indexIngredients = new LongHashMap<>();
+    protected LongHashMap<List<BaseRecipe>> indexResults = new LongHashMap<>();
+    protected Map<BaseRecipe, long[]> ingredientKeys = new HashMap<>();
+    protected Map<BaseRecipe, long[]> resultKeys = new HashMap<>();
+
     public Recipes() {
     }
 
+    /**
+     * Creates a storage for registering recipes over several ticks, starting with the given recipes like a full reload does.<br>
+     * The server's recipes are not changed.
+     *
+     * @param initialRecipes
+     *            recipes that existed before RecipeManager's, see {@link Vanilla#getInitialRecipes()}
+     */
+    protected Recipes(Map<BaseRecipe, RMCRecipeInfo> initialRecipes) {
+        for (Entry<BaseRecipe, RMCRecipeInfo> entry : initialRecipes.entrySet()) {
+            BaseRecipe recipe = entry.getKey();
+
+            addToIndex(recipe, entry.getValue());
+            indexName.put(recipe.getName().toLowerCase(), recipe);
+
+            if (recipe instanceof FuelRecipe) {
+                indexFuels.put(((FuelRecipe) recipe).getIndexKey(), (FuelRecipe) recipe);
+            }
+        }
+    }
+
     public void clean() {
         index.clear();
+        customRecipes.clear();
         indexCraft.clear();
         indexCombine.clear();
         indexSmelt.clear();
+        indexSmeltFuels.clear();
+        indexSmeltResults.clear();
         indexFuels.clear();
         indexBrew.clear();
         indexName.clear();
+        indexWorkbenchShape.clear();
+        workbenchShapes.clear();
+        indexIngredients.clear();
+        indexResults.clear();
+        ingredientKeys.clear();
+        resultKeys.clear();
 
         staticResults.clear();
+        WorkbenchRecipe.clearDisplayResults();
     }
 
     /**
@@ -120,21 +174,213 @@ public class Recipes {
     /**
      * Get the RecipeManager workbench recipe for the Bukkit recipe inputted.<br>
      * Can be either craft or combine recipe.<br>
-     * If you know the specific type you can use {@link #getCraftRecipe(ItemStack)} or {@link #getCombineRecipe(ItemStack)}
+     * If you know the specific type you can use {@link #getCraftRecipe(ItemStack)} or {@link #getCombineRecipe(ItemStack)}<br>
+     * Recipes are identified by their ingredients and result, the result's lore is only checked if no registered recipe matches or if that is ambiguous.
      *
      * @param recipe
      * @return Workbench recipe, otherwise it can be null if doesn't exist or you inputted a furnace recipe
      */
     public WorkbenchRecipe getWorkbenchRecipe(Recipe recipe) {
+        if (!(recipe instanceof ShapedRecipe) && !(recipe instanceof ShapelessRecipe)) {
+            return null;
+        }
+
+        int[] ingredients = getWorkbenchIngredientKeys(recipe);
+        ItemStack result = recipe.getResult();
+        List<WorkbenchRecipe> candidates = indexWorkbenchShape.get(getWorkbenchShapeKey(recipe instanceof ShapedRecipe, ingredients, result));
+        WorkbenchRecipe workbenchRecipe = null;
+
+        if (candidates != null) {
+            for (WorkbenchRecipe candidate : candidates) {
+                if (workbenchShapes.get(candidate).matches(recipe instanceof ShapedRecipe, ingredients, result)) {
+                    if (workbenchRecipe != null) {
+                        workbenchRecipe = null; // same recipe registered more than once, leave it to the lore fallback
+                        break;
+                    }
+
+                    workbenchRecipe = candidate;
+                }
+            }
+        }
+
+        if (workbenchRecipe == null) {
+            if (recipe instanceof ShapedRecipe) {
+                workbenchRecipe = getCraftRecipe(result);
+            } else {
+                workbenchRecipe = getCombineRecipe(result);
+            }
+        }
+
+        return workbenchRecipe;
+    }
+
+    /**
+     * Ingredients and result of a workbench recipe as it was added to the server, used to confirm matches from the shape index.
+     */
+    private static class WorkbenchShape {
+        private final long key;
+        private final boolean shaped;
+        private final int[] ingredients;
+        private final int resultType;
+        private final short resultData;
+        private final int resultAmount;
+        private final ItemMeta resultMeta;
+
+        private WorkbenchShape(Recipe recipe) {
+            shaped = recipe instanceof ShapedRecipe;
+            ingredients = getWorkbenchIngredientKeys(recipe);
+
+            ItemStack result = recipe.getResult();
+            key = getWorkbenchShapeKey(shaped, ingredients, result);
+            resultType = result.getTypeId();
+            resultData = result.getDurability();
+            resultAmount = result.getAmount();
+
+            if (result.hasItemMeta()) {
+                resultMeta = result.getItemMeta();
+            } else {
+                resultMeta = null;
+            }
+        }
+
+        /**
+         * Results of registered recipes carry the recipe id in their meta, comparing it tells apart recipes with the same shape and result.
+         */
+        private boolean matches(boolean otherShaped, int[] otherIngredients, ItemStack result) {
+            return shaped == otherShaped && Arrays.equals(ingredients, otherIngredients) && result != null && result.getTypeId() == resultType && result.getDurability() == resultData && result.getAmount() == resultAmount && matchesMeta(result);
+        }
+
+        private boolean matchesMeta(ItemStack result) {
+            boolean matches;
+
+            if (resultMeta == null) {
+                matches = !result.hasItemMeta();
+            } else {
+                matches = result.hasItemMeta() && Bukkit.getItemFactory().equals(resultMeta, result.getItemMeta());
+            }
+
+            return matches;
+        }
+    }
+
+    /**
+     * Reads the ingredients of a Bukkit workbench recipe as packed item keys.<br>
+     * Shaped recipes give one key per matrix slot with 0 for empty slots, shapeless recipes give their keys sorted.<br>
+     * Wildcard data values are normalized so the keys match regardless of how the server reports them.
+     *
+     * @param recipe
+     *            shaped or shapeless Bukkit recipe
+     * @return ingredient keys
+     */
+    private static int[] getWorkbenchIngredientKeys(Recipe recipe) {
+        int[] keys;
+
         if (recipe instanceof ShapedRecipe) {
-            return getCraftRecipe(recipe.getResult());
+            ShapedRecipe shaped = (ShapedRecipe) recipe;
+            Map<Character, ItemStack> items = shaped.getIngredientMap();
+            String[] shape = shaped.getShape();
+            keys = new int[9];
+
+            for (int r = 0; r < shape.length && r < 3; r++) {
+                String row = shape[r];
+
+                for (int c = 0; c < row.length() && c < 3; c++) {
+                    ItemStack item = items.get(row.charAt(c));
+
+                    if (item != null && item.getType() != Material.AIR) {
+                        keys[(r * 3) + c] = getIngredientKey(item);
+                    }
+                }
+            }
+        } else {
+            List<ItemStack> ingredients = ((ShapelessRecipe) recipe).getIngredientList();
+            keys = new int[ingredients.size()];
+            int num = 0;
+
+            for (ItemStack item : ingredients) {
+                if (item != null && item.getType() != Material.AIR) {
+                    keys[num] = getIngredientKey(item);
+                    num++;
+                }
+            }
+
+            if (num < keys.length) {
+                keys = Arrays.copyOf(keys, num);
+            }
+
+            Arrays.sort(keys);
         }
 
-        if (recipe instanceof ShapelessRecipe) {
-            return getCombineRecipe(recipe.getResult());
+        return keys;
+    }
+
+    /**
+     * @return hash of the recipe kind, ingredient keys and result type, matches still need to be confirmed with {@link WorkbenchShape#matches(boolean, int[], ItemStack)}
+     */
+    private static long getWorkbenchShapeKey(boolean shaped, int[] ingredients, ItemStack result) {
+        long key;
+        if (shaped) {
+            key = 1;
+        } else {
+            key = 2;
         }
 
-        return null;
+        for (int ingredient : ingredients) {
+            key = (key * 0x9E3779B97F4A7C15L) + ingredient;
+        }
+
+        if (result != null) {
+            key = (key * 0x9E3779B97F4A7C15L) + result.getTypeId();
+        }
+
+        return key ^ (key >>> 29);
+    }
+
+    private static int getIngredientKey(ItemStack item) {
+        int data = item.getDurability();
+
+        if (data == -1) {
+            data = Vanilla.DATA_WILDCARD;
+        }
+
+        return (item.getTypeId() << 16) | (data & 0xFFFF);
+    }
+
+    private void addWorkbenchShape(WorkbenchRecipe recipe, Recipe bukkitRecipe) {
+        if (!(bukkitRecipe instanceof ShapedRecipe) && !(bukkitRecipe instanceof ShapelessRecipe)) {
+            return;
+        }
+
+        removeWorkbenchShape(recipe);
+
+        WorkbenchShape shape = new WorkbenchShape(bukkitRecipe);
+        List<WorkbenchRecipe> recipes = indexWorkbenchShape.get(shape.key);
+
+        if (recipes == null) {
+            recipes = new ArrayList<>(1);
+            indexWorkbenchShape.put(shape.key, recipes);
+        }
+
+        recipes.add(recipe);
+        workbenchShapes.put(recipe, shape);
+    }
+
+    private void removeWorkbenchShape(BaseRecipe recipe) {
+        WorkbenchShape shape = workbenchShapes.remove(recipe);
+
+        if (shape == null) {
+            return;
+        }
+
+        List<WorkbenchRecipe> recipes = indexWorkbenchShape.get(shape.key);
+
+        if (recipes != null) {
+            recipes.remove(recipe);
+
+            if (recipes.isEmpty()) {
+                indexWorkbenchShape.remove(shape.key);
+            }
+        }
     }
 
     /**
@@ -181,10 +427,36 @@ public class Recipes {
         SmeltRecipe recipe = null;
 
         if (ingredient != null) {
-            recipe = indexSmelt.get(ingredient.getTypeId() + ":" + ingredient.getDurability());
+            recipe = indexSmelt.get(LongHashMap.itemKey(ingredient));
 
             if (recipe == null) {
-                recipe = indexSmelt.get(ingredient.getTypeId() + ":" + Vanilla.DATA_WILDCARD);
+                recipe = indexSmelt.get(LongHashMap.itemWildcardKey(ingredient));
+            }
+        }
+
+        return recipe;
+    }
+
+    /**
+     * Guess RecipeManager's furnace smelt recipe by its result, used when the ingredient is no longer available.<br>
+     * Only recipes with a result of the same type and data are compared for similarity.
+     *
+     * @param result
+     * @return Smelt recipe or null if doesn't exist
+     */
+    public SmeltRecipe getSmeltRecipeByResult(ItemStack result) {
+        SmeltRecipe recipe = null;
+
+        if (result != null) {
+            List<SmeltRecipe> candidates = indexSmeltResults.get(LongHashMap.itemKey(result));
+
+            if (candidates != null) {
+                for (SmeltRecipe r : candidates) {
+                    if (result.isSimilar(r.getResult())) {
+                        recipe = r;
+                        break;
+                    }
+                }
             }
         }
 
@@ -195,10 +467,10 @@ public class Recipes {
         BrewRecipe recipe = null;
 
         if (ingredient != null) {
-            recipe = indexBrew.get(ingredient.getTypeId() + ":" + ingredient.getDurability());
+            recipe = indexBrew.get(LongHashMap.itemKey(ingredient));
 
             if (recipe == null) {
-                recipe = indexBrew.get(ingredient.getTypeId() + ":" + Vanilla.DATA_WILDCARD);
+                recipe = indexBrew.get(LongHashMap.itemWildcardKey(ingredient));
             }
         }
 
@@ -210,10 +482,10 @@ public class Recipes {
             return null;
         }
 
-        SmeltRecipe recipe = indexSmeltFuels.get(String.valueOf(fuel.getTypeId()));
+        SmeltRecipe recipe = indexSmeltFuels.get(LongHashMap.itemWildcardKey(fuel));
 
         if (recipe == null) {
-            return indexSmeltFuels.get(fuel.getTypeId() + ":" + fuel.getDurability());
+            return indexSmeltFuels.get(LongHashMap.itemKey(fuel));
         }
 
         return recipe;
@@ -231,10 +503,10 @@ public class Recipes {
             return null;
         }
 
-        FuelRecipe recipe = indexFuels.get(String.valueOf(fuel.getTypeId()));
+        FuelRecipe recipe = indexFuels.get(LongHashMap.itemWildcardKey(fuel));
 
         if (recipe == null) {
-            return indexFuels.get(fuel.getTypeId() + ":" + fuel.getDurability());
+            return indexFuels.get(LongHashMap.itemKey(fuel));
         }
 
         return recipe;
@@ -295,15 +567,34 @@ public class Recipes {
      * @param info
      */
     public void registerRecipe(BaseRecipe recipe, RMCRecipeInfo info) {
+        registerRecipe(recipe, info, true, null);
+
+        RecipeRegistrator.recipeRegistered(this, recipe, info);
+        Events.recipeRegistered(recipe);
+    }
+
+    /**
+     * @param recipe
+     * @param info
+     * @param addToServer
+     *            if false, only this storage is updated and the recipe must be added to the server later with {@link #addToServer(BaseRecipe, Map)}
+     * @param removedOriginals
+     *            if not null, original recipes of overriding and removing recipes were already removed in bulk with {@link Vanilla#removeCustomRecipes(Collection)}
+     */
+    protected void registerRecipe(BaseRecipe recipe, RMCRecipeInfo info, boolean addToServer, Map<BaseRecipe, Recipe> removedOriginals) {
         if (!recipe.isValid()) {
             throw new IllegalArgumentException("Recipe is invalid! Check ingredients and results.");
         }
 
-        if (index.remove(recipe) != null) {
-            recipe.remove();
+        if (removeIndexed(recipe)) {
+            if (addToServer) {
+                removeRecipe(recipe);
+            } else {
+                removeFromIndex(recipe, false);
+            }
         }
 
-        index.put(recipe, info); // Add to main index
+        addToIndex(recipe, info); // Add to main index and item indexes
 
         // Add to quickfind index if it's not removed
         if (!recipe.hasFlag(FlagType.REMOVE)) {
@@ -316,30 +607,26 @@ public class Recipes {
             } else if (recipe instanceof SmeltRecipe) {
                 SmeltRecipe r = (SmeltRecipe) recipe;
 
-                indexSmelt.put(((SmeltRecipe) recipe).getIndexString(), r);
+                SmeltRecipe replaced = indexSmelt.put(r.getIndexKey(), r);
+
+                if (replaced != null) {
+                    removeSmeltResult(replaced);
+                }
 
                 if (r.hasFuel()) {
-                    indexSmeltFuels.put(r.getFuelIndex(), r);
+                    indexSmeltFuels.put(r.getFuelIndexKey(), r);
                 }
+
+                addSmeltResult(r);
             } else if (recipe instanceof BrewRecipe) {
-                indexBrew.put(((BrewRecipe) recipe).getIndexString(), (BrewRecipe) recipe);
+                indexBrew.put(((BrewRecipe) recipe).getIndexKey(), (BrewRecipe) recipe);
             } else if (recipe instanceof FuelRecipe) {
-                indexFuels.put(((FuelRecipe) recipe).getIndexString(), (FuelRecipe) recipe);
+                indexFuels.put(((FuelRecipe) recipe).getIndexKey(), (FuelRecipe) recipe);
             }
         }
 
-        // Remove original recipe
-        if (recipe.hasFlag(FlagType.REMOVE) || recipe.hasFlag(FlagType.OVERRIDE)) {
-            recipe.setBukkitRecipe(Vanilla.removeCustomRecipe(recipe));
-        }
-
-        // Add to server if applicable
-        if (!recipe.hasFlag(FlagType.REMOVE)) {
-            Recipe bukkitRecipe = recipe.getBukkitRecipe(false);
-
-            if (bukkitRecipe != null) {
-                Bukkit.addRecipe(bukkitRecipe);
-            }
+        if (addToServer) {
+            addToServer(recipe, removedOriginals);
         }
 
         if (recipe.hasFlags()) {
@@ -364,6 +651,38 @@ public class Recipes {
         }
     }
 
+    /**
+     * Removes the original recipe of an overriding or removing recipe from the server and adds the recipe to the server if applicable.
+     *
+     * @param recipe
+     *            recipe registered in this storage
+     * @param removedOriginals
+     *            if not null, original recipes of overriding and removing recipes were already removed in bulk with {@link Vanilla#removeCustomRecipes(Collection)}
+     */
+    protected void addToServer(BaseRecipe recipe, Map<BaseRecipe, Recipe> removedOriginals) {
+        // Remove original recipe
+        if (recipe.hasFlag(FlagType.REMOVE) || recipe.hasFlag(FlagType.OVERRIDE)) {
+            if (removedOriginals == null) {
+                recipe.setBukkitRecipe(Vanilla.removeCustomRecipe(recipe));
+            } else {
+                recipe.setBukkitRecipe(removedOriginals.get(recipe));
+            }
+        }
+
+        // Add to server if applicable
+        if (!recipe.hasFlag(FlagType.REMOVE)) {
+            Recipe bukkitRecipe = recipe.getBukkitRecipe(false);
+
+            if (bukkitRecipe != null) {
+                Bukkit.addRecipe(bukkitRecipe);
+
+                if (recipe instanceof WorkbenchRecipe) {
+                    addWorkbenchShape((WorkbenchRecipe) recipe, bukkitRecipe);
+                }
+            }
+        }
+    }
+
     /**
      * Removes a recipe from the server.
      *
@@ -371,12 +690,49 @@ public class Recipes {
      * @return removed recipe or null if not found
      */
     public Recipe removeRecipe(BaseRecipe recipe) {
-        if (recipe.hasFlag(FlagType.REMOVE) || recipe.hasFlag(FlagType.OVERRIDE)) {
-            Bukkit.getServer().addRecipe(recipe.getBukkitRecipe(false));
+        // Remove from server if applicable
+        if (removeFromIndex(recipe, true)) {
+            return Vanilla.removeCustomRecipe(recipe);
         }
 
-        index.remove(recipe); // Remove from main index
+        return null;
+    }
+
+    /**
+     * Removes recipes from the server, like {@link #removeRecipe(BaseRecipe)} but the server's recipes are only searched once for all of them.
+     *
+     * @param recipes
+     */
+    public void removeRecipes(Collection<? extends BaseRecipe> recipes) {
+        List<BaseRecipe> serverRecipes = new ArrayList<>(recipes.size());
+
+        for (BaseRecipe recipe : recipes) {
+            if (removeFromIndex(recipe, true)) {
+                serverRecipes.add(recipe);
+            }
+        }
+
+        Vanilla.removeCustomRecipes(serverRecipes);
+    }
+
+    /**
+     * @param restoreOriginal
+     *            if true, the original recipe of an overriding or removing recipe is added back to the server
+     * @return true if the recipe itself still needs to be removed from the server
+     */
+    private boolean removeFromIndex(BaseRecipe recipe, boolean restoreOriginal) {
+        if (restoreOriginal) {
+            restoreOriginal(recipe);
+        }
+
+        removeIndexed(recipe); // Remove from main index
         indexName.remove(recipe.getName().toLowerCase()); // Remove from name index
+        removeWorkbenchShape(recipe);
+        removeItemKeys(recipe);
+
+        if (recipe instanceof WorkbenchRecipe) {
+            WorkbenchRecipe.clearDisplayResults((WorkbenchRecipe) recipe);
+        }
 
         // Remove from quickfind index
         if (recipe instanceof CraftRecipe) {
@@ -384,27 +740,284 @@ public class Recipes {
         } else if (recipe instanceof CombineRecipe) {
             indexCombine.remove(recipe.getIndex());
         } else if (recipe instanceof SmeltRecipe) {
-            indexSmelt.remove(((SmeltRecipe) recipe).getIndexString());
+            SmeltRecipe r = (SmeltRecipe) recipe;
+
+            indexSmelt.remove(r.getIndexKey());
+
+            if (r.hasFuel()) {
+                indexSmeltFuels.remove(r.getFuelIndexKey());
+            }
+
+            removeSmeltResult(r);
         } else if (recipe instanceof BrewRecipe) {
-            indexBrew.remove(((BrewRecipe) recipe).getIndexString());
+            indexBrew.remove(((BrewRecipe) recipe).getIndexKey());
         } else if (recipe instanceof FuelRecipe) {
-            indexFuels.remove(((FuelRecipe) recipe).getIndexString());
+            indexFuels.remove(((FuelRecipe) recipe).getIndexKey());
         }
 
-        // Remove from server if applicable
+        return !(recipe.hasFlag(FlagType.REMOVE) || recipe.hasFlag(FlagType.OVERRIDE));
+    }
+
+    /**
+     * Adds the original recipe of an overriding or removing recipe back to the server.
+     *
+     * @param recipe
+     */
+    protected static void restoreOriginal(BaseRecipe recipe) {
         if (recipe.hasFlag(FlagType.REMOVE) || recipe.hasFlag(FlagType.OVERRIDE)) {
-            return null;
+            Bukkit.getServer().addRecipe(recipe.getBukkitRecipe(false));
+        }
+    }
+
+    private void addSmeltResult(SmeltRecipe recipe) {
+        if (recipe.hasResult()) {
+            long resultKey = LongHashMap.itemKey(recipe.getResult());
+            List<SmeltRecipe> candidates = indexSmeltResults.get(resultKey);
+
+            if (candidates == null) {
+                candidates = new ArrayList<>(1);
+                indexSmeltResults.put(resultKey, candidates);
+            }
+
+            candidates.add(recipe);
+        }
+    }
+
+    private void removeSmeltResult(SmeltRecipe recipe) {
+        if (recipe.hasResult()) {
+            long resultKey = LongHashMap.itemKey(recipe.getResult());
+            List<SmeltRecipe> candidates = indexSmeltResults.get(resultKey);
+
+            if (candidates != null) {
+                candidates.remove(recipe);
+
+                if (candidates.isEmpty()) {
+                    indexSmeltResults.remove(resultKey);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param type
+     * @return true if a recipe of the type is registered by RecipeManager, the vanilla recipes that are also indexed don't count
+     */
+    protected boolean hasCustomRecipes(Class<? extends BaseRecipe> type) {
+        for (Class<? extends BaseRecipe> recipeClass : customRecipes.keySet()) {
+            if (type.isAssignableFrom(recipeClass)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void countCustomRecipe(BaseRecipe recipe, RMCRecipeInfo info, int change) {
+        if (info == null || info.getOwner() != RecipeOwner.RECIPEMANAGER) {
+            return;
+        }
+
+        Class<? extends BaseRecipe> recipeClass = recipe.getClass();
+        Integer count = customRecipes.get(recipeClass);
+        int newCount = change;
+
+        if (count != null) {
+            newCount += count;
+        }
+
+        if (newCount > 0) {
+            customRecipes.put(recipeClass, newCount);
+        } else {
+            customRecipes.remove(recipeClass);
+        }
+    }
+
+    /**
+     * @param recipe
+     * @return true if the recipe was in the main index
+     */
+    private boolean removeIndexed(BaseRecipe recipe) {
+        RMCRecipeInfo info = index.remove(recipe);
+
+        countCustomRecipe(recipe, info, -1);
+
+        return info != null;
+    }
+
+    /**
+     * Adds the recipe to the main index and to the ingredient and result indexes.
+     *
+     * @param recipe
+     * @param info
+     */
+    protected void addToIndex(BaseRecipe recipe, RMCRecipeInfo info) {
+        countCustomRecipe(recipe, index.put(recipe, info), -1);
+        countCustomRecipe(recipe, info, 1);
+
+        removeItemKeys(recipe);
+        ingredientKeys.put(recipe, addItemKeys(indexIngredients, getIngredientItems(recipe), recipe));
+        resultKeys.put(recipe, addItemKeys(indexResults, getResultItems(recipe), recipe));
+    }
+
+    /**
+     * @param recipes
+     *            recipes to add with {@link #addToIndex(BaseRecipe, RMCRecipeInfo)}
+     */
+    protected void addAllToIndex(Map<BaseRecipe, RMCRecipeInfo> recipes) {
+        for (Entry<BaseRecipe, RMCRecipeInfo> e : recipes.entrySet()) {
+            addToIndex(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * @return the keys the recipe was added under, kept so the recipe can be removed even if its items were changed since
+     */
+    private static long[] addItemKeys(LongHashMap<List<BaseRecipe>> itemIndex, List<ItemStack> items, BaseRecipe recipe) {
+        long[] keys = new long[items.size() * 2];
+        int size = 0;
+
+        for (ItemStack item : items) {
+            keys[size++] = LongHashMap.itemKey(item);
+            keys[size++] = LongHashMap.itemWildcardKey(item);
+        }
+
+        for (int i = 0; i < size; i++) {
+            List<BaseRecipe> recipes = itemIndex.get(keys[i]);
+
+            if (recipes == null) {
+                recipes = new ArrayList<>(1);
+                itemIndex.put(keys[i], recipes);
+            }
+
+            if (!recipes.contains(recipe)) {
+                recipes.add(recipe);
+            }
+        }
+
+        return Arrays.copyOf(keys, size);
+    }
+
+    private void removeItemKeys(BaseRecipe recipe) {
+        removeItemKeys(indexIngredients, ingredientKeys.remove(recipe), recipe);
+        removeItemKeys(indexResults, resultKeys.remove(recipe), recipe);
+    }
+
+    private static void removeItemKeys(LongHashMap<List<BaseRecipe>> itemIndex, long[] keys, BaseRecipe recipe) {
+        if (keys == null) {
+            return;
+        }
+
+        for (long key : keys) {
+            List<BaseRecipe> recipes = itemIndex.get(key);
+
+            if (recipes != null) {
+                recipes.remove(recipe);
+
+                if (recipes.isEmpty()) {
+                    itemIndex.remove(key);
+                }
+            }
+        }
+    }
+
+    private static List<ItemStack> getIngredientItems(BaseRecipe recipe) {
+        List<ItemStack> items = new ArrayList<>();
+
+        if (recipe instanceof CraftRecipe) {
+            items.addAll(Arrays.asList(((CraftRecipe) recipe).getIngredients()));
+        } else if (recipe instanceof CombineRecipe) {
+            items.addAll(((CombineRecipe) recipe).getIngredients());
+        } else if (recipe instanceof SmeltRecipe) {
+            items.add(((SmeltRecipe) recipe).getIngredient());
+        } else if (recipe instanceof FuelRecipe) {
+            items.add(((FuelRecipe) recipe).getIngredient());
+        }
+
+        items.removeAll(Collections.singleton(null));
+
+        return items;
+    }
+
+    private static List<ItemStack> getResultItems(BaseRecipe recipe) {
+        List<ItemStack> items = new ArrayList<>();
+
+        if (recipe instanceof WorkbenchRecipe) {
+            items.addAll(((WorkbenchRecipe) recipe).getResults());
+        } else if (recipe instanceof SingleResultRecipe) {
+            items.add(((SingleResultRecipe) recipe).getResult());
         }
 
-        return Vanilla.removeCustomRecipe(recipe);
+        items.removeAll(Collections.singleton(null));
+
+        return items;
+    }
+
+    /**
+     * Finds the recipes that use the item as an ingredient.
+     *
+     * @param item
+     *            item to search for, {@link Vanilla#DATA_WILDCARD} data value matches any data value
+     * @return matching recipes in the order they were added, empty if none
+     */
+    public List<BaseRecipe> getRecipesByIngredient(ItemStack item) {
+        return findRecipes(indexIngredients, item, true);
+    }
+
+    /**
+     * Finds the recipes that have the item as a result.
+     *
+     * @param item
+     *            item to search for, {@link Vanilla#DATA_WILDCARD} data value matches any data value and an amount of 1 matches any amount
+     * @return matching recipes in the order they were added, empty if none
+     */
+    public List<BaseRecipe> getRecipesByResult(ItemStack item) {
+        return findRecipes(indexResults, item, false);
+    }
+
+    private List<BaseRecipe> findRecipes(LongHashMap<List<BaseRecipe>> itemIndex, ItemStack item, boolean ingredient) {
+        List<BaseRecipe> candidates = itemIndex.get(LongHashMap.itemKey(item));
+        List<BaseRecipe> found = new ArrayList<>();
+
+        if (candidates == null) {
+            return found;
+        }
+
+        // candidates are re-checked in case their items were changed after being indexed
+        for (BaseRecipe recipe : candidates) {
+            List<ItemStack> items;
+            if (ingredient) {
+                items = getIngredientItems(recipe);
+            } else {
+                items = getResultItems(recipe);
+            }
+
+            if (containsItem(items, item, ingredient)) {
+                found.add(recipe);
+            }
+        }
+
+        return found;
+    }
+
+    private static boolean containsItem(List<ItemStack> items, ItemStack item, boolean ingredient) {
+        for (ItemStack i : items) {
+            if (i.getType() == item.getType() && (item.getDurability() == Vanilla.DATA_WILDCARD || i.getDurability() == item.getDurability()) && (ingredient || item.getAmount() == 1 || item.getAmount() == i.getAmount())) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     protected static ItemResult recipeGetResult(Args a, WorkbenchRecipe recipe) {
-        ItemResult result = staticResults.get(a.playerUUID());
+        ItemResult result = staticResults.get(a.playerUUID(), recipe);
 
         if (result == null) {
             result = recipe.getResult(a);
-            staticResults.put(a.playerUUID(), result);
+
+            if (result != null) {
+                staticResults.put(a.playerUUID(), recipe, result);
+            }
         }
 
         if (result == null) {
@@ -418,6 +1031,13 @@ public class Recipes {
         staticResults.remove(uuid);
     }
 
+    /**
+     * @return results remembered between cancelled craft attempts, with hit, miss and eviction counts
+     */
+    public static RememberedResults getRememberedResults() {
+        return staticResults;
+    }
+
     public Map<BaseRecipe, RMCRecipeInfo> getIndex() {
         return index;
     }
@@ -0,0 +1,180 @@
+package haveric.recipeManager;
+
+import haveric.recipeManager.recipes.BaseRecipe;
+import haveric.recipeManager.recipes.ItemResult;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Results rolled for a player and recipe, kept so a cancelled craft gets the same result when it's tried again.<br>
+ * Entries expire after a while and the least recently used players are dropped when full.<br>
+ * Methods are synchronized so it can be used from other threads.
+ */
+public class RememberedResults {
+    private final int maxPlayers;
+    private final int maxPerPlayer;
+    private final long expireMillis;
+
+    private final Map<UUID, Map<BaseRecipe, Remembered>> players;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    private static class Remembered {
+        private ItemResult result;
+        private long expires;
+
+        private Remembered(ItemResult newResult, long newExpires) {
+            result = newResult;
+            expires = newExpires;
+        }
+    }
+
+    /**
+     * @param newMaxPlayers
+     *            players to keep results for, the least recently used one is dropped when more are added
+     * @param newMaxPerPlayer
+     *            results to keep per player, the oldest one is dropped when more are added
+     * @param newExpireMillis
+     *            milliseconds results are kept for
+     */
+    public RememberedResults(int newMaxPlayers, int newMaxPerPlayer, long newExpireMillis) {
+        maxPlayers = newMaxPlayers;
+        maxPerPlayer = newMaxPerPlayer;
+        expireMillis = newExpireMillis;
+
+        players = new LinkedHashMap<UUID, Map<BaseRecipe, Remembered>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Map<BaseRecipe, Remembered>> eldest) {
+                if (size() > maxPlayers) {
+                    evictions += eldest.getValue().size();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param playerUUID
+     * @param recipe
+     * @return the result remembered for the player and recipe or null if there is none or it expired
+     */
+    public synchronized ItemResult get(UUID playerUUID, BaseRecipe recipe) {
+        Map<BaseRecipe, Remembered> results = players.get(playerUUID);
+        Remembered remembered = null;
+
+        if (results != null) {
+            remembered = results.get(recipe);
+
+            if (remembered != null && remembered.expires < System.currentTimeMillis()) {
+                results.remove(recipe);
+                evictions++;
+                remembered = null;
+
+                if (results.isEmpty()) {
+                    players.remove(playerUUID);
+                }
+            }
+        }
+
+        if (remembered == null) {
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return remembered.result;
+    }
+
+    public synchronized void put(UUID playerUUID, BaseRecipe recipe, ItemResult result) {
+        Map<BaseRecipe, Remembered> results = players.get(playerUUID);
+
+        if (results == null) {
+            results = new HashMap<>();
+            players.put(playerUUID, results);
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (!results.containsKey(recipe) && results.size() >= maxPerPlayer) {
+            removeOldest(results, now);
+        }
+
+        results.put(recipe, new Remembered(result, now + expireMillis));
+    }
+
+    /**
+     * Removes expired results, or the oldest one if none expired.
+     */
+    private void removeOldest(Map<BaseRecipe, Remembered> results, long now) {
+        Iterator<Remembered> iter = results.values().iterator();
+        Remembered oldest = null;
+        int removed = 0;
+
+        while (iter.hasNext()) {
+            Remembered remembered = iter.next();
+
+            if (remembered.expires < now) {
+                iter.remove();
+                removed++;
+            } else if (oldest == null || remembered.expires < oldest.expires) {
+                oldest = remembered;
+            }
+        }
+
+        if (removed == 0 && oldest != null) {
+            results.values().remove(oldest);
+            removed++;
+        }
+
+        evictions += removed;
+    }
+
+    /**
+     * Forgets all results of the player.
+     *
+     * @param playerUUID
+     */
+    public synchronized void remove(UUID playerUUID) {
+        players.remove(playerUUID);
+    }
+
+    public synchronized void clear() {
+        players.clear();
+    }
+
+    /**
+     * @return number of remembered results, including expired ones that weren't removed yet
+     */
+    public synchronized int size() {
+        int size = 0;
+
+        for (Map<BaseRecipe, Remembered> results : players.values()) {
+            size += results.size();
+        }
+
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of results dropped because they expired or there were too many
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
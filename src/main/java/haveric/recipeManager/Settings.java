@@ -46,6 +46,10 @@ public class Settings {
     private static final String FURNACE_SHIFT_CLICK_DEFAULT = "f";
 
     private static final boolean MULTITHREADING_DEFAULT = true;
+    private static final int PARSE_THREADS_DEFAULT = 1;
+    private static final int REGISTER_TICK_BUDGET_DEFAULT = 0;
+    private static final boolean RECIPE_CACHE_DEFAULT = false;
+    private static final boolean FAST_FAIL_CHECKS_DEFAULT = true;
 
     private static final boolean CLEAR_RECIPES_DEFAULT = false;
 
@@ -148,6 +152,10 @@ public class Settings {
         MessageSender.getInstance().log("    color-console: " + getColorConsole());
         MessageSender.getInstance().log("    furnace-shift-click: " + getFurnaceShiftClick());
         MessageSender.getInstance().log("    multithreading: " + getMultithreading());
+        MessageSender.getInstance().log("    parse-threads: " + getParseThreads());
+        MessageSender.getInstance().log("    register-tick-budget: " + getRegisterTickBudget());
+        MessageSender.getInstance().log("    recipe-cache: " + getRecipeCache());
+        MessageSender.getInstance().log("    fast-fail-checks: " + getFastFailChecks());
         MessageSender.getInstance().log("    fix-mod-results: " + getFixModResults());
         MessageSender.getInstance().log("    clear-recipes: " + getClearRecipes());
         MessageSender.getInstance().log("    update-check.enabled: " + getUpdateCheckEnabled());
@@ -447,6 +455,22 @@ public class Settings {
         return fileConfig.getBoolean("multithreading", MULTITHREADING_DEFAULT);
     }
 
+    public int getParseThreads() {
+        return Math.max(fileConfig.getInt("parse-threads", PARSE_THREADS_DEFAULT), 1);
+    }
+
+    public int getRegisterTickBudget() {
+        return Math.max(fileConfig.getInt("register-tick-budget", REGISTER_TICK_BUDGET_DEFAULT), 0);
+    }
+
+    public boolean getRecipeCache() {
+        return fileConfig.getBoolean("recipe-cache", RECIPE_CACHE_DEFAULT);
+    }
+
+    public boolean getFastFailChecks() {
+        return fileConfig.getBoolean("fast-fail-checks", FAST_FAIL_CHECKS_DEFAULT);
+    }
+
     public boolean getClearRecipes() {
         return fileConfig.getBoolean("clear-recipes", CLEAR_RECIPES_DEFAULT);
     }
@@ -10,7 +10,11 @@ import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.inventory.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -164,7 +168,7 @@ public class Vanilla {
         // Index fuel recipes
         for (BaseRecipe recipe : initialRecipes.keySet()) {
             if (recipe instanceof FuelRecipe) {
-                RecipeManager.getRecipes().indexFuels.put(((FuelRecipe) recipe).getIndexString(), (FuelRecipe) recipe);
+                RecipeManager.getRecipes().indexFuels.put(((FuelRecipe) recipe).getIndexKey(), (FuelRecipe) recipe);
             }
         }
 
@@ -204,7 +208,7 @@ public class Vanilla {
 
         for (Entry<BaseRecipe, RMCRecipeInfo> e : initialRecipes.entrySet()) {
             BaseRecipe recipe = e.getKey();
-            RecipeManager.getRecipes().index.put(recipe, e.getValue());
+            RecipeManager.getRecipes().addToIndex(recipe, e.getValue());
             RecipeManager.getRecipes().indexName.put(recipe.getName(), recipe);
         }
     }
@@ -236,6 +240,163 @@ public class Vanilla {
         return null;
     }
 
+    /**
+     * Removes RecipeManager recipes from the <b>server</b> in a single pass over the server's recipes.<br>
+     * Each recipe removes the first server recipe it matches, same as {@link #removeCustomRecipe(BaseRecipe)} does.
+     *
+     * @param recipes
+     *            RecipeManager recipes
+     * @return removed recipes mapped by the RecipeManager recipe that matched them, recipes that didn't match are not in the map
+     */
+    public static Map<BaseRecipe, Recipe> removeCustomRecipes(Collection<? extends BaseRecipe> recipes) {
+        Map<BaseRecipe, Recipe> removed = new IdentityHashMap<>();
+        Map<String, List<BaseRecipe>> targets = new HashMap<>();
+        int remaining = 0;
+
+        // Group the recipes by ingredient types, only those need to be compared with a server recipe
+        for (BaseRecipe recipe : recipes) {
+            if (recipe instanceof CraftRecipe) {
+                ItemStack[] matrix = ((CraftRecipe) recipe).getIngredients();
+                Tools.trimItemMatrix(matrix);
+
+                String key = getRemovalKey(matrix);
+                String mirrorKey = getRemovalKey(Tools.mirrorItemMatrix(matrix));
+
+                addRemovalTarget(targets, key, recipe);
+
+                if (!mirrorKey.equals(key)) {
+                    addRemovalTarget(targets, mirrorKey, recipe);
+                }
+            } else if (recipe instanceof CombineRecipe) {
+                addRemovalTarget(targets, getRemovalKey(((CombineRecipe) recipe).getIngredients()), recipe);
+            } else if (recipe instanceof SmeltRecipe) {
+                addRemovalTarget(targets, getRemovalKey(((SmeltRecipe) recipe).getIngredient()), recipe);
+            } else {
+                continue;
+            }
+
+            remaining++;
+        }
+
+        Iterator<Recipe> iterator = Bukkit.recipeIterator();
+        Recipe r;
+
+        while (remaining > 0 && iterator.hasNext()) {
+            try {
+                r = iterator.next();
+
+                List<BaseRecipe> candidates = targets.get(getRemovalKey(r));
+
+                if (candidates == null) {
+                    continue;
+                }
+
+                for (BaseRecipe recipe : candidates) {
+                    if (!removed.containsKey(recipe) && matchesServerRecipe(recipe, r)) {
+                        iterator.remove();
+                        removed.put(recipe, r);
+                        remaining--;
+                        break;
+                    }
+                }
+            } catch (NullPointerException e) {
+                // Catch any invalid Bukkit recipes
+            }
+        }
+
+        return removed;
+    }
+
+    private static void addRemovalTarget(Map<String, List<BaseRecipe>> targets, String key, BaseRecipe recipe) {
+        List<BaseRecipe> list = targets.get(key);
+
+        if (list == null) {
+            list = new ArrayList<>(1);
+            targets.put(key, list);
+        }
+
+        list.add(recipe);
+    }
+
+    /**
+     * @return key of the server recipe's type and ingredient types or null if it's not a removable recipe type
+     */
+    private static String getRemovalKey(Recipe recipe) {
+        String key = null;
+
+        if (recipe instanceof ShapedRecipe) {
+            key = getRemovalKey(Tools.convertShapedRecipeToItemMatrix((ShapedRecipe) recipe));
+        } else if (recipe instanceof ShapelessRecipe) {
+            key = getRemovalKey(((ShapelessRecipe) recipe).getIngredientList());
+        } else if (recipe instanceof FurnaceRecipe) {
+            key = getRemovalKey(((FurnaceRecipe) recipe).getInput());
+        }
+
+        return key;
+    }
+
+    private static String getRemovalKey(ItemStack[] matrix) {
+        StringBuilder key = new StringBuilder("s");
+
+        for (ItemStack item : matrix) {
+            if (item != null) {
+                key.append(item.getTypeId());
+            }
+
+            key.append(';');
+        }
+
+        return key.toString();
+    }
+
+    private static String getRemovalKey(List<ItemStack> ingredients) {
+        int[] ids = new int[ingredients.size()];
+        int num = 0;
+
+        for (ItemStack item : ingredients) {
+            ids[num] = item.getTypeId();
+            num++;
+        }
+
+        Arrays.sort(ids);
+
+        StringBuilder key = new StringBuilder("l");
+
+        for (int id : ids) {
+            key.append(id).append(';');
+        }
+
+        return key.toString();
+    }
+
+    private static String getRemovalKey(ItemStack ingredient) {
+        return "f" + ingredient.getTypeId();
+    }
+
+    /**
+     * Same matching as the single recipe removal methods.
+     */
+    private static boolean matchesServerRecipe(BaseRecipe recipe, Recipe serverRecipe) {
+        boolean matches = false;
+
+        if (recipe instanceof CraftRecipe && serverRecipe instanceof ShapedRecipe) {
+            CraftRecipe craftRecipe = (CraftRecipe) recipe;
+            ShapedRecipe sr = (ShapedRecipe) serverRecipe;
+            String[] sh = sr.getShape();
+
+            ItemStack[] matrix = craftRecipe.getIngredients();
+            Tools.trimItemMatrix(matrix);
+
+            matches = sh.length == craftRecipe.getHeight() && sh[0].length() == craftRecipe.getWidth() && Tools.compareShapedRecipeToMatrix(sr, matrix, Tools.mirrorItemMatrix(matrix));
+        } else if (recipe instanceof CombineRecipe && serverRecipe instanceof ShapelessRecipe) {
+            matches = Tools.compareIngredientList(((CombineRecipe) recipe).getIngredients(), ((ShapelessRecipe) serverRecipe).getIngredientList());
+        } else if (recipe instanceof SmeltRecipe && serverRecipe instanceof FurnaceRecipe) {
+            matches = ((SmeltRecipe) recipe).getIngredient().getType() == ((FurnaceRecipe) serverRecipe).getInput().getType();
+        }
+
+        return matches;
+    }
+
     /**
      * Removes a Bukkit recipe from the <b>server</b> <b>Note: This method converts the Bukkit recipe to RecipeManager recipe. If you have the BaseRecipe object you should use
      * {@link #removeCustomRecipe(BaseRecipe)}</b>
@@ -472,22 +633,29 @@ public class Vanilla {
             BaseRecipe recipe = entry.getKey();
 
             if (recipe instanceof FuelRecipe) {
-                RecipeManager.getRecipes().indexFuels.put(((FuelRecipe) recipe).getIndexString(), (FuelRecipe) recipe);
+                RecipeManager.getRecipes().indexFuels.put(((FuelRecipe) recipe).getIndexKey(), (FuelRecipe) recipe);
             } else {
-                if (recipe.isVanillaSpecialRecipe()) {
-                    continue;
-                }
-                Recipe bukkitRecipe = recipe.getBukkitRecipe(true);
+                restoreRecipe(recipe);
+            }
+        }
+    }
 
-                if (bukkitRecipe != null) {
-                    if (isSpecialRecipe(bukkitRecipe)) {
-                        continue;
-                    }
+    /**
+     * Adds a recipe that already existed when the plugin was enabled back to the server, unless it's special.
+     *
+     * @param recipe
+     *            one of the initial recipes, see {@link #getInitialRecipes()}
+     */
+    protected static void restoreRecipe(BaseRecipe recipe) {
+        if (recipe instanceof FuelRecipe || recipe.isVanillaSpecialRecipe()) {
+            return;
+        }
 
-                    // TODO maybe check if recipe is already in server ?
-                    Bukkit.addRecipe(bukkitRecipe);
-                }
-            }
+        Recipe bukkitRecipe = recipe.getBukkitRecipe(true);
+
+        if (bukkitRecipe != null && !isSpecialRecipe(bukkitRecipe)) {
+            // TODO maybe check if recipe is already in server ?
+            Bukkit.addRecipe(bukkitRecipe);
         }
     }
 
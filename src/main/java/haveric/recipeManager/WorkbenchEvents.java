@@ -0,0 +1,641 @@
+package haveric.recipeManager;
+
+import haveric.recipeManager.api.events.RecipeManagerCraftEvent;
+import haveric.recipeManager.api.events.RecipeManagerPrepareCraftEvent;
+import haveric.recipeManager.flag.FlagType;
+import haveric.recipeManager.flag.args.Args;
+import haveric.recipeManager.messages.MessageSender;
+import haveric.recipeManager.messages.MessagePrefix;
+import haveric.recipeManager.messages.Messages;
+import haveric.recipeManager.messages.SoundNotifier;
+import haveric.recipeManager.recipes.*;
+import haveric.recipeManager.tools.Tools;
+import haveric.recipeManager.tools.ToolsItem;
+import haveric.recipeManager.tools.Version;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.*;
+import org.bukkit.inventory.*;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.inventory.meta.LeatherArmorMeta;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * RecipeManager handled workbench events
+ */
+public class WorkbenchEvents implements Listener {
+    protected WorkbenchEvents() { }
+
+    /*
+     * Workbench craft events
+     */
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void prepareCraft(PrepareItemCraftEvent event) {
+        try {
+            CraftingInventory inv = event.getInventory();
+
+            if (inv.getResult() == null) {
+                return; // event was cancelled by some other plugin
+            }
+
+            Player player;
+            if (event.getView() == null) {
+                player = null;
+            } else {
+                player = (Player) event.getView().getPlayer();
+            }
+
+            if (!RecipeManager.getPlugin().canCraft(player)) {
+                inv.setResult(null);
+                return; // player not allowed to craft, stop here
+            }
+
+            Location location;
+            // get workbench location or null
+            if (inv.getSize() > 9) {
+                location = Workbenches.get(player);
+            } else {
+                location = null;
+            }
+
+            if (event.isRepair()) {
+                prepareRepairRecipe(player, inv, location);
+                return; // if it's a repair recipe we don't need to move on
+            }
+
+            Recipe bukkitRecipe = event.getRecipe();
+
+            if (bukkitRecipe == null) {
+                return; // Bukkit recipe is null ! skip it
+            }
+
+            ItemResult result;
+            if (inv.getResult() == null) {
+                result = null;
+            } else {
+                result = new ItemResult(inv.getResult());
+            }
+
+            if (prepareSpecialRecipe(player, inv, result, bukkitRecipe)) {
+                return; // stop here if it's a special recipe
+            }
+
+            WorkbenchRecipe recipe = RecipeManager.getRecipes().getWorkbenchRecipe(bukkitRecipe);
+
+            if (recipe == null) {
+                return; // not a custom recipe or recipe not found, no need to move on
+            }
+
+            Args a = Args.create().player(player).inventory(inv).location(location).recipe(recipe).build();
+
+            result = recipe.getDisplayResult(a); // get the result from recipe
+
+            // Call the RecipeManagerPrepareCraftEvent
+            RecipeManagerPrepareCraftEvent callEvent = new RecipeManagerPrepareCraftEvent(recipe, result, player, location);
+            Bukkit.getPluginManager().callEvent(callEvent);
+
+            if (callEvent.getResult() == null) {
+                result = null;
+            } else {
+                result = new ItemResult(callEvent.getResult());
+            }
+
+            if (result != null) {
+                a.setResult(result);
+
+                if (recipe.sendPrepare(a)) {
+                    a.sendEffects(a.player(), Messages.getInstance().get("flag.prefix.recipe"));
+                } else {
+                    a.sendReasons(a.player(), Messages.getInstance().get("flag.prefix.recipe"));
+                    result = null;
+                }
+            }
+
+            inv.setResult(result);
+        } catch (Throwable e) {
+            if (event.getInventory() != null) {
+                event.getInventory().setResult(null);
+            }
+
+            CommandSender sender;
+            if (event.getView() != null && event.getView().getPlayer() instanceof Player) {
+                sender = event.getView().getPlayer();
+            } else {
+                sender = null;
+            }
+
+            MessageSender.getInstance().error(sender, e, event.getEventName() + " cancelled due to error:");
+        }
+    }
+
+    private boolean prepareSpecialRecipe(Player player, CraftingInventory inv, ItemStack result, Recipe recipe) {
+        ItemStack recipeResult = recipe.getResult();
+
+        if (!result.equals(recipeResult)) { // result was processed by the game and it doesn't match the original recipe
+            if (!Settings.getInstance().getSpecialLeatherDye()) {
+                boolean leatherDye = false;
+
+                if (Version.has1_11Support()) {
+                    if (result.hasItemMeta() && result.getItemMeta() instanceof LeatherArmorMeta) {
+                        leatherDye = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_LEATHERDYE)) {
+                    leatherDye = true;
+                }
+
+                if (leatherDye) {
+                    Messages.getInstance().sendOnce(player, "craft.special.leatherdye");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialMapCloning()) {
+                boolean mapClone = false;
+
+                if (Version.has1_11Support()) {
+                    if (result.getType().equals(Material.MAP) && result.getAmount() > 1) {
+                        mapClone = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_MAPCLONE)) {
+                    mapClone = true;
+                }
+
+                if (mapClone) {
+                    Messages.getInstance().sendOnce(player, "craft.special.map.cloning");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialMapExtending()) {
+                boolean mapExtend = false;
+
+                if (Version.has1_11Support()) {
+                    if (recipeResult.equals(Vanilla.RECIPE_MAPEXTEND_1_11)) {
+                        mapExtend = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_MAPEXTEND)) {
+                    mapExtend = true;
+                }
+
+                if (mapExtend) {
+                    Messages.getInstance().sendOnce(player, "craft.special.map.extending");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialFireworks()) {
+                boolean fireworks = false;
+
+                if (Version.has1_11Support()) {
+                    if (result.getType().equals(Material.FIREWORK)) {
+                        fireworks = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_FIREWORKS)) {
+                    fireworks = true;
+                }
+
+                if (fireworks) {
+                    Messages.getInstance().sendOnce(player, "craft.special.fireworks");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialFireworkStar()) {
+                if (Version.has1_11Support() && result.getType().equals(Material.FIREWORK_CHARGE)) {
+                    Messages.getInstance().sendOnce(player, "craft.special.fireworkstar");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialBookCloning()) {
+                boolean bookClone = false;
+
+                if (Version.has1_11Support()) {
+                    if (result.getType().equals(Material.WRITTEN_BOOK)) {
+                        bookClone = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_BOOKCLONE)) {
+                    bookClone = true;
+                }
+
+                if (bookClone) {
+                    Messages.getInstance().sendOnce(player, "craft.special.book.cloning");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialBanner()) {
+                boolean isBanner = false;
+
+                if (Version.has1_11Support()) {
+                    if (result.getType().equals(Material.BANNER)) {
+                        isBanner = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_BANNER)) {
+                    isBanner = true;
+                }
+
+                if (isBanner) {
+                    Messages.getInstance().sendOnce(player, "craft.special.banner");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialShieldBanner()) {
+                boolean isShieldBanner = false;
+
+                if (Version.has1_11Support()) {
+                    if (result.getType().equals(Material.SHIELD)) {
+                        isShieldBanner = true;
+                    }
+                } else if (recipeResult.equals(Vanilla.RECIPE_SHIELD_BANNER)) {
+                    isShieldBanner = true;
+                }
+
+                if (isShieldBanner) {
+                    Messages.getInstance().sendOnce(player, "craft.special.shieldbanner");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+
+            if (!Settings.getInstance().getSpecialTippedArrows() && recipeResult.equals(Vanilla.RECIPE_TIPPED_ARROW)) {
+                Messages.getInstance().sendOnce(player, "craft.special.tippedarrows");
+                inv.setResult(null);
+                return true;
+            }
+
+            if (!Settings.getInstance().getSpecialShulkerDye()) {
+                if (Version.has1_11Support() && ToolsItem.isShulkerBox(result.getType())) {
+                    Messages.getInstance().sendOnce(player, "craft.special.shulkerdye");
+                    inv.setResult(null);
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void prepareRepairRecipe(Player player, CraftingInventory inv, Location location) throws Throwable {
+        if (!Settings.getInstance().getSpecialRepair()) {
+            SoundNotifier.sendDenySound(player, location);
+            Messages.getInstance().sendOnce(player, "craft.repair.disabled");
+            inv.setResult(null);
+            return;
+        }
+
+        ItemStack result = inv.getRecipe().getResult();
+
+        if (Settings.getInstance().getSpecialRepairMetadata()) {
+            ItemStack[] matrix = inv.getMatrix();
+            ItemStack[] repaired = new ItemStack[2];
+
+            int repairIndex = 0;
+
+            for (ItemStack item : matrix) {
+                if (item != null && item.getType() != Material.AIR) {
+                    repaired[repairIndex] = item;
+
+                    if (++repairIndex > 1) {
+                        break;
+                    }
+                }
+            }
+
+            if (repaired[0] != null && repaired[1] != null) {
+                ItemMeta meta = null;
+
+                if (repaired[0].hasItemMeta()) {
+                    meta = repaired[0].getItemMeta();
+                } else if (repaired[1].hasItemMeta()) {
+                    meta = repaired[1].getItemMeta();
+                }
+
+                if (meta != null) {
+                    result = inv.getResult();
+                    result.setItemMeta(meta);
+                }
+            }
+        }
+
+        RecipeManagerPrepareCraftEvent callEvent = new RecipeManagerPrepareCraftEvent(null, result, player, location);
+        Bukkit.getPluginManager().callEvent(callEvent);
+
+        result = callEvent.getResult();
+
+        if (result != null) {
+            SoundNotifier.sendRepairSound(player, location);
+        }
+
+        inv.setResult(result);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void craftFinish(CraftItemEvent event) {
+        try {
+            final CraftingInventory inv = event.getInventory();
+
+            ItemResult result;
+            if (inv.getResult() == null) {
+                result = null;
+            } else {
+                result = new ItemResult(inv.getResult());
+            }
+
+            final Player player;
+            if (event.getView() == null) {
+                player = null;
+            } else {
+                player = (Player) event.getView().getPlayer();
+            }
+
+            Location location = Workbenches.get(player);
+
+            if (!event.isShiftClick() && result == null) {
+                event.setCancelled(true);
+                SoundNotifier.sendDenySound(player, location);
+                return;
+            }
+
+            Recipe bukkitRecipe = event.getRecipe();
+            WorkbenchRecipe recipe = RecipeManager.getRecipes().getWorkbenchRecipe(bukkitRecipe);
+
+            if (recipe == null) {
+                return;
+            }
+
+            Args a = Args.create().player(player).inventory(inv).recipe(recipe).location(location).build();
+
+            if (!recipe.checkFlagsFast(a)) {
+                SoundNotifier.sendDenySound(player, location);
+                event.setCancelled(true);
+                return;
+            }
+
+            result = Recipes.recipeGetResult(a, recipe); // gets the same stored result if event was previously cancelled
+
+            int mouseButton;
+            if (event.isRightClick()) {
+                mouseButton = 1;
+            } else {
+                mouseButton = 0;
+            }
+            // Call the PRE event TODO upgrade to MouseButton when PR is pulled
+            RecipeManagerCraftEvent callEvent = new RecipeManagerCraftEvent(recipe, result, player, event.getCursor(), event.isShiftClick(), mouseButton);
+            Bukkit.getPluginManager().callEvent(callEvent);
+
+            if (callEvent.isCancelled()) { // if event was cancelled by some other plugin then cancel this event
+                event.setCancelled(true);
+                return;
+            }
+
+            result = callEvent.getResult(); // get the result from the event if it was changed
+
+            a = Args.create().player(player).inventory(inv).recipe(recipe).location(location).result(result).build();
+
+            int times = craftResult(event, inv, player, recipe, result, a); // craft the result
+            if (result != null) {
+                a = Args.create().player(player).inventory(inv).recipe(recipe).location(location).result(result).build();
+
+                if (times > 0) {
+                    Recipes.recipeResetResult(a.playerUUID());
+
+                    // flags that roll or apply something for each craft need to be sent for each craft
+                    boolean batch = times > 1 && recipe.canCraftBatch() && result.canCraftBatch();
+                    int sends;
+                    int crafts;
+                    if (batch) {
+                        sends = 1;
+                        crafts = times;
+                    } else {
+                        sends = times;
+                        crafts = 1;
+                    }
+
+                    while (--sends >= 0) {
+                        a.clear();
+
+                        boolean recipeCraftSuccess = recipe.sendCraftedBatch(a, crafts);
+                        if (recipeCraftSuccess) {
+                            a.sendEffects(a.player(), Messages.getInstance().get("flag.prefix.recipe"));
+                        }
+
+                        a.clear();
+
+                        boolean resultPrepareSuccess = result.sendPrepare(a);
+                        if (resultPrepareSuccess) {
+                            a.sendEffects(a.player(), MessagePrefix.result(result));
+                        }
+
+                        a.clear();
+
+                        boolean resultCraftSuccess = result.sendCraftedBatch(a, crafts);
+                        if (resultCraftSuccess) {
+                            a.sendEffects(a.player(), MessagePrefix.result(result));
+                        }
+
+                        boolean subtract = false;
+                        boolean onlyExtra = true;
+                        if (recipeCraftSuccess && resultPrepareSuccess && resultCraftSuccess) {
+                            // shift+click crafts done by us instead of the server
+                            if (event.isShiftClick() && event.isCancelled()) {
+                                subtract = true;
+                                onlyExtra = false;
+                            }
+
+                            if (recipe.isMultiResult()) {
+                                subtract = true;
+                                onlyExtra = false;
+                            }
+
+                            if (recipe.hasFlag(FlagType.INGREDIENT_CONDITION) || result.hasFlag(FlagType.INGREDIENT_CONDITION)) {
+                                subtract = true;
+                            }
+
+                            if (result.hasFlag(FlagType.NO_RESULT)) {
+                                event.setCurrentItem(new ItemStack(Material.AIR));
+                                event.setCursor(new ItemStack(Material.AIR));
+                                subtract = true;
+                                onlyExtra = false;
+                            }
+                        }
+
+                        if (subtract) {
+                            for (int i = 0; i < crafts; i++) {
+                                recipe.subtractIngredients(inv, result, onlyExtra);
+                            }
+                        }
+                    }
+
+                    // TODO call post-event ?
+                    // Bukkit.getPluginManager().callEvent(new RecipeManagerCraftEventPost(recipe, result, player, event.getCursor(), event.isShiftClick(), event.isRightClick() ? 1 : 0));
+                }
+            }
+
+            new BukkitRunnable() {
+                @Override
+                public void run() {
+                    Bukkit.getPluginManager().callEvent(new PrepareItemCraftEvent(inv, player.getOpenInventory(), false));
+                }
+            }.runTaskLater(RecipeManager.getPlugin(), 0);
+
+
+            new UpdateInventory(player, 2); // update inventory 2 ticks later
+        } catch (Throwable e) {
+            event.setCancelled(true);
+            CommandSender sender;
+            if (event.getView() != null && event.getView().getPlayer() instanceof Player) {
+                sender = event.getView().getPlayer();
+            } else {
+                sender = null;
+            }
+
+            MessageSender.getInstance().error(sender, e, event.getEventName() + " cancelled due to error:");
+        }
+    }
+
+    private int craftResult(CraftItemEvent event, CraftingInventory inv, Player player, WorkbenchRecipe recipe, ItemResult result, Args a) throws Throwable {
+        if (recipe.isMultiResult()) {
+            // more special treatment needed for multi-result ones...
+
+            event.setCancelled(true); // need to cancel this from the start.
+
+            // check if result is air / recipe failed
+            if (result == null || result.getType() == Material.AIR) {
+                Messages.getInstance().sendOnce(player, "craft.recipe.multi.failed");
+                SoundNotifier.sendFailSound(player, a.location());
+            } else {
+                if (event.isShiftClick()) {
+                    if (recipe.hasNoShiftBit() || result.hasNoShiftBit()) {
+                        Messages.getInstance().sendOnce(player, "craft.recipe.flag.noshiftclick");
+                        return 0;
+                    }
+
+                    Messages.getInstance().sendOnce(player, "craft.recipe.multi.noshiftclick");
+
+                    if (Tools.playerCanAddItem(player, result)) {
+                        player.getInventory().addItem(result);
+                    } else {
+                        return 0;
+                    }
+                } else {
+                    ItemStack cursor = event.getCursor();
+
+                    if (!recipe.hasFlag(FlagType.INDIVIDUAL_RESULTS) && cursor != null && cursor.getType() != Material.AIR) {
+                        Messages.getInstance().sendOnce(player, "craft.recipe.multi.chance.cursorhasitem");
+                        return 0;
+                    }
+
+                    ItemStack merged = ToolsItem.merge(cursor, result);
+
+                    if (merged == null) {
+                        Messages.getInstance().sendOnce(player, "craft.recipe.multi.cursorfull");
+                        return 0;
+                    }
+
+                    event.setCursor(merged);
+
+                }
+            }
+        } else {
+            if (result == null || result.getType() == Material.AIR) {
+                event.setCurrentItem(null);
+                return 0;
+            }
+
+            if (event.isShiftClick()) {
+                if (recipe.hasNoShiftBit() || result.hasNoShiftBit()) {
+                    Messages.getInstance().sendOnce(player, "craft.recipe.flag.noshiftclick");
+
+                    event.setCancelled(true); // cancel regardless just to be safe
+
+                    if (Tools.playerCanAddItem(player, result)) {
+                        player.getInventory().addItem(result);
+
+                        return 1;
+                    }
+
+                    return 0;
+                }
+
+                int craftAmount = recipe.getCraftableTimes(inv); // Calculate how many times the recipe can be crafted
+
+                ItemStack item = result.clone();
+                item.setAmount(result.getAmount() * craftAmount);
+
+                int space = Tools.playerFreeSpaceForItem(player, item);
+                int crafted = Math.min((int) Math.ceil(space / result.getAmount()), craftAmount);
+                int affordable = Math.min(recipe.getAffordableTimes(a, crafted), result.getAffordableTimes(a, crafted));
+
+                if (affordable < crafted) {
+                    // the server would craft them all, craft only the ones the player can pay for instead
+                    event.setCancelled(true);
+
+                    if (affordable > 0) {
+                        ItemStack affordableItem = result.clone();
+                        affordableItem.setAmount(result.getAmount() * affordable);
+                        player.getInventory().addItem(affordableItem);
+                    } else {
+                        SoundNotifier.sendDenySound(player, a.location());
+                    }
+
+                    return affordable;
+                }
+
+                if (crafted > 0) {
+                    event.setCurrentItem(result);
+                    return crafted;
+                }
+
+                return 0;
+            }
+
+            ItemStack cursor = event.getCursor();
+            ItemStack merged = ToolsItem.merge(cursor, result);
+
+            if (merged == null) {
+                return 0;
+            }
+
+            event.setCurrentItem(result);
+        }
+
+        return 1;
+    }
+
+    /*
+     * Workbench monitor events
+     */
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void inventoryClose(InventoryCloseEvent event) {
+        if (event.getView().getType() == InventoryType.WORKBENCH) {
+            Workbenches.remove(event.getPlayer());
+        }
+    }
+
+    @EventHandler
+    public void inventoryClick(InventoryClickEvent event) {
+        HumanEntity ent = event.getWhoClicked();
+
+        if (ent instanceof Player) {
+            Recipes.recipeResetResult(ent.getUniqueId());
+        }
+    }
+}
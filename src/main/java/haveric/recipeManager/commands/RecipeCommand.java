@@ -4,7 +4,7 @@ import haveric.recipeManager.RecipeManager;
 import haveric.recipeManager.Vanilla;
 import haveric.recipeManager.messages.MessageSender;
 import haveric.recipeManager.messages.Messages;
-import haveric.recipeManager.recipes.*;
+import haveric.recipeManager.recipes.BaseRecipe;
 import haveric.recipeManager.tools.Tools;
 import haveric.recipeManager.tools.ToolsItem;
 import haveric.recipeManagerCommon.recipes.RMCRecipeInfo;
@@ -17,8 +17,9 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class RecipeCommand implements CommandExecutor {
     private static Map<String, Pages> pagination = new HashMap<>();
@@ -35,13 +36,28 @@ public class RecipeCommand implements CommandExecutor {
         private String name;
         private ItemStack item;
         private int page = -1;
+        private List<BaseRecipe> recipes;
+        // pages are only rendered when they're first shown
         private String[] pages;
         private BukkitTask task;
 
-        public Pages(String newName, ItemStack newItem, List<String> newPages) {
+        public Pages(String newName, ItemStack newItem, List<BaseRecipe> newRecipes) {
             name = newName;
             item = newItem;
-            pages = newPages.toArray(new String[newPages.size()]);
+            recipes = newRecipes;
+            pages = new String[recipes.size()];
+        }
+
+        public int size() {
+            return pages.length;
+        }
+
+        private String render() {
+            if (pages[page] == null) {
+                pages[page] = recipes.get(page).printChat();
+            }
+
+            return pages[page];
         }
 
         private void doTask() {
@@ -69,7 +85,7 @@ public class RecipeCommand implements CommandExecutor {
             }
 
             doTask();
-            return pages[page];
+            return render();
         }
 
         public boolean hasPrev() {
@@ -84,7 +100,7 @@ public class RecipeCommand implements CommandExecutor {
             page--;
 
             doTask();
-            return pages[page];
+            return render();
         }
     }
 
@@ -105,7 +121,7 @@ public class RecipeCommand implements CommandExecutor {
                 } else {
                     if (next ? pages.hasNext() : pages.hasPrev()) {
                         String page = (next ? pages.next() : pages.prev());
-                        Messages.getInstance().send(sender, "cmd.recipes.header", "{item}", ToolsItem.print(pages.item), "{num}", (pages.page + 1), "{total}", pages.pages.length);
+                        Messages.getInstance().send(sender, "cmd.recipes.header", "{item}", ToolsItem.print(pages.item), "{num}", (pages.page + 1), "{total}", pages.size());
                         MessageSender.getInstance().send(sender, page);
 
                         if (pages.hasNext()) {
@@ -148,14 +164,11 @@ public class RecipeCommand implements CommandExecutor {
 
                 boolean ingredient = (args.length > 1 && args[1].charAt(0) == 'i');
 
-                List<String> list = new ArrayList<>();
-
-                for (Entry<BaseRecipe, RMCRecipeInfo> e : RecipeManager.getRecipes().getRecipeList().entrySet()) {
-                    BaseRecipe recipe = e.getKey();
-
-                    if (hasItem(recipe, item, ingredient)) {
-                        list.add(recipe.printChat());
-                    }
+                List<BaseRecipe> list;
+                if (ingredient) {
+                    list = RecipeManager.getRecipes().getRecipesByIngredient(item);
+                } else {
+                    list = RecipeManager.getRecipes().getRecipesByResult(item);
                 }
 
                 if (list.isEmpty()) {
@@ -164,7 +177,7 @@ public class RecipeCommand implements CommandExecutor {
                     Pages pages = new Pages(name, item, list);
                     pagination.put(name, pages);
 
-                    Messages.getInstance().send(sender, "cmd.recipes.header", "{item}", ToolsItem.print(pages.item), "{num}", 1, "{total}", pages.pages.length);
+                    Messages.getInstance().send(sender, "cmd.recipes.header", "{item}", ToolsItem.print(pages.item), "{num}", 1, "{total}", pages.size());
                     MessageSender.getInstance().send(sender, pages.next());
 
                     if (pages.hasNext()) {
@@ -179,7 +192,7 @@ public class RecipeCommand implements CommandExecutor {
             int rm = 0;
             int other = 0;
 
-            for (RMCRecipeInfo info : RecipeManager.getRecipes().getRecipeList().values()) {
+            for (RMCRecipeInfo info : RecipeManager.getRecipes().getIndex().values()) {
                 switch (info.getOwner()) {
                     case MINECRAFT:
                         mc++;
@@ -200,48 +213,4 @@ public class RecipeCommand implements CommandExecutor {
 
         return true;
     }
-
-    private boolean hasItem(BaseRecipe recipe, ItemStack item, boolean ingredient) {
-        if (ingredient) {
-            if (recipe instanceof CraftRecipe) {
-                CraftRecipe r = (CraftRecipe) recipe;
-
-                return containsItem(Arrays.asList(r.getIngredients()), item, true);
-            } else if (recipe instanceof CombineRecipe) {
-                CombineRecipe r = (CombineRecipe) recipe;
-
-                return containsItem(r.getIngredients(), item, true);
-            } else if (recipe instanceof SmeltRecipe) {
-                SmeltRecipe r = (SmeltRecipe) recipe;
-
-                return containsItem(Collections.singletonList(r.getIngredient()), item, true);
-            } else if (recipe instanceof FuelRecipe) {
-                FuelRecipe r = (FuelRecipe) recipe;
-
-                return containsItem(Collections.singletonList(r.getIngredient()), item, true);
-            }
-        } else {
-            if (recipe instanceof WorkbenchRecipe) {
-                WorkbenchRecipe r = (WorkbenchRecipe) recipe;
-
-                return containsItem(r.getResults(), item, false);
-            } else if (recipe instanceof SingleResultRecipe) {
-                SingleResultRecipe r = (SingleResultRecipe) recipe;
-
-                return containsItem(Collections.singletonList(r.getResult()), item, false);
-            }
-        }
-
-        return false;
-    }
-
-    private boolean containsItem(Collection<? extends ItemStack> items, ItemStack item, boolean ingredient) {
-        for (ItemStack i : items) {
-            if (i != null && i.getType() == item.getType() && (item.getDurability() == Vanilla.DATA_WILDCARD || i.getDurability() == item.getDurability()) && (ingredient || item.getAmount() == 1 || item.getAmount() == i.getAmount())) {
-                return true;
-            }
-        }
-
-        return false;
-    }
 }
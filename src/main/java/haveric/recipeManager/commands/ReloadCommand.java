@@ -8,7 +8,9 @@ import org.bukkit.command.CommandSender;
 
 public class ReloadCommand implements CommandExecutor {
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-        RecipeManager.getPlugin().reload(sender, false, false);
+        boolean all = args.length > 0 && args[0].equalsIgnoreCase("all");
+
+        RecipeManager.getPlugin().reload(sender, false, false, !all);
 
         return true;
     }
@@ -25,6 +25,15 @@ public class BlockID extends AbstractBlockID {
         buildHash();
     }
 
+    public BlockID(UUID id, int newX, int newY, int newZ) {
+        wid = id;
+        x = newX;
+        y = newY;
+        z = newZ;
+
+        buildHash();
+    }
+
     public BlockID(UUID id, String coords) {
         super(id, coords);
     }
@@ -10,12 +10,13 @@ import java.util.Map;
 import java.util.UUID;
 
 @SerializableAs("RM_BrewingStandData")
-public class BrewingStandData implements ConfigurationSerializable {
+public class BrewingStandData implements ConfigurationSerializable, TrackedData {
     static {
         ConfigurationSerialization.registerClass(BrewingStandData.class, "RM_BrewingStandData");
     }
 
     private UUID fuelerUUID;
+    private boolean dirty = true;
 
     private static final String ID_FUELER_UUID = "fuelerUUID";
 
@@ -63,6 +64,20 @@ public class BrewingStandData implements ConfigurationSerializable {
     }
 
     public void setFuelerUUID(UUID newFueler) {
+        if (newFueler == null ? fuelerUUID != null : !newFueler.equals(fuelerUUID)) {
+            dirty = true;
+        }
+
         fuelerUUID = newFueler;
     }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void setDirty(boolean newDirty) {
+        dirty = newDirty;
+    }
 }
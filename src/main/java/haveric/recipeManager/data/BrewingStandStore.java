@@ -0,0 +1,41 @@
+package haveric.recipeManager.data;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Stores the fueler UUID of brewing stands.
+ */
+public class BrewingStandStore extends RegionStore<BrewingStandData> {
+    public BrewingStandStore(File dir) {
+        super(dir);
+    }
+
+    @Override
+    protected void writeData(DataOutputStream out, BrewingStandData data) throws IOException {
+        UUID fueler = data.getFuelerUUID();
+
+        out.writeBoolean(fueler != null);
+
+        if (fueler != null) {
+            out.writeLong(fueler.getMostSignificantBits());
+            out.writeLong(fueler.getLeastSignificantBits());
+        }
+    }
+
+    @Override
+    protected BrewingStandData readData(DataInputStream in) throws IOException {
+        BrewingStandData data = new BrewingStandData();
+
+        if (in.readBoolean()) {
+            data.setFuelerUUID(new UUID(in.readLong(), in.readLong()));
+        }
+
+        data.setDirty(false);
+
+        return data;
+    }
+}
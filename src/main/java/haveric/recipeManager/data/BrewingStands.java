@@ -6,21 +6,26 @@ import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.BrewingStand;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.BrewerInventory;
 
 import java.io.File;
-import java.io.IOException;
-import java.util.*;
-import java.util.Map.Entry;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public class BrewingStands {
     private static final String SAVE_EXTENSION = ".brewingdata";
+    private static final String STORE_DIR = "brewingstands";
 
-    private static Map<BlockID, BrewingStandData> brewingStands = new LinkedHashMap<>(128);
+    private static TrackedBlocks<BrewingStandData> brewingStands = new TrackedBlocks<BrewingStandData>("brewing stands") {
+        @Override
+        protected boolean isTracked(Material type) {
+            return type == Material.BREWING_STAND;
+        }
+    };
 
     protected static void init() { }
 
@@ -28,29 +33,41 @@ public class BrewingStands {
         brewingStands.clear();
     }
 
+    /**
+     * Removes the brewing stands of the chunk that are not in the given set.
+     *
+     * @param chunk
+     * @param added
+     *            brewing stands to keep
+     * @deprecated entries of blocks that are no longer brewing stands are removed when their chunk loads or unloads, see {@link #loadChunk(Chunk)}
+     */
+    @Deprecated
     public static void cleanChunk(Chunk chunk, Set<BlockID> added) {
-        Iterator<Entry<BlockID, BrewingStandData>> iter = brewingStands.entrySet().iterator();
-        int x = chunk.getX();
-        int z = chunk.getZ();
+        Validate.notNull(chunk, "chunk argument must not be null!");
 
-        while (iter.hasNext()) {
-            Entry<BlockID, BrewingStandData> entry = iter.next();
-            BlockID id = entry.getKey();
+        brewingStands.removeExcept(chunk, added);
+    }
 
-            if (Math.round(Math.floor(id.getX() / 16.0)) == x && Math.round(Math.floor(id.getZ() / 16.0)) == z && !added.contains(id)) {
-                iter.remove();
-            }
-        }
+    /**
+     * @return number of brewing stands in loaded regions
+     */
+    public static int size() {
+        return brewingStands.size();
     }
 
+    /**
+     * @return a copy of the brewing stands in loaded regions, changes to the map are not kept
+     * @deprecated brewing stands are stored by region now, use {@link #get(Location)}, {@link #add(Location)} and {@link #remove(Location)} instead
+     */
+    @Deprecated
     public static Map<BlockID, BrewingStandData> getBrewingStands() {
-        return brewingStands;
+        return brewingStands.getLoaded();
     }
 
     public static boolean exists(BlockID id) {
         Validate.notNull(id, "id argument must not be null!");
 
-        return brewingStands.containsKey(id);
+        return brewingStands.get(id.getWorldID(), id.getX(), id.getY(), id.getZ()) != null;
     }
 
     public static void set(BrewingStand brewingStand) {
@@ -60,152 +77,117 @@ public class BrewingStands {
     public static void set(BlockID id, BrewingStand brewingStand) {
         Validate.notNull(brewingStand, "brewing stand argument must not be null!");
 
-        if (id == null) {
-            id = BlockID.fromLocation(brewingStand.getLocation());
-        }
-
         BrewerInventory inventory = brewingStand.getInventory();
 
         if (inventory == null) {
             return; // invalid brewing stand, no inventory
         }
 
-        BrewingStandData data = brewingStands.get(id);
-
-        if (data == null) {
-            data = new BrewingStandData();
-            brewingStands.put(id, data);
+        if (id == null) {
+            get(brewingStand.getLocation());
+        } else {
+            get(id);
         }
     }
 
     public static void add(BlockID id) {
         Validate.notNull(id, "id argument must not be null!");
 
-        brewingStands.put(id, new BrewingStandData());
+        brewingStands.put(id.getWorldID(), id.getX(), id.getY(), id.getZ(), new BrewingStandData());
     }
 
     public static void add(Location location) {
-        add(BlockID.fromLocation(location));
+        Validate.notNull(location, "location argument must not be null!");
+
+        brewingStands.put(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), new BrewingStandData());
     }
 
     public static BrewingStandData get(BlockID id) {
         Validate.notNull(id, "id argument must not be null!");
 
-        BrewingStandData data = brewingStands.get(id);
-
-        if (data == null) {
-            data = new BrewingStandData();
-            brewingStands.put(id, data);
-        }
-
-        return data;
+        return get(id.getWorldID(), id.getX(), id.getY(), id.getZ());
     }
 
     public static BrewingStandData get(Location location) {
         Validate.notNull(location, "location argument must not be null!");
 
-        return get(BlockID.fromLocation(location));
-    }
-
-    public static void remove(BlockID id) {
-        Validate.notNull(id, "id argument must not be null!");
-
-        brewingStands.remove(id);
+        return get(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
-    public static void remove(Location location) {
+    /**
+     * Gets the brewing stand's data without adding it.
+     *
+     * @param location
+     * @return the brewing stand's data or null if it has none
+     */
+    public static BrewingStandData getExisting(Location location) {
         Validate.notNull(location, "location argument must not be null!");
 
-        remove(BlockID.fromLocation(location));
+        return brewingStands.get(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
-    public static void load() {
-        long start = System.currentTimeMillis();
+    private static BrewingStandData get(UUID worldId, int x, int y, int z) {
+        BrewingStandData data = brewingStands.get(worldId, x, y, z);
 
-        File dir = new File(RecipeManager.getPlugin().getDataFolder() + File.separator + "save" + File.separator);
-
-        if (!dir.exists()) {
-            return;
+        if (data == null) {
+            data = new BrewingStandData();
+            brewingStands.put(worldId, x, y, z, data);
         }
 
-        FileConfiguration yml;
-        UUID id;
-
-        File[] listOfFiles = dir.listFiles();
-        if (listOfFiles != null) {
-            for (File file : listOfFiles) {
-                if (!file.isFile() || !file.getName().endsWith(SAVE_EXTENSION)) {
-                    continue;
-                }
+        return data;
+    }
 
-                yml = YamlConfiguration.loadConfiguration(file);
+    public static void remove(BlockID id) {
+        Validate.notNull(id, "id argument must not be null!");
 
-                id = UUID.fromString(yml.getString("id"));
+        brewingStands.remove(id.getWorldID(), id.getX(), id.getY(), id.getZ());
+    }
 
-                for (Entry<String, Object> entry : yml.getConfigurationSection("coords").getValues(false).entrySet()) {
-                    brewingStands.put(BlockID.fromString(id, entry.getKey()), (BrewingStandData) entry.getValue());
-                }
-            }
-        }
+    public static void remove(Location location) {
+        Validate.notNull(location, "location argument must not be null!");
 
-        MessageSender.getInstance().log("Loaded " + brewingStands.size() + " brewing stands in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+        brewingStands.remove(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
-    public static void save() {
-        long start = System.currentTimeMillis();
-
-        MessageSender.getInstance().log("Saving " + brewingStands.size() + " brewing stands...");
+    public static void loadChunk(Chunk chunk) {
+        Validate.notNull(chunk, "chunk argument must not be null!");
 
-        Map<UUID, Map<String, BrewingStandData>> mapWorld = new HashMap<>();
-        Map<String, BrewingStandData> mapCoords;
-        BlockID id;
+        brewingStands.loadChunk(chunk);
+    }
 
-        for (Entry<BlockID, BrewingStandData> entry : brewingStands.entrySet()) {
-            id = entry.getKey();
-            mapCoords = mapWorld.get(id.getWorldID());
+    public static void unloadChunk(Chunk chunk) {
+        Validate.notNull(chunk, "chunk argument must not be null!");
 
-            if (mapCoords == null) {
-                mapCoords = new HashMap<>();
-                mapWorld.put(id.getWorldID(), mapCoords);
-            }
+        brewingStands.unloadChunk(chunk);
+    }
 
-            mapCoords.put(id.getCoordsString(), entry.getValue());
-        }
+    /**
+     * Opens the brewing stand store and loads the regions of the currently loaded chunks, other regions are loaded along with their chunks.<br>
+     * Brewing stands saved in the old YAML format are migrated to the store.
+     */
+    public static void load() {
+        long start = System.currentTimeMillis();
 
         File dir = new File(RecipeManager.getPlugin().getDataFolder() + File.separator + "save" + File.separator);
 
-        if (!dir.exists() && !dir.mkdirs()) {
-            MessageSender.getInstance().info("<red>Couldn't create directories: " + dir.getPath());
-            return;
-        }
-
-        for (Entry<UUID, Map<String, BrewingStandData>> w : mapWorld.entrySet()) {
-            World world = Bukkit.getWorld(w.getKey());
-
-            FileConfiguration yml = new YamlConfiguration();
-            yml.set("id", w.getKey().toString());
-
-            for (Entry<String, BrewingStandData> f : w.getValue().entrySet()) {
-                yml.set("coords." + f.getKey(), f.getValue());
-            }
+        brewingStands.setStore(new BrewingStandStore(new File(dir, STORE_DIR)));
+        brewingStands.migrateYaml(dir, SAVE_EXTENSION);
 
-            String worldString;
-            if (world == null) {
-                worldString = w.getKey().toString();
-            } else {
-                worldString = world.getName();
-            }
-
-            File file = new File(dir.getPath() + File.separator + worldString + SAVE_EXTENSION);
-
-
-            try {
-                yml.save(file);
-            } catch (IOException e) {
-                MessageSender.getInstance().error(null, e, "Failed to create '" + file.getPath() + "' file!");
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                brewingStands.loadChunk(chunk);
             }
         }
 
-        MessageSender.getInstance().log("Saved brewing standings in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+        MessageSender.getInstance().log("Loaded " + brewingStands.size() + " brewing stands in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+    }
+
+    /**
+     * Writes the regions that had brewing stands added, removed or changed since they were loaded or last saved.
+     *
+     * @return false if any region failed to save
+     */
+    public static boolean save() {
+        return brewingStands.save();
     }
 }
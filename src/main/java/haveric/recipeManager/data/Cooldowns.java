@@ -0,0 +1,339 @@
+package haveric.recipeManager.data;
+
+import haveric.recipeManager.RecipeManager;
+import haveric.recipeManager.messages.MessageSender;
+import org.apache.commons.lang.Validate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Cooldowns by cooldown name and player, used by the cooldown flag.<br>
+ * Expired cooldowns are purged in the order they expire.<br>
+ * Every change is appended to a journal file so cooldowns survive reloads and restarts, the journal is rewritten with only the active cooldowns when loaded and when it grows too much.
+ */
+public class Cooldowns {
+    private static final String JOURNAL_FILE = "cooldowns.dat";
+    private static final int FORMAT_VERSION = 1;
+    private static final int JOURNAL_COMPACT_MIN = 1024;
+
+    // global cooldowns are stored under this player
+    private static final UUID GLOBAL = new UUID(0, 0);
+
+    // expire time in seconds by cooldown name and player
+    private static Map<String, Map<UUID, Long>> cooldowns = new HashMap<>();
+    private static PriorityQueue<Expiry> expiries = new PriorityQueue<>();
+    private static int size = 0;
+
+    private static File journalFile;
+    private static DataOutputStream journal;
+    private static int journalRecords = 0;
+
+    private static class Expiry implements Comparable<Expiry> {
+        private String name;
+        private UUID playerUUID;
+        private long expires;
+
+        private Expiry(String newName, UUID newPlayerUUID, long newExpires) {
+            name = newName;
+            playerUUID = newPlayerUUID;
+            expires = newExpires;
+        }
+
+        @Override
+        public int compareTo(Expiry other) {
+            return Long.compare(expires, other.expires);
+        }
+    }
+
+    private Cooldowns() {
+    }
+
+    private static long now() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * @param name
+     *            cooldown name
+     * @param playerUUID
+     *            player or null for a global cooldown
+     * @return seconds left or 0 if there is no cooldown
+     */
+    public static int getTimeLeft(String name, UUID playerUUID) {
+        Validate.notNull(name, "name argument must not be null!");
+
+        if (playerUUID == null) {
+            playerUUID = GLOBAL;
+        }
+
+        Map<UUID, Long> players = cooldowns.get(name);
+
+        if (players == null) {
+            return 0;
+        }
+
+        Long expires = players.get(playerUUID);
+
+        if (expires == null) {
+            return 0;
+        }
+
+        return (int) Math.max(expires - now(), 0);
+    }
+
+    /**
+     * Starts or restarts a cooldown.
+     *
+     * @param name
+     *            cooldown name
+     * @param playerUUID
+     *            player or null for a global cooldown
+     * @param seconds
+     *            cooldown time
+     */
+    public static void set(String name, UUID playerUUID, int seconds) {
+        Validate.notNull(name, "name argument must not be null!");
+
+        if (playerUUID == null) {
+            playerUUID = GLOBAL;
+        }
+
+        purge();
+
+        long expires = now() + seconds;
+        put(name, playerUUID, expires);
+        append(name, playerUUID, expires);
+    }
+
+    private static void put(String name, UUID playerUUID, long expires) {
+        Map<UUID, Long> players = cooldowns.get(name);
+
+        if (players == null) {
+            players = new HashMap<>();
+            cooldowns.put(name, players);
+        }
+
+        if (players.put(playerUUID, expires) == null) {
+            size++;
+        }
+
+        expiries.add(new Expiry(name, playerUUID, expires));
+    }
+
+    /**
+     * Removes expired cooldowns.
+     */
+    public static void purge() {
+        long now = now();
+
+        while (!expiries.isEmpty() && expiries.peek().expires <= now) {
+            Expiry expiry = expiries.poll();
+            Map<UUID, Long> players = cooldowns.get(expiry.name);
+
+            if (players == null) {
+                continue;
+            }
+
+            Long expires = players.get(expiry.playerUUID);
+
+            // skip cooldowns that were restarted since
+            if (expires != null && expires == expiry.expires) {
+                players.remove(expiry.playerUUID);
+                size--;
+
+                if (players.isEmpty()) {
+                    cooldowns.remove(expiry.name);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of cooldowns, including expired ones that weren't purged yet
+     */
+    public static int size() {
+        return size;
+    }
+
+    public static void clean() {
+        closeJournal();
+
+        cooldowns.clear();
+        expiries.clear();
+        size = 0;
+        journalFile = null;
+        journalRecords = 0;
+    }
+
+    /**
+     * Reads the cooldowns from the journal and rewrites it with only the active ones.
+     */
+    public static void load() {
+        long start = System.currentTimeMillis();
+
+        journalFile = new File(RecipeManager.getPlugin().getDataFolder() + File.separator + "save" + File.separator + JOURNAL_FILE);
+
+        if (journalFile.isFile()) {
+            try {
+                readJournal();
+            } catch (IOException e) {
+                MessageSender.getInstance().error(null, e, "Failed to load cooldowns, only the ones read before the error are kept!");
+            }
+        }
+
+        purge();
+        writeJournal();
+
+        MessageSender.getInstance().log("Loaded " + size + " cooldowns in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+    }
+
+    /**
+     * Purges expired cooldowns and rewrites the journal if most of it is outdated.
+     *
+     * @return false if the journal failed to save
+     */
+    public static boolean save() {
+        if (journalFile == null) {
+            return true;
+        }
+
+        purge();
+
+        if (journalRecords > Math.max(size * 2, JOURNAL_COMPACT_MIN)) {
+            return writeJournal();
+        }
+
+        if (journal != null) {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                MessageSender.getInstance().error(null, e, "Failed to save cooldowns!");
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void readJournal() throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+
+        try {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown data version " + version + " in " + journalFile.getPath());
+            }
+
+            while (true) {
+                String name;
+                UUID playerUUID;
+                long expires;
+
+                try {
+                    name = in.readUTF();
+                    playerUUID = new UUID(in.readLong(), in.readLong());
+                    expires = in.readLong();
+                } catch (EOFException e) {
+                    break; // end of journal, a record cut off by a crash is skipped
+                }
+
+                put(name, playerUUID, expires);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Replaces the journal with the active cooldowns and keeps it open for appending.
+     */
+    private static boolean writeJournal() {
+        closeJournal();
+
+        try {
+            File parent = journalFile.getParentFile();
+            if (!parent.exists() && !parent.mkdirs()) {
+                throw new IOException("Couldn't create directories: " + parent.getPath());
+            }
+
+            File temp = new File(parent, journalFile.getName() + ".tmp");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            int records = 0;
+
+            try {
+                out.writeInt(FORMAT_VERSION);
+
+                for (Map.Entry<String, Map<UUID, Long>> e : cooldowns.entrySet()) {
+                    for (Map.Entry<UUID, Long> p : e.getValue().entrySet()) {
+                        writeRecord(out, e.getKey(), p.getKey(), p.getValue());
+                        records++;
+                    }
+                }
+            } finally {
+                out.close();
+            }
+
+            if (journalFile.exists() && !journalFile.delete()) {
+                throw new IOException("Couldn't replace " + journalFile.getPath());
+            }
+
+            if (!temp.renameTo(journalFile)) {
+                throw new IOException("Couldn't rename " + temp.getPath() + " to " + journalFile.getName());
+            }
+
+            journalRecords = records;
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile, true)));
+        } catch (IOException e) {
+            MessageSender.getInstance().error(null, e, "Failed to save cooldowns!");
+            return false;
+        }
+
+        return true;
+    }
+
+    private static void append(String name, UUID playerUUID, long expires) {
+        if (journal == null) {
+            return;
+        }
+
+        try {
+            writeRecord(journal, name, playerUUID, expires);
+            journal.flush();
+            journalRecords++;
+        } catch (IOException e) {
+            MessageSender.getInstance().error(null, e, "Failed to save cooldowns, new cooldowns are only kept until the server stops!");
+            closeJournal();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, String name, UUID playerUUID, long expires) throws IOException {
+        out.writeUTF(name);
+        out.writeLong(playerUUID.getMostSignificantBits());
+        out.writeLong(playerUUID.getLeastSignificantBits());
+        out.writeLong(expires);
+    }
+
+    private static void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                MessageSender.getInstance().error(null, e, "Failed to save cooldowns!");
+            }
+
+            journal = null;
+        }
+    }
+}
@@ -14,7 +14,7 @@ import java.util.UUID;
  * Stores data about a furnace
  */
 @SerializableAs("RM_FurnaceData")
-public class FurnaceData implements ConfigurationSerializable {
+public class FurnaceData implements ConfigurationSerializable, TrackedData {
     static {
         ConfigurationSerialization.registerClass(FurnaceData.class, "RM_FurnaceData");
     }
@@ -22,6 +22,7 @@ public class FurnaceData implements ConfigurationSerializable {
     private UUID fuelerUUID = null;
     private ItemStack smelting = null;
     private ItemStack fuel = null;
+    private boolean dirty = true;
 
     private static final String ID_FUELER_UUID = "fuelerUUID";
     private static final String ID_SMELTING = "smelting";
@@ -93,6 +94,10 @@ public class FurnaceData implements ConfigurationSerializable {
     }
 
     public void setFuelerUUID(UUID newFuelerUUID) {
+        if (newFuelerUUID == null ? fuelerUUID != null : !newFuelerUUID.equals(fuelerUUID)) {
+            dirty = true;
+        }
+
         fuelerUUID = newFuelerUUID;
     }
 
@@ -106,6 +111,8 @@ public class FurnaceData implements ConfigurationSerializable {
         } else {
             smelting = newSmelting.clone();
         }
+
+        dirty = true;
     }
 
     public ItemStack getFuel() {
@@ -118,5 +125,17 @@ public class FurnaceData implements ConfigurationSerializable {
         } else {
             fuel = newFuel.clone();
         }
+
+        dirty = true;
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void setDirty(boolean newDirty) {
+        dirty = newDirty;
     }
 }
@@ -0,0 +1,98 @@
+package haveric.recipeManager.data;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Stores the fueler UUID and the item type, data value and amount of the smelting and fuel slots.
+ */
+public class FurnaceStore extends RegionStore<FurnaceData> {
+    private static final int FLAG_FUELER = 1;
+    private static final int FLAG_SMELTING = 1 << 1;
+    private static final int FLAG_FUEL = 1 << 2;
+
+    public FurnaceStore(File dir) {
+        super(dir);
+    }
+
+    @Override
+    protected void writeData(DataOutputStream out, FurnaceData data) throws IOException {
+        UUID fueler = data.getFuelerUUID();
+        ItemStack smelting = data.getSmelting();
+        ItemStack fuel = data.getFuel();
+
+        int flags = 0;
+        if (fueler != null) {
+            flags |= FLAG_FUELER;
+        }
+        if (smelting != null) {
+            flags |= FLAG_SMELTING;
+        }
+        if (fuel != null) {
+            flags |= FLAG_FUEL;
+        }
+        out.writeByte(flags);
+
+        if (fueler != null) {
+            out.writeLong(fueler.getMostSignificantBits());
+            out.writeLong(fueler.getLeastSignificantBits());
+        }
+
+        if (smelting != null) {
+            writeItem(out, smelting);
+        }
+
+        if (fuel != null) {
+            writeItem(out, fuel);
+        }
+    }
+
+    @Override
+    protected FurnaceData readData(DataInputStream in) throws IOException {
+        int flags = in.readByte();
+        FurnaceData data = new FurnaceData();
+
+        if ((flags & FLAG_FUELER) != 0) {
+            data.setFuelerUUID(new UUID(in.readLong(), in.readLong()));
+        }
+
+        if ((flags & FLAG_SMELTING) != 0) {
+            data.setSmelting(readItem(in));
+        }
+
+        if ((flags & FLAG_FUEL) != 0) {
+            data.setFuel(readItem(in));
+        }
+
+        data.setDirty(false);
+
+        return data;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void writeItem(DataOutputStream out, ItemStack item) throws IOException {
+        out.writeShort(item.getTypeId());
+        out.writeShort(item.getDurability());
+        out.writeByte(item.getAmount());
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ItemStack readItem(DataInputStream in) throws IOException {
+        int typeId = in.readShort();
+        short data = in.readShort();
+        int amount = in.readByte();
+
+        Material type = Material.getMaterial(typeId);
+        if (type == null) {
+            return null;
+        }
+
+        return new ItemStack(type, amount, data);
+    }
+}
@@ -4,24 +4,27 @@ import haveric.recipeManager.RecipeManager;
 import haveric.recipeManager.messages.MessageSender;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Furnace;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.inventory.FurnaceInventory;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.UUID;
 
 public class Furnaces {
     private static final String SAVE_EXTENSION = ".furnacedata";
+    private static final String STORE_DIR = "furnaces";
 
-    private static Map<BlockID, FurnaceData> furnaces = new LinkedHashMap<>(128);
+    private static TrackedBlocks<FurnaceData> furnaces = new TrackedBlocks<FurnaceData>("furnaces") {
+        @Override
+        protected boolean isTracked(Material type) {
+            return type == Material.FURNACE || type == Material.BURNING_FURNACE;
+        }
+    };
 
     protected static void init() {
     }
@@ -30,14 +33,26 @@ public class Furnaces {
         furnaces.clear();
     }
 
+    /**
+     * @return number of furnaces in loaded regions
+     */
+    public static int size() {
+        return furnaces.size();
+    }
+
+    /**
+     * @return a copy of the furnaces in loaded regions, changes to the map are not kept
+     * @deprecated furnaces are stored by region now, use {@link #get(Location)}, {@link #add(Location)} and {@link #remove(Location)} instead
+     */
+    @Deprecated
     public static Map<BlockID, FurnaceData> getFurnaces() {
-        return furnaces;
+        return furnaces.getLoaded();
     }
 
     public static boolean exists(BlockID id) {
         Validate.notNull(id, "id argument must not be null!");
 
-        return furnaces.containsKey(id);
+        return furnaces.get(id.getWorldID(), id.getX(), id.getY(), id.getZ()) != null;
     }
 
     /**
@@ -52,21 +67,17 @@ public class Furnaces {
     public static void set(BlockID id, Furnace furnace) {
         Validate.notNull(furnace, "furnace argument must not be null!");
 
-        if (id == null) {
-            id = BlockID.fromLocation(furnace.getLocation());
-        }
-
         FurnaceInventory inv = furnace.getInventory();
 
         if (inv == null) {
             return; // invalid furnace, no inventory
         }
 
-        FurnaceData data = furnaces.get(id);
-
-        if (data == null) {
-            data = new FurnaceData();
-            furnaces.put(id, data);
+        FurnaceData data;
+        if (id == null) {
+            data = get(furnace.getLocation());
+        } else {
+            data = get(id);
         }
 
         if (data.getFuel() == null) {
@@ -86,7 +97,7 @@ public class Furnaces {
     public static void add(BlockID id) {
         Validate.notNull(id, "id argument must not be null!");
 
-        furnaces.put(id, new FurnaceData());
+        furnaces.put(id.getWorldID(), id.getX(), id.getY(), id.getZ(), new FurnaceData());
     }
 
     /**
@@ -95,126 +106,97 @@ public class Furnaces {
      * @param location
      */
     public static void add(Location location) {
-        add(BlockID.fromLocation(location));
+        Validate.notNull(location, "location argument must not be null!");
+
+        furnaces.put(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), new FurnaceData());
     }
 
     public static FurnaceData get(BlockID id) {
         Validate.notNull(id, "id argument must not be null!");
 
-        FurnaceData data = furnaces.get(id);
-
-        if (data == null) {
-            data = new FurnaceData();
-            furnaces.put(id, data);
-        }
-
-        return data;
+        return get(id.getWorldID(), id.getX(), id.getY(), id.getZ());
     }
 
     public static FurnaceData get(Location location) {
         Validate.notNull(location, "location argument must not be null!");
 
-        return get(BlockID.fromLocation(location));
+        return get(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
-    public static void remove(BlockID id) {
-        Validate.notNull(id, "id argument must not be null!");
-
-        furnaces.remove(id);
-    }
-
-    public static void remove(Location location) {
+    /**
+     * Gets the furnace's data without adding it.
+     *
+     * @param location
+     * @return the furnace's data or null if it has none
+     */
+    public static FurnaceData getExisting(Location location) {
         Validate.notNull(location, "location argument must not be null!");
 
-        remove(BlockID.fromLocation(location));
+        return furnaces.get(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
-    public static void load() {
-        long start = System.currentTimeMillis();
-
-        File dir = new File(RecipeManager.getPlugin().getDataFolder() + File.separator + "save" + File.separator);
+    private static FurnaceData get(UUID worldId, int x, int y, int z) {
+        FurnaceData data = furnaces.get(worldId, x, y, z);
 
-        if (!dir.exists()) {
-            return;
+        if (data == null) {
+            data = new FurnaceData();
+            furnaces.put(worldId, x, y, z, data);
         }
 
-        FileConfiguration yml;
-        UUID id;
-
-        File[] listOfFiles = dir.listFiles();
-        if (listOfFiles != null) {
-            for (File file : listOfFiles) {
-                if (!file.isFile() || !file.getName().endsWith(SAVE_EXTENSION)) {
-                    continue;
-                }
+        return data;
+    }
 
-                yml = YamlConfiguration.loadConfiguration(file);
+    public static void remove(BlockID id) {
+        Validate.notNull(id, "id argument must not be null!");
 
-                id = UUID.fromString(yml.getString("id"));
+        furnaces.remove(id.getWorldID(), id.getX(), id.getY(), id.getZ());
+    }
 
-                for (Entry<String, Object> e : yml.getConfigurationSection("coords").getValues(false).entrySet()) {
-                    furnaces.put(BlockID.fromString(id, e.getKey()), (FurnaceData) e.getValue());
-                }
-            }
-        }
+    public static void remove(Location location) {
+        Validate.notNull(location, "location argument must not be null!");
 
-        MessageSender.getInstance().log("Loaded " + furnaces.size() + " furnaces in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+        furnaces.remove(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
-    public static void save() {
-        long start = System.currentTimeMillis();
-
-        MessageSender.getInstance().log("Saving " + furnaces.size() + " furnaces...");
+    public static void loadChunk(Chunk chunk) {
+        Validate.notNull(chunk, "chunk argument must not be null!");
 
-        Map<UUID, Map<String, FurnaceData>> mapWorld = new HashMap<>();
-        Map<String, FurnaceData> mapCoords;
-        BlockID id;
+        furnaces.loadChunk(chunk);
+    }
 
-        for (Entry<BlockID, FurnaceData> e : furnaces.entrySet()) {
-            id = e.getKey();
-            mapCoords = mapWorld.get(id.getWorldID());
+    public static void unloadChunk(Chunk chunk) {
+        Validate.notNull(chunk, "chunk argument must not be null!");
 
-            if (mapCoords == null) {
-                mapCoords = new HashMap<>();
-                mapWorld.put(id.getWorldID(), mapCoords);
-            }
+        furnaces.unloadChunk(chunk);
+    }
 
-            mapCoords.put(id.getCoordsString(), e.getValue());
-        }
+    /**
+     * Opens the furnace store and loads the regions of the currently loaded chunks, other regions are loaded along with their chunks.<br>
+     * Furnaces saved in the old YAML format are migrated to the store.
+     */
+    public static void load() {
+        long start = System.currentTimeMillis();
 
         File dir = new File(RecipeManager.getPlugin().getDataFolder() + File.separator + "save" + File.separator);
 
-        if (!dir.exists() && !dir.mkdirs()) {
-            MessageSender.getInstance().info("<red>Couldn't create directories: " + dir.getPath());
-            return;
-        }
-
-        for (Entry<UUID, Map<String, FurnaceData>> w : mapWorld.entrySet()) {
-            World world = Bukkit.getWorld(w.getKey());
-
-            FileConfiguration yml = new YamlConfiguration();
-            yml.set("id", w.getKey().toString());
-
-            for (Entry<String, FurnaceData> f : w.getValue().entrySet()) {
-                yml.set("coords." + f.getKey(), f.getValue());
-            }
-
-            String worldString;
-            if (world == null) {
-                worldString = w.getKey().toString();
-            } else {
-                worldString = world.getName();
-            }
-
-            File file = new File(dir.getPath() + File.separator + worldString + SAVE_EXTENSION);
+        furnaces.setStore(new FurnaceStore(new File(dir, STORE_DIR)));
+        furnaces.migrateYaml(dir, SAVE_EXTENSION);
 
-            try {
-                yml.save(file);
-            } catch (Throwable e) {
-                MessageSender.getInstance().error(null, e, "Failed to create '" + file.getPath() + "' file!");
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                furnaces.loadChunk(chunk);
             }
         }
 
-        MessageSender.getInstance().log("Saved furnaces in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+        MessageSender.getInstance().log("Loaded " + furnaces.size() + " furnaces in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+    }
+
+    /**
+     * Writes the regions that had furnaces added, removed or changed since they were loaded or last saved.
+     *
+     * @return false if any region failed to save
+     */
+    public static boolean save() {
+        return furnaces.save();
     }
 }
@@ -1,5 +1,6 @@
 package haveric.recipeManager.data;
 
+import haveric.recipeManager.RecipeBooks;
 import haveric.recipeManager.RecipeManager;
 import haveric.recipeManager.messages.Messages;
 import haveric.recipeManager.recipes.BaseRecipe;
@@ -12,10 +13,13 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BookMeta;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class RecipeBook extends AbstractRecipeBook {
+    private final Map<Integer, BookMeta> cachedMeta = new HashMap<>();
 
     public RecipeBook(String newId) {
         super(newId);
@@ -64,12 +68,46 @@ public class RecipeBook extends AbstractRecipeBook {
         return item;
     }
 
+    /**
+     * Removes all volumes so they can be filled again.
+     */
+    public void clearVolumes() {
+        volumes.clear();
+        clearCache();
+    }
+
+    /**
+     * Forgets the rendered volumes, they'll be rebuilt when requested.
+     */
+    public void clearCache() {
+        cachedMeta.clear();
+    }
+
+    /**
+     * @param volume
+     *            volume to get
+     * @return a copy of the volume's rendered meta
+     * @throws IllegalAccessError
+     *             if book is not valid yet.
+     */
     public BookMeta getBookMeta(int volume) {
         if (!isValid()) {
             throw new IllegalAccessError("Book is not yet valid!");
         }
 
         volume = Math.min(Math.max(volume, 1), getVolumesNum());
+
+        BookMeta meta = cachedMeta.get(volume);
+
+        if (meta == null) {
+            meta = buildBookMeta(volume);
+            cachedMeta.put(volume, meta);
+        }
+
+        return meta.clone();
+    }
+
+    private BookMeta buildBookMeta(int volume) {
         int volumeID = volume - 1;
         BookMeta meta = (BookMeta) Bukkit.getItemFactory().getItemMeta(Material.WRITTEN_BOOK);
 
@@ -78,7 +116,7 @@ public class RecipeBook extends AbstractRecipeBook {
             bookVolume = " - " + Messages.getInstance().parse("recipebook.volume", "{volume}", volume);
         }
         meta.setTitle(getTitle() + bookVolume);
-        meta.setAuthor(getAuthor() + RMCUtil.hideString(" " + getId() + " " + volume + " " + (System.currentTimeMillis() / 1000)));
+        meta.setAuthor(getAuthor() + RMCUtil.hideString(" " + getId() + " " + volume + " " + RecipeBooks.getInstance().getGeneration()));
 
         // Cover page
         if (cover) {
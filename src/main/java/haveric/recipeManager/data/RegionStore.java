@@ -0,0 +1,267 @@
+package haveric.recipeManager.data;
+
+import haveric.recipeManager.tools.LongHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+
+/**
+ * Binary block data storage, one file per world and region of 32x32 chunks.<br>
+ * Data is grouped by chunk key and block key, see {@link #chunkKey(int, int)} and {@link #blockKey(int, int, int)}.
+ *
+ * @param <V> stored data type
+ */
+public abstract class RegionStore<V> {
+    private static final int FORMAT_VERSION = 1;
+    private static final String REGION_EXTENSION = ".dat";
+
+    /**
+     * Region size in blocks as a shift, 512 blocks = 32 chunks.
+     */
+    public static final int REGION_SHIFT = 9;
+    private static final int REGION_CHUNK_SHIFT = REGION_SHIFT - 4;
+
+    private final File dir;
+
+    protected RegionStore(File newDir) {
+        dir = newDir;
+    }
+
+    private static long packXZ(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return packXZ(chunkX, chunkZ);
+    }
+
+    public static int chunkX(long chunkKey) {
+        return (int) (chunkKey >> 32);
+    }
+
+    public static int chunkZ(long chunkKey) {
+        return (int) chunkKey;
+    }
+
+    public static long regionKeyOfChunk(int chunkX, int chunkZ) {
+        return packXZ(chunkX >> REGION_CHUNK_SHIFT, chunkZ >> REGION_CHUNK_SHIFT);
+    }
+
+    public static long regionKeyOfBlock(int blockX, int blockZ) {
+        return packXZ(blockX >> REGION_SHIFT, blockZ >> REGION_SHIFT);
+    }
+
+    /**
+     * @return key of the block's position inside its chunk
+     */
+    public static long blockKey(int blockX, int blockY, int blockZ) {
+        return ((blockY & 0xFF) << 8) | ((blockX & 0xF) << 4) | (blockZ & 0xF);
+    }
+
+    public static int blockX(long blockKey) {
+        return (int) (blockKey >> 4) & 0xF;
+    }
+
+    public static int blockY(long blockKey) {
+        return (int) (blockKey >> 8) & 0xFF;
+    }
+
+    public static int blockZ(long blockKey) {
+        return (int) blockKey & 0xF;
+    }
+
+    private File getFile(UUID worldId, long region) {
+        return new File(dir, worldId.toString() + File.separator + "r." + chunkX(region) + "." + chunkZ(region) + REGION_EXTENSION);
+    }
+
+    protected abstract void writeData(DataOutputStream out, V data) throws IOException;
+
+    protected abstract V readData(DataInputStream in) throws IOException;
+
+    /**
+     * Reads the data stored for the region.
+     *
+     * @param worldId
+     * @param region
+     *            key from {@link #regionKeyOfChunk(int, int)}
+     * @return stored data by chunk key and block key, empty if the region has no file
+     * @throws IOException
+     */
+    public LongHashMap<LongHashMap<V>> read(UUID worldId, long region) throws IOException {
+        LongHashMap<LongHashMap<V>> chunks = new LongHashMap<>();
+        File file = getFile(worldId, region);
+
+        if (!file.isFile()) {
+            return chunks;
+        }
+
+        int baseX = chunkX(region) << REGION_SHIFT;
+        int baseZ = chunkZ(region) << REGION_SHIFT;
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+
+        try {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown data version " + version + " in " + file.getPath());
+            }
+
+            int size = in.readInt();
+
+            for (int i = 0; i < size; i++) {
+                int packed = in.readInt();
+                int x = baseX + ((packed >>> 17) & 0x1FF);
+                int z = baseZ + ((packed >>> 8) & 0x1FF);
+                int y = packed & 0xFF;
+
+                V data = readData(in);
+
+                long chunkKey = chunkKey(x >> 4, z >> 4);
+                LongHashMap<V> chunk = chunks.get(chunkKey);
+
+                if (chunk == null) {
+                    chunk = new LongHashMap<>();
+                    chunks.put(chunkKey, chunk);
+                }
+
+                chunk.put(blockKey(x, y, z), data);
+            }
+        } finally {
+            in.close();
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Moves an unreadable region file aside so it isn't replaced by the next save.
+     *
+     * @param worldId
+     * @param region
+     *            key from {@link #regionKeyOfChunk(int, int)}
+     * @return the moved file or null if it couldn't be moved
+     */
+    public File backup(UUID worldId, long region) {
+        File file = getFile(worldId, region);
+        File backup = new File(file.getParentFile(), file.getName() + "." + System.currentTimeMillis() + ".corrupt");
+
+        if (file.renameTo(backup)) {
+            return backup;
+        }
+
+        return null;
+    }
+
+    /**
+     * Replaces the region's file with the given data, the file is removed if there is none.
+     *
+     * @param worldId
+     * @param region
+     *            key from {@link #regionKeyOfChunk(int, int)}
+     * @param chunks
+     *            data by chunk key and block key, all chunks must be inside the region
+     * @throws IOException
+     */
+    public void write(UUID worldId, long region, LongHashMap<LongHashMap<V>> chunks) throws IOException {
+        write(worldId, region, encode(chunks));
+    }
+
+    /**
+     * Serializes region data in memory so it can be written later, see {@link #write(UUID, long, byte[])}.
+     *
+     * @param chunks
+     *            data by chunk key and block key, all chunks must be inside the same region
+     * @return the region's file contents or null if there is no data
+     * @throws IOException
+     */
+    public byte[] encode(LongHashMap<LongHashMap<V>> chunks) throws IOException {
+        int size = 0;
+        for (LongHashMap<V> chunk : chunks.values()) {
+            size += chunk.size();
+        }
+
+        if (size == 0) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        try {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(size);
+
+            for (long chunkKey : chunks.keys()) {
+                LongHashMap<V> chunk = chunks.get(chunkKey);
+                int chunkX = chunkX(chunkKey) & 0x1F;
+                int chunkZ = chunkZ(chunkKey) & 0x1F;
+
+                for (long blockKey : chunk.keys()) {
+                    int localX = (chunkX << 4) | blockX(blockKey);
+                    int localZ = (chunkZ << 4) | blockZ(blockKey);
+
+                    out.writeInt((localX << 17) | (localZ << 8) | blockY(blockKey));
+                    writeData(out, chunk.get(blockKey));
+                }
+            }
+        } finally {
+            out.close();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replaces the region's file with data from {@link #encode(LongHashMap)}, the file is removed if there is none.<br>
+     * Only touches the file, so it can be called from another thread as long as a region isn't written by two threads at once.
+     *
+     * @param worldId
+     * @param region
+     *            key from {@link #regionKeyOfChunk(int, int)}
+     * @param data
+     *            encoded data or null if there is none
+     * @throws IOException
+     */
+    public void write(UUID worldId, long region, byte[] data) throws IOException {
+        File file = getFile(worldId, region);
+
+        if (data == null) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Couldn't delete " + file.getPath());
+            }
+
+            return;
+        }
+
+        File parent = file.getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Couldn't create directories: " + parent.getPath());
+        }
+
+        File temp = new File(parent, file.getName() + ".tmp");
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(temp));
+
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Couldn't replace " + file.getPath());
+        }
+
+        if (!temp.renameTo(file)) {
+            throw new IOException("Couldn't rename " + temp.getPath() + " to " + file.getName());
+        }
+    }
+}
@@ -0,0 +1,670 @@
+package haveric.recipeManager.data;
+
+import haveric.recipeManager.messages.MessageSender;
+import haveric.recipeManager.tools.LongHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Block data indexed by world, region, chunk and block position, lookups don't allocate.<br>
+ * A region is read from the store when the first of its chunks loads and is dropped when the last one unloads, its file is written in the background.<br>
+ * Regions without loaded chunks that are only accessed through their blocks are dropped again right away.<br>
+ * Entries of blocks that are no longer of a tracked type are removed whenever their chunk loads or unloads.<br>
+ * Accessing a block in a region without loaded chunks reads the region's file on the calling thread.
+ *
+ * @param <V> data type
+ */
+public abstract class TrackedBlocks<V extends TrackedData> {
+    private final String name;
+    private RegionStore<V> store;
+    private Map<UUID, LongHashMap<Region<V>>> worlds = new HashMap<>();
+
+    // Dropped regions until their file is written, a region that loads again before that is taken from here instead of its outdated file
+    private final ConcurrentMap<RegionId, PendingWrite<V>> pendingWrites = new ConcurrentHashMap<>();
+    private ExecutorService writer;
+
+    private static class Region<V> {
+        private LongHashMap<LongHashMap<V>> chunks;
+        private Set<Long> loadedChunks = new HashSet<>();
+        // also set by the writer thread when a background write failed
+        private volatile boolean dirty = false;
+
+        private Region(LongHashMap<LongHashMap<V>> newChunks) {
+            chunks = newChunks;
+        }
+    }
+
+    private static class RegionId {
+        private final UUID worldId;
+        private final long regionKey;
+
+        private RegionId(UUID newWorldId, long newRegionKey) {
+            worldId = newWorldId;
+            regionKey = newRegionKey;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof RegionId)) {
+                return false;
+            }
+
+            RegionId other = (RegionId) obj;
+
+            return regionKey == other.regionKey && worldId.equals(other.worldId);
+        }
+
+        @Override
+        public int hashCode() {
+            return worldId.hashCode() * 31 + (int) (regionKey ^ (regionKey >>> 32));
+        }
+    }
+
+    private static class PendingWrite<V> {
+        private final Region<V> region;
+
+        private PendingWrite(Region<V> newRegion) {
+            region = newRegion;
+        }
+    }
+
+    /**
+     * @param newName
+     *            plural name of the tracked blocks for messages
+     */
+    public TrackedBlocks(String newName) {
+        name = newName;
+    }
+
+    /**
+     * @param type
+     * @return true if blocks of this type keep their data
+     */
+    protected abstract boolean isTracked(Material type);
+
+    /**
+     * Sets the store regions are read from and saved to, without a store data is only kept in memory.
+     *
+     * @param newStore
+     */
+    public void setStore(RegionStore<V> newStore) {
+        store = newStore;
+    }
+
+    public void clear() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+
+        flush();
+
+        worlds.clear();
+        pendingWrites.clear();
+    }
+
+    /**
+     * @return number of entries in memory
+     */
+    public int size() {
+        int size = 0;
+
+        for (LongHashMap<Region<V>> regions : worlds.values()) {
+            for (Region<V> region : regions.values()) {
+                for (LongHashMap<V> chunk : region.chunks.values()) {
+                    size += chunk.size();
+                }
+            }
+        }
+
+        return size;
+    }
+
+    public V get(UUID worldId, int x, int y, int z) {
+        long regionKey = RegionStore.regionKeyOfBlock(x, z);
+        Region<V> region = loadRegion(worldId, regionKey);
+        LongHashMap<V> chunk = region.chunks.get(RegionStore.chunkKey(x >> 4, z >> 4));
+        V data = null;
+
+        if (chunk != null) {
+            data = chunk.get(RegionStore.blockKey(x, y, z));
+        }
+
+        releaseUnloaded(worldId, regionKey, region);
+
+        return data;
+    }
+
+    public void put(UUID worldId, int x, int y, int z, V data) {
+        long regionKey = RegionStore.regionKeyOfBlock(x, z);
+        Region<V> region = loadRegion(worldId, regionKey);
+
+        putInRegion(region, x, y, z, data);
+
+        releaseUnloaded(worldId, regionKey, region);
+    }
+
+    private void putInRegion(Region<V> region, int x, int y, int z, V data) {
+        long chunkKey = RegionStore.chunkKey(x >> 4, z >> 4);
+        LongHashMap<V> chunk = region.chunks.get(chunkKey);
+
+        if (chunk == null) {
+            chunk = new LongHashMap<>();
+            region.chunks.put(chunkKey, chunk);
+        }
+
+        chunk.put(RegionStore.blockKey(x, y, z), data);
+        region.dirty = true;
+    }
+
+    public V remove(UUID worldId, int x, int y, int z) {
+        long regionKey = RegionStore.regionKeyOfBlock(x, z);
+        Region<V> region = loadRegion(worldId, regionKey);
+        long chunkKey = RegionStore.chunkKey(x >> 4, z >> 4);
+        LongHashMap<V> chunk = region.chunks.get(chunkKey);
+        V removed = null;
+
+        if (chunk != null) {
+            removed = chunk.remove(RegionStore.blockKey(x, y, z));
+
+            if (removed != null) {
+                region.dirty = true;
+
+                if (chunk.isEmpty()) {
+                    region.chunks.remove(chunkKey);
+                }
+            }
+        }
+
+        releaseUnloaded(worldId, regionKey, region);
+
+        return removed;
+    }
+
+    /**
+     * Copies all entries of the regions in memory.
+     *
+     * @return entries by block
+     */
+    public Map<BlockID, V> getLoaded() {
+        Map<BlockID, V> loaded = new LinkedHashMap<>();
+
+        for (Entry<UUID, LongHashMap<Region<V>>> w : worlds.entrySet()) {
+            for (Region<V> region : w.getValue().values()) {
+                for (long chunkKey : region.chunks.keys()) {
+                    LongHashMap<V> chunk = region.chunks.get(chunkKey);
+                    int baseX = RegionStore.chunkX(chunkKey) << 4;
+                    int baseZ = RegionStore.chunkZ(chunkKey) << 4;
+
+                    for (long blockKey : chunk.keys()) {
+                        BlockID id = new BlockID(w.getKey(), baseX + RegionStore.blockX(blockKey), RegionStore.blockY(blockKey), baseZ + RegionStore.blockZ(blockKey));
+
+                        loaded.put(id, chunk.get(blockKey));
+                    }
+                }
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Removes the entries of the chunk except the given blocks.
+     *
+     * @param chunk
+     * @param keep
+     *            blocks to keep the entries of
+     */
+    public void removeExcept(Chunk chunk, Set<BlockID> keep) {
+        UUID worldId = chunk.getWorld().getUID();
+        long regionKey = RegionStore.regionKeyOfChunk(chunk.getX(), chunk.getZ());
+        Region<V> region = loadRegion(worldId, regionKey);
+        long chunkKey = RegionStore.chunkKey(chunk.getX(), chunk.getZ());
+        LongHashMap<V> entries = region.chunks.get(chunkKey);
+
+        if (entries != null) {
+            int baseX = chunk.getX() << 4;
+            int baseZ = chunk.getZ() << 4;
+
+            for (long blockKey : entries.keys()) {
+                BlockID id = new BlockID(worldId, baseX + RegionStore.blockX(blockKey), RegionStore.blockY(blockKey), baseZ + RegionStore.blockZ(blockKey));
+
+                if (!keep.contains(id)) {
+                    entries.remove(blockKey);
+                    region.dirty = true;
+                }
+            }
+
+            if (entries.isEmpty()) {
+                region.chunks.remove(chunkKey);
+            }
+        }
+
+        releaseUnloaded(worldId, regionKey, region);
+    }
+
+    public void loadChunk(Chunk chunk) {
+        UUID worldId = chunk.getWorld().getUID();
+        Region<V> region = loadRegion(worldId, RegionStore.regionKeyOfChunk(chunk.getX(), chunk.getZ()));
+        long chunkKey = RegionStore.chunkKey(chunk.getX(), chunk.getZ());
+
+        region.loadedChunks.add(chunkKey);
+        removeUntracked(region, chunkKey, chunk);
+    }
+
+    public void unloadChunk(Chunk chunk) {
+        UUID worldId = chunk.getWorld().getUID();
+        long regionKey = RegionStore.regionKeyOfChunk(chunk.getX(), chunk.getZ());
+        Region<V> region = getRegion(worldId, regionKey);
+
+        if (region == null) {
+            return;
+        }
+
+        long chunkKey = RegionStore.chunkKey(chunk.getX(), chunk.getZ());
+
+        removeUntracked(region, chunkKey, chunk);
+        region.loadedChunks.remove(chunkKey);
+
+        releaseUnloaded(worldId, regionKey, region);
+    }
+
+    /**
+     * Drops the region if none of its chunks are loaded, it's written in the background if anything in it changed.
+     */
+    private void releaseUnloaded(UUID worldId, long regionKey, Region<V> region) {
+        if (!region.loadedChunks.isEmpty()) {
+            return;
+        }
+
+        if (store != null && isDirty(region) && !writeLater(worldId, regionKey, region, null)) {
+            return; // kept in memory, saved again with the next save
+        }
+
+        dropRegion(worldId, regionKey);
+    }
+
+    /**
+     * Queues the region to be written by the writer thread, all writes go through it so a file is never written twice at once.
+     *
+     * @param failed
+     *            set if the write fails, can be null
+     * @return false if the region couldn't be encoded
+     */
+    private boolean writeLater(final UUID worldId, final long regionKey, Region<V> region, final AtomicBoolean failed) {
+        final byte[] data;
+
+        try {
+            data = store.encode(region.chunks);
+        } catch (IOException e) {
+            MessageSender.getInstance().error(null, e, "Failed to save " + name + " in world " + worldId + "!");
+            return false;
+        }
+
+        clearDirty(region);
+
+        final RegionId id = new RegionId(worldId, regionKey);
+        final PendingWrite<V> pending = new PendingWrite<>(region);
+
+        pendingWrites.put(id, pending);
+
+        if (writer != null && writer.isShutdown()) {
+            // the writer of a previous clear() is still writing, written by the next save once it's done
+            region.dirty = true;
+
+            if (failed != null) {
+                failed.set(true);
+            }
+
+            return true;
+        }
+
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor();
+        }
+
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    store.write(worldId, regionKey, data);
+                    pendingWrites.remove(id, pending);
+                } catch (IOException e) {
+                    pending.region.dirty = true; // kept pending, written again by the next save or when the region is unloaded again
+                    MessageSender.getInstance().error(null, e, "Failed to save " + name + " in world " + worldId + "!");
+
+                    if (failed != null) {
+                        failed.set(true);
+                    }
+                }
+            }
+        });
+
+        return true;
+    }
+
+    /**
+     * Waits for the queued background writes to finish.<br>
+     * The writer is kept if it takes too long, later writes are queued after the ones it's still doing.
+     *
+     * @return false if the writes didn't finish in time
+     */
+    private boolean flush() {
+        if (writer == null) {
+            return true;
+        }
+
+        boolean done = false;
+
+        try {
+            if (writer.isShutdown()) {
+                done = writer.awaitTermination(1, TimeUnit.MINUTES);
+            } else {
+                writer.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        // everything queued before this is written
+                    }
+                }).get(1, TimeUnit.MINUTES);
+
+                done = true;
+            }
+        } catch (TimeoutException e) {
+            done = false;
+        } catch (ExecutionException e) {
+            done = true; // can't fail
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.isTerminated()) {
+            writer = null;
+        }
+
+        if (!done) {
+            MessageSender.getInstance().info("<red>Timed out waiting for " + name + " to be saved, the regions still being written are saved once they're done!");
+        }
+
+        return done;
+    }
+
+    private void removeUntracked(Region<V> region, long chunkKey, Chunk chunk) {
+        LongHashMap<V> entries = region.chunks.get(chunkKey);
+
+        if (entries == null) {
+            return;
+        }
+
+        for (long blockKey : entries.keys()) {
+            Material type = chunk.getBlock(RegionStore.blockX(blockKey), RegionStore.blockY(blockKey), RegionStore.blockZ(blockKey)).getType();
+
+            if (!isTracked(type)) {
+                entries.remove(blockKey);
+                region.dirty = true;
+            }
+        }
+
+        if (entries.isEmpty()) {
+            region.chunks.remove(chunkKey);
+        }
+    }
+
+    private Region<V> getRegion(UUID worldId, long regionKey) {
+        LongHashMap<Region<V>> regions = worlds.get(worldId);
+
+        if (regions == null) {
+            return null;
+        }
+
+        return regions.get(regionKey);
+    }
+
+    private Region<V> loadRegion(UUID worldId, long regionKey) {
+        LongHashMap<Region<V>> regions = worlds.get(worldId);
+
+        if (regions == null) {
+            regions = new LongHashMap<>();
+            worlds.put(worldId, regions);
+        }
+
+        Region<V> region = regions.get(regionKey);
+
+        if (region == null) {
+            PendingWrite<V> pending = pendingWrites.remove(new RegionId(worldId, regionKey));
+
+            if (pending == null) {
+                region = new Region<>(readRegion(worldId, regionKey));
+            } else {
+                region = pending.region;
+            }
+
+            regions.put(regionKey, region);
+        }
+
+        return region;
+    }
+
+    private LongHashMap<LongHashMap<V>> readRegion(UUID worldId, long regionKey) {
+        LongHashMap<LongHashMap<V>> chunks = null;
+
+        if (store != null) {
+            try {
+                chunks = store.read(worldId, regionKey);
+            } catch (IOException e) {
+                String regionName = "region " + RegionStore.chunkX(regionKey) + ", " + RegionStore.chunkZ(regionKey) + " in world " + worldId;
+                File backup = store.backup(worldId, regionKey);
+
+                if (backup == null) {
+                    MessageSender.getInstance().error(null, e, "Failed to load " + name + " of " + regionName + " and couldn't move its file aside, it will be replaced on the next save!");
+                } else {
+                    MessageSender.getInstance().error(null, e, "Failed to load " + name + " of " + regionName + ", the file was moved to " + backup.getPath());
+                }
+            }
+        }
+
+        if (chunks == null) {
+            chunks = new LongHashMap<>();
+        }
+
+        return chunks;
+    }
+
+    private void dropRegion(UUID worldId, long regionKey) {
+        LongHashMap<Region<V>> regions = worlds.get(worldId);
+
+        regions.remove(regionKey);
+
+        if (regions.isEmpty()) {
+            worlds.remove(worldId);
+        }
+    }
+
+    private boolean isDirty(Region<V> region) {
+        if (region.dirty) {
+            return true;
+        }
+
+        for (LongHashMap<V> chunk : region.chunks.values()) {
+            for (V data : chunk.values()) {
+                if (data.isDirty()) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void clearDirty(Region<V> region) {
+        for (LongHashMap<V> chunk : region.chunks.values()) {
+            for (V data : chunk.values()) {
+                data.setDirty(false);
+            }
+        }
+
+        region.dirty = false;
+    }
+
+    /**
+     * Writes the regions that had entries added, removed or changed since they were loaded or last saved.<br>
+     * Regions without loaded chunks are dropped from memory afterwards.
+     *
+     * @return false if any region failed to save
+     */
+    public boolean save() {
+        long start = System.currentTimeMillis();
+        int saved = 0;
+        boolean success = true;
+        AtomicBoolean failed = new AtomicBoolean(false);
+
+        // finish background writes, those that failed are saved again below
+        if (flush()) {
+            for (RegionId id : new ArrayList<>(pendingWrites.keySet())) {
+                loadRegion(id.worldId, id.regionKey);
+            }
+        }
+
+        Iterator<Entry<UUID, LongHashMap<Region<V>>>> iter = worlds.entrySet().iterator();
+
+        while (iter.hasNext()) {
+            Entry<UUID, LongHashMap<Region<V>>> w = iter.next();
+            LongHashMap<Region<V>> regions = w.getValue();
+
+            for (long regionKey : regions.keys()) {
+                Region<V> region = regions.get(regionKey);
+
+                if (store != null && isDirty(region)) {
+                    if (!writeLater(w.getKey(), regionKey, region, failed)) {
+                        success = false;
+                        continue;
+                    }
+
+                    saved++;
+                }
+
+                if (region.loadedChunks.isEmpty()) {
+                    regions.remove(regionKey);
+                }
+            }
+
+            if (regions.isEmpty()) {
+                iter.remove();
+            }
+        }
+
+        if (!flush() || failed.get()) {
+            success = false;
+        }
+
+        if (saved > 0) {
+            MessageSender.getInstance().log("Saved " + saved + " changed regions of " + name + " in " + ((System.currentTimeMillis() - start) / 1000.0) + " seconds");
+        }
+
+        return success;
+    }
+
+    /**
+     * Reads entries from the old per world YAML files, saves them to the store and renames the files so they're only read once.
+     *
+     * @param dir
+     *            folder with the YAML files
+     * @param extension
+     *            file extension of the YAML files
+     */
+    @SuppressWarnings("unchecked")
+    public void migrateYaml(File dir, String extension) {
+        File[] listOfFiles = dir.listFiles();
+
+        if (listOfFiles == null) {
+            return;
+        }
+
+        List<File> migratedFiles = new ArrayList<>();
+        // grouped by region so each region is read and written once
+        Map<RegionId, List<BlockID>> regionBlocks = new LinkedHashMap<>();
+        Map<BlockID, V> migratedData = new HashMap<>();
+
+        for (File file : listOfFiles) {
+            if (!file.isFile() || !file.getName().endsWith(extension)) {
+                continue;
+            }
+
+            FileConfiguration yml = YamlConfiguration.loadConfiguration(file);
+            UUID worldId = UUID.fromString(yml.getString("id"));
+            ConfigurationSection coords = yml.getConfigurationSection("coords");
+
+            if (coords != null) {
+                for (Entry<String, Object> e : coords.getValues(false).entrySet()) {
+                    BlockID id = BlockID.fromString(worldId, e.getKey());
+                    RegionId regionId = new RegionId(worldId, RegionStore.regionKeyOfBlock(id.getX(), id.getZ()));
+                    List<BlockID> blocks = regionBlocks.get(regionId);
+
+                    if (blocks == null) {
+                        blocks = new ArrayList<>();
+                        regionBlocks.put(regionId, blocks);
+                    }
+
+                    blocks.add(id);
+                    migratedData.put(id, (V) e.getValue());
+                }
+            }
+
+            migratedFiles.add(file);
+        }
+
+        if (migratedFiles.isEmpty()) {
+            return;
+        }
+
+        for (Entry<RegionId, List<BlockID>> e : regionBlocks.entrySet()) {
+            Region<V> region = loadRegion(e.getKey().worldId, e.getKey().regionKey);
+
+            for (BlockID id : e.getValue()) {
+                V data = migratedData.get(id);
+
+                data.setDirty(true);
+                putInRegion(region, id.getX(), id.getY(), id.getZ(), data);
+            }
+        }
+
+        if (!save()) {
+            MessageSender.getInstance().info("<red>Couldn't migrate " + name + ", the old files were kept.");
+            return;
+        }
+
+        for (File file : migratedFiles) {
+            if (!file.renameTo(new File(file.getPath() + ".migrated"))) {
+                MessageSender.getInstance().info("<red>Couldn't rename migrated file: " + file.getPath());
+            }
+        }
+
+        MessageSender.getInstance().log("Migrated " + migratedData.size() + " " + name + " from " + migratedFiles.size() + " old files");
+    }
+}
@@ -0,0 +1,13 @@
+package haveric.recipeManager.data;
+
+/**
+ * Data kept for a block tracked by {@link TrackedBlocks}.
+ */
+public interface TrackedData {
+    /**
+     * @return true if this data changed since it was last loaded or saved
+     */
+    boolean isDirty();
+
+    void setDirty(boolean newDirty);
+}
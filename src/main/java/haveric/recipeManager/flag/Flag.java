@@ -51,18 +51,7 @@ public class Flag implements Cloneable {
             return false; // no player, no skip
         }
 
-        if (Perms.hasFlagAll(player)) {
-            return true; // has permission for all flags
-        }
-
-        FlagDescriptor desc = FlagFactory.getInstance().getFlagByName(getFlagType());
-        for (String name : desc.getNames()) {
-            if (Perms.hasFlagPrefix(player, name)) {
-                return true; // has permission for this flag
-            }
-        }
-
-        return false; // no permission for flag
+        return Perms.getInstance().hasFlagPermission(player, FlagFactory.getInstance().getFlagByName(getFlagType()));
     }
 
     /**
@@ -105,6 +94,35 @@ public class Flag implements Cloneable {
         }
     }
 
+    /**
+     * Apply the flag's effects for a recipe that was crafted multiple times at once, like with shift+click.
+     *
+     * @param a
+     *            the arguments class for easily maintainable argument class
+     * @param times
+     *            number of crafts
+     */
+    public final void craftedBatch(Args a, int times) {
+        if (hasFlagPermission(a.player())) {
+            onCraftedBatch(a, times);
+        }
+    }
+
+    /**
+     * @param a
+     *            the arguments class for easily maintainable argument class
+     * @param times
+     *            number of crafts
+     * @return how many of the crafts the player can pay for, at most times
+     */
+    public final int affordableTimes(Args a, int times) {
+        if (hasFlagPermission(a.player())) {
+            return onAffordableTimes(a, times);
+        }
+
+        return times;
+    }
+
     /**
      * Trigger flag failure as if it failed due to multi-result chance.<br>
      * Any and all arguments can be null if you don't have values for them.<br>
@@ -301,6 +319,35 @@ public class Flag implements Cloneable {
 
     public void onCrafted(Args a) { }
 
+    /**
+     * Triggered instead of {@link #onCrafted(Args)} when crafted multiple times at once.<br>
+     * Calls {@link #onCrafted(Args)} for each craft by default, clearing the arguments between crafts.<br>
+     * Only override this if applying the flag once for all crafts has the same outcome as applying it for each craft.
+     *
+     * @param a
+     * @param times
+     */
+    public void onCraftedBatch(Args a, int times) {
+        for (int i = 0; i < times; i++) {
+            if (i > 0) {
+                a.clear();
+            }
+
+            onCrafted(a);
+        }
+    }
+
+    /**
+     * Override this if the flag takes something from the player for each craft.
+     *
+     * @param a
+     * @param times
+     * @return how many of the crafts the player can pay for, at most times
+     */
+    public int onAffordableTimes(Args a, int times) {
+        return times;
+    }
+
     public void onFailed(Args a) { }
 
     public void onFuelEnd(Args a) { }
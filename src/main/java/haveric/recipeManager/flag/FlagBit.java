@@ -40,4 +40,14 @@ public class FlagBit {
      * Disables generating a skip permission for this flag
      */
     public static final byte NO_SKIP_PERMISSION = 1 << 6;
+
+    /**
+     * Flag reads blocks, world state or inventories when checked, see {@link FlagDescriptor#getCost()}.
+     */
+    public static final int COST_WORLD = 1 << 7;
+
+    /**
+     * Flag calls other plugins like economy or permission group plugins when checked, see {@link FlagDescriptor#getCost()}.
+     */
+    public static final int COST_EXTERNAL = 1 << 8;
 }
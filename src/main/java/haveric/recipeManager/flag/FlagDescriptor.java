@@ -10,6 +10,7 @@ public class FlagDescriptor {
     private List<String> names = new ArrayList<>();
     private int bits;
     private Flag flag;
+    private int id;
 
     public FlagDescriptor(String mainAlias, Flag newFlag, int newBits, String... aliases) {
         flag = newFlag;
@@ -55,6 +56,36 @@ public class FlagDescriptor {
         return (bits & bit) == bit;
     }
 
+    /**
+     * @return number of the flag type, unique and counted up from 0 in the order flags were added
+     */
+    public int getId() {
+        return id;
+    }
+
+    protected void setId(int newId) {
+        id = newId;
+    }
+
+    /**
+     * Relative cost of checking the flag from its {@link FlagBit#COST_WORLD} and {@link FlagBit#COST_EXTERNAL} bits, cheaper flags are checked first when failing fast.
+     *
+     * @return 0 for cheap flags, 1 for flags that read the world and 2 for flags that call other plugins
+     */
+    public int getCost() {
+        int cost;
+
+        if (hasBit(FlagBit.COST_EXTERNAL)) {
+            cost = 2;
+        } else if (hasBit(FlagBit.COST_WORLD)) {
+            cost = 1;
+        } else {
+            cost = 0;
+        }
+
+        return cost;
+    }
+
     public Flag getFlag() {
         return flag;
     }
@@ -36,6 +36,7 @@ public class FlagFactory {
             }
             if (!flags.containsKey(mainAlias)) {
                 FlagDescriptor desc = new FlagDescriptor(mainAlias, newFlag, bits, aliases);
+                desc.setId(flags.size());
                 flags.put(mainAlias, desc);
                 nameMap.put(mainAlias, desc);
             }
@@ -12,11 +12,11 @@ public class FlagLoader {
     public void loadDefaultFlags() {
         FlagFactory.getInstance().initializeFlag(FlagType.COMMAND, new FlagCommand(), FlagBit.NONE, "cmd", "commands");
         FlagFactory.getInstance().initializeFlag(FlagType.KEEP_ITEM, new FlagKeepItem(), FlagBit.NO_SHIFT, "returnitem", "replaceitem");
-        FlagFactory.getInstance().initializeFlag(FlagType.INGREDIENT_CONDITION, new FlagIngredientCondition(), FlagBit.NO_SHIFT, "ingrcondition", "ingrcond", "ifingredient", "ifingr");
+        FlagFactory.getInstance().initializeFlag(FlagType.INGREDIENT_CONDITION, new FlagIngredientCondition(), FlagBit.NO_SHIFT | FlagBit.COST_WORLD, "ingrcondition", "ingrcond", "ifingredient", "ifingr");
         FlagFactory.getInstance().initializeFlag(FlagType.PERMISSION, new FlagPermission(), FlagBit.NONE, "permissions", "perm");
         FlagFactory.getInstance().initializeFlag(FlagType.FOR_PERMISSION, new FlagForPermission(), FlagBit.NO_SHIFT, "forperm");
         FlagFactory.getInstance().initializeFlag(FlagType.FOR_CHANCE, new FlagForChance(), FlagBit.NO_SHIFT, "bychance", "chance");
-        FlagFactory.getInstance().initializeFlag(FlagType.GROUP, new FlagGroup(), FlagBit.NONE, "groups", "permissiongroup", "permgroup");
+        FlagFactory.getInstance().initializeFlag(FlagType.GROUP, new FlagGroup(), FlagBit.COST_EXTERNAL, "groups", "permissiongroup", "permgroup");
         FlagFactory.getInstance().initializeFlag(FlagType.WORLD, new FlagWorld(), FlagBit.NONE, "needworld", "worlds");
         FlagFactory.getInstance().initializeFlag(FlagType.HEIGHT, new FlagHeight(), FlagBit.NONE, "depth");
         FlagFactory.getInstance().initializeFlag(FlagType.MOD_EXP, new FlagModExp(), FlagBit.NO_SHIFT, "expmod", "modxp", "xpmod", "exp", "xp", "giveexp", "givexp", "takeexp", "takexp");
@@ -24,25 +24,25 @@ public class FlagLoader {
         FlagFactory.getInstance().initializeFlag(FlagType.MOD_LEVEL, new FlagModLevel(), FlagBit.NO_SHIFT, "levelmod", "setlevel", "level");
         FlagFactory.getInstance().initializeFlag(FlagType.NEED_LEVEL, new FlagNeedLevel(), FlagBit.NONE, "reqlevel", "levelreq");
         FlagFactory.getInstance().initializeFlag(FlagType.MOD_MONEY, new FlagModMoney(), FlagBit.NO_SHIFT, "moneymod", "setmoney", "money");
-        FlagFactory.getInstance().initializeFlag(FlagType.NEED_MONEY, new FlagNeedMoney(), FlagBit.NONE, "reqmoney", "moneyreq");
+        FlagFactory.getInstance().initializeFlag(FlagType.NEED_MONEY, new FlagNeedMoney(), FlagBit.COST_EXTERNAL, "reqmoney", "moneyreq");
         FlagFactory.getInstance().initializeFlag(FlagType.COOLDOWN, new FlagCooldown(), FlagBit.NO_SHIFT, "cooltime", "delay");
-        FlagFactory.getInstance().initializeFlag(FlagType.HOLD_ITEM, new FlagHoldItem(), FlagBit.NONE, "hold");
+        FlagFactory.getInstance().initializeFlag(FlagType.HOLD_ITEM, new FlagHoldItem(), FlagBit.COST_WORLD, "hold");
         FlagFactory.getInstance().initializeFlag(FlagType.GAMEMODE, new FlagGameMode(), FlagBit.NONE, "needgm");
-        FlagFactory.getInstance().initializeFlag(FlagType.LIGHT_LEVEL, new FlagLightLevel(), FlagBit.NONE, "blocklight", "sunlight", "light");
-        FlagFactory.getInstance().initializeFlag(FlagType.BIOME, new FlagBiome(), FlagBit.NONE);
+        FlagFactory.getInstance().initializeFlag(FlagType.LIGHT_LEVEL, new FlagLightLevel(), FlagBit.COST_WORLD, "blocklight", "sunlight", "light");
+        FlagFactory.getInstance().initializeFlag(FlagType.BIOME, new FlagBiome(), FlagBit.COST_WORLD);
         FlagFactory.getInstance().initializeFlag(FlagType.WEATHER, new FlagWeather(), FlagBit.NONE);
         FlagFactory.getInstance().initializeFlag(FlagType.EXPLODE, new FlagExplode(), FlagBit.NO_SHIFT | FlagBit.NO_VALUE, "explosion", "boom", "tnt");
         FlagFactory.getInstance().initializeFlag(FlagType.SOUND, new FlagSound(), FlagBit.NO_SHIFT, "playsound");
         FlagFactory.getInstance().initializeFlag(FlagType.SUMMON, new FlagSummon(), FlagBit.NO_SHIFT, "spawn", "creature", "mob", "animal");
-        FlagFactory.getInstance().initializeFlag(FlagType.BLOCK_POWERED, new FlagBlockPowered(), FlagBit.NO_VALUE, "poweredblock", "blockpower", "redstonepowered");
+        FlagFactory.getInstance().initializeFlag(FlagType.BLOCK_POWERED, new FlagBlockPowered(), FlagBit.NO_VALUE | FlagBit.COST_WORLD, "poweredblock", "blockpower", "redstonepowered");
         FlagFactory.getInstance().initializeFlag(FlagType.POTION_EFFECT, new FlagPotionEffect(), FlagBit.NONE, "potionfx");
         FlagFactory.getInstance().initializeFlag(FlagType.LAUNCH_FIREWORK, new FlagLaunchFirework(), FlagBit.NO_SHIFT, "setfirework");
         FlagFactory.getInstance().initializeFlag(FlagType.SET_BLOCK, new FlagSetBlock(), FlagBit.NO_SHIFT, "changeblock");
         FlagFactory.getInstance().initializeFlag(FlagType.MESSAGE, new FlagMessage(), FlagBit.NONE, "craftmsg", "msg");
         FlagFactory.getInstance().initializeFlag(FlagType.BROADCAST, new FlagBroadcast(), FlagBit.NONE, "announce", "msgall");
         FlagFactory.getInstance().initializeFlag(FlagType.SECRET, new FlagSecret(), FlagBit.NO_VALUE | FlagBit.NO_FOR);
-        FlagFactory.getInstance().initializeFlag(FlagType.TEMPERATURE, new FlagTemperature(), FlagBit.NONE, "temp");
-        FlagFactory.getInstance().initializeFlag(FlagType.INVENTORY, new FlagInventory(), FlagBit.NONE);
+        FlagFactory.getInstance().initializeFlag(FlagType.TEMPERATURE, new FlagTemperature(), FlagBit.COST_WORLD, "temp");
+        FlagFactory.getInstance().initializeFlag(FlagType.INVENTORY, new FlagInventory(), FlagBit.COST_WORLD);
         // TELEPORT(FlagTeleport(), FlagBit.NO_SHIFT, "tpto", "goto"), // TODO finish flag
         // REALTIME(FlagRealTime(), FlagBit.NONE, "time", "date"),
         // ONLINETIME(FlagOnlineTime(), FlagBit.NONE, "playtime", "onlinefor"),
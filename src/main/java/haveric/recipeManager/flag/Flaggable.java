@@ -54,6 +54,16 @@ public interface Flaggable {
      */
     boolean checkFlags(Args a);
 
+    /**
+     * Check with flags if recipe/result can be crafted/used, stopping at the first failure.<br>
+     * Failure reasons are incomplete, use {@link #checkFlags(Args)} if they're shown.
+     *
+     * @param a
+     *            use {@link Args#create()}
+     * @return if recipe can be crafted
+     */
+    boolean checkFlagsFast(Args a);
+
     /**
      * Apply flags when recipe/result is crafted/taken
      *
@@ -63,6 +73,31 @@ public interface Flaggable {
      */
     boolean sendCrafted(Args a);
 
+    /**
+     * Apply flags when recipe/result is crafted/taken multiple times at once
+     *
+     * @param a
+     *            use {@link Args#create()}
+     * @param times
+     *            number of crafts
+     * @return
+     */
+    boolean sendCraftedBatch(Args a, int times);
+
+    /**
+     * @return true if the flags can be applied once for multiple crafts, see {@link #sendCraftedBatch(Args, int)}
+     */
+    boolean canCraftBatch();
+
+    /**
+     * @param a
+     *            use {@link Args#create()}
+     * @param times
+     *            number of crafts
+     * @return how many of the crafts the player can pay for, at most times
+     */
+    int getAffordableTimes(Args a, int times);
+
     /**
      * Apply flags when recipe/result is prepared/displayed
      *
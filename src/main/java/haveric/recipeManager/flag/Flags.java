@@ -2,17 +2,48 @@ package haveric.recipeManager.flag;
 
 import haveric.recipeManager.ErrorReporter;
 import haveric.recipeManager.Files;
+import haveric.recipeManager.Settings;
 import haveric.recipeManager.flag.args.Args;
 import org.apache.commons.lang.Validate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 public class Flags implements Cloneable {
+    // Flag hooks, see getHookFlags()
+    private static final int HOOK_CHECK = 0;
+    private static final int HOOK_PREPARE = 1;
+    private static final int HOOK_CRAFTED = 2;
+    private static final int HOOK_CRAFTED_BATCH = 3;
+    private static final int HOOK_FAILED = 4;
+    private static final int HOOK_FUEL_RANDOM = 5;
+    private static final int HOOK_FUEL_END = 6;
+    private static final int HOOKS = 7;
+
+    // Hooks overridden by each flag class as bits
+    private static final Map<Class<? extends Flag>, Integer> hookBits = new HashMap<>();
+
+    private static final List<String> NO_LINES = Collections.emptyList();
+
     private Map<String, Flag> flags = new LinkedHashMap<>();
     protected Flaggable flaggable;
 
+    // Flags that override each hook, rebuilt on the next dispatch after flags are added or removed
+    private Flag[][] hookFlags;
+    // Flags that override the check hook, cheapest first
+    private Flag[] checkFlagsByCost;
+    // Flag map and objects are shared with a copy, see share()
+    private boolean shared = false;
+    // Expressions given to parseFlag() in order, null once flags are added or removed otherwise
+    private List<String> sourceLines = NO_LINES;
+
     @Override
     public String toString() {
         StringBuilder s = new StringBuilder(flags.size() * 24);
@@ -59,6 +90,22 @@ public class Flags implements Cloneable {
         return flags.get(name);
     }
 
+    /**
+     * Gets the flag expressions parsed into this flag list, including the ones copied from the list it was cloned from.<br>
+     * Parsing them again in the same order on an equivalent container gives the same flags.
+     *
+     * @return unmodifiable list of expressions or null if flags were also added or removed without parsing
+     */
+    public List<String> getSourceLines() {
+        List<String> lines = null;
+
+        if (sourceLines != null) {
+            lines = Collections.unmodifiableList(sourceLines);
+        }
+
+        return lines;
+    }
+
     /**
      * Checks if flag exists in this flag list.
      *
@@ -86,11 +133,15 @@ public class Flags implements Cloneable {
      * @param flag
      */
     public void addFlag(Flag flag) {
+        unshare();
+
         Flags prevContainer = flag.getFlagsContainer();
         flag.setFlagsContainer(this);
 
         if (canAdd(flag)) {
             flags.put(flag.getFlagType(), flag);
+            hookFlags = null;
+            sourceLines = null;
         } else {
             flag.setFlagsContainer(prevContainer);
         }
@@ -123,6 +174,18 @@ public class Flags implements Cloneable {
             return;
         }
 
+        unshare(); // the existing flag might get modified
+
+        if (sourceLines == NO_LINES) {
+            sourceLines = new ArrayList<>();
+        }
+
+        List<String> lines = sourceLines;
+
+        if (lines != null) {
+            lines.add(value);
+        }
+
         Flag flag = flags.get(type.getNameDisplay()); // get existing flag, if any
         if (flag == null) {
             flag = type.createFlagClass();
@@ -137,12 +200,14 @@ public class Flags implements Cloneable {
 
         // make sure the flag can be added to this flag list
         if (!flag.validateParse(value)) {
+            sourceLines = lines; // removing the flag with a false value is still parsed
             return;
         }
 
         // check if parsed flag had valid values and needs to be added to flag list
         if (flag.onParse(value)) {
             flags.put(flag.getFlagType(), flag);
+            hookFlags = null;
         }
     }
 
@@ -170,9 +235,13 @@ public class Flags implements Cloneable {
             return;
         }
 
+        unshare();
+
         Flag flag = flags.remove(type);
 
         if (flag != null) {
+            hookFlags = null;
+            sourceLines = null;
             flag.onRemove();
             flag.setFlagsContainer(null);
         }
@@ -199,21 +268,57 @@ public class Flags implements Cloneable {
     public boolean checkFlags(Args a) {
         a.clear();
 
-        for (Flag flag : flags.values()) {
+        for (Flag flag : getHookFlags(HOOK_CHECK)) {
             flag.check(a);
         }
 
         return !a.hasReasons();
     }
 
+    /**
+     * Checks flags like {@link #checkFlags(Args)} but cheaper flags are checked first and checking stops at the first failure.<br>
+     * Use this only if the failure reasons are not shown, they're incomplete when it fails.<br>
+     * If the 'fast-fail-checks' setting is disabled this is the same as {@link #checkFlags(Args)}.
+     *
+     * @param a
+     *            arguments class
+     * @return true if recipe/result can be crafted by the arguments with the current flags
+     */
+    public boolean checkFlagsFast(Args a) {
+        if (!Settings.getInstance().getFastFailChecks()) {
+            return checkFlags(a);
+        }
+
+        a.clear();
+
+        getHookFlags(HOOK_CHECK);
+
+        for (Flag flag : checkFlagsByCost) {
+            flag.check(a);
+
+            if (a.hasReasons()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if any flag can change the result or recipe when it's prepared
+     */
+    public boolean hasPrepareFlags() {
+        return getHookFlags(HOOK_PREPARE).length > 0;
+    }
+
     public Collection<Flag> get() {
-        return flags.values();
+        return Collections.unmodifiableCollection(flags.values());
     }
 
     public boolean sendPrepare(Args a) {
         a.clear();
 
-        for (Flag flag : flags.values()) {
+        for (Flag flag : getHookFlags(HOOK_PREPARE)) {
             flag.prepare(a);
         }
 
@@ -231,13 +336,60 @@ public class Flags implements Cloneable {
     public boolean sendCrafted(Args a) {
         a.clear();
 
-        for (Flag flag : flags.values()) {
+        for (Flag flag : getHookFlags(HOOK_CRAFTED)) {
             flag.crafted(a);
         }
 
         return !a.hasReasons();
     }
 
+    /**
+     * Applies all flags for multiple crafts at once, see {@link #sendCrafted(Args)}.
+     *
+     * @param a
+     *            arguments class
+     * @param times
+     *            number of crafts
+     * @return false if something was absolutely required and crafting should be cancelled
+     */
+    public boolean sendCraftedBatch(Args a, int times) {
+        a.clear();
+
+        for (Flag flag : getHookFlags(HOOK_CRAFTED)) {
+            flag.craftedBatch(a, times);
+        }
+
+        return !a.hasReasons();
+    }
+
+    /**
+     * @return true if every flag applied on craft overrides {@link Flag#onCraftedBatch(Args, int)}, so a batch gives the same outcome as crafting one at a time
+     */
+    public boolean canCraftBatch() {
+        for (Flag flag : getHookFlags(HOOK_CRAFTED)) {
+            if ((getHookBits(flag.getClass()) & (1 << HOOK_CRAFTED_BATCH)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param a
+     *            arguments class
+     * @param times
+     *            number of crafts
+     * @return how many of the crafts the player can pay for, at most times
+     */
+    public int getAffordableTimes(Args a, int times) {
+        for (Flag flag : getHookFlags(HOOK_CRAFTED)) {
+            times = Math.min(times, flag.affordableTimes(a, times));
+        }
+
+        return times;
+    }
+
     /**
      * Sends failure notification to all flags
      *
@@ -247,7 +399,7 @@ public class Flags implements Cloneable {
     public void sendFailed(Args a) {
         a.clear();
 
-        for (Flag flag : flags.values()) {
+        for (Flag flag : getHookFlags(HOOK_FAILED)) {
             flag.failed(a);
         }
     }
@@ -255,7 +407,7 @@ public class Flags implements Cloneable {
     public boolean sendFuelRandom(Args a) {
         a.clear();
 
-        for (Flag flag : flags.values()) {
+        for (Flag flag : getHookFlags(HOOK_FUEL_RANDOM)) {
             flag.fuelRandom(a);
         }
 
@@ -265,7 +417,7 @@ public class Flags implements Cloneable {
     public boolean sendFuelEnd(Args a) {
         a.clear();
 
-        for (Flag flag : flags.values()) {
+        for (Flag flag : getHookFlags(HOOK_FUEL_END)) {
             flag.fuelEnd(a);
         }
 
@@ -282,6 +434,103 @@ public class Flags implements Cloneable {
         }
     }
 
+    /**
+     * @param hook
+     * @return the flags that override the hook, in the order they were added
+     */
+    private Flag[] getHookFlags(int hook) {
+        if (hookFlags == null) {
+            Flag[][] newHookFlags = new Flag[HOOKS][];
+
+            for (int h = 0; h < HOOKS; h++) {
+                List<Flag> list = new ArrayList<>();
+
+                for (Flag flag : flags.values()) {
+                    if ((getHookBits(flag.getClass()) & (1 << h)) != 0) {
+                        list.add(flag);
+                    }
+                }
+
+                newHookFlags[h] = list.toArray(new Flag[list.size()]);
+            }
+
+            Flag[] byCost = newHookFlags[HOOK_CHECK].clone();
+            Arrays.sort(byCost, new Comparator<Flag>() {
+                @Override
+                public int compare(Flag flag1, Flag flag2) {
+                    return Integer.compare(getCost(flag1), getCost(flag2));
+                }
+            });
+
+            checkFlagsByCost = byCost;
+            hookFlags = newHookFlags;
+        }
+
+        return hookFlags[hook];
+    }
+
+    private static int getCost(Flag flag) {
+        FlagDescriptor desc = FlagFactory.getInstance().getFlagByName(flag.getFlagType());
+
+        if (desc == null) {
+            return 0;
+        }
+
+        return desc.getCost();
+    }
+
+    private static int getHookBits(Class<? extends Flag> type) {
+        Integer bits = hookBits.get(type);
+
+        if (bits == null) {
+            bits = 0;
+
+            if (overrides(type, "onCheck")) {
+                bits |= 1 << HOOK_CHECK;
+            }
+
+            if (overrides(type, "onPrepare")) {
+                bits |= 1 << HOOK_PREPARE;
+            }
+
+            if (overrides(type, "onCrafted")) {
+                bits |= 1 << HOOK_CRAFTED;
+            }
+
+            if (overrides(type, "onCraftedBatch", Args.class, int.class)) {
+                bits |= 1 << HOOK_CRAFTED_BATCH;
+            }
+
+            if (overrides(type, "onFailed")) {
+                bits |= 1 << HOOK_FAILED;
+            }
+
+            if (overrides(type, "onFuelRandom")) {
+                bits |= 1 << HOOK_FUEL_RANDOM;
+            }
+
+            if (overrides(type, "onFuelEnd")) {
+                bits |= 1 << HOOK_FUEL_END;
+            }
+
+            hookBits.put(type, bits);
+        }
+
+        return bits;
+    }
+
+    private static boolean overrides(Class<? extends Flag> type, String method) {
+        return overrides(type, method, Args.class);
+    }
+
+    private static boolean overrides(Class<? extends Flag> type, String method, Class<?>... parameterTypes) {
+        try {
+            return type.getMethod(method, parameterTypes).getDeclaringClass() != Flag.class;
+        } catch (NoSuchMethodException e) {
+            return true; // can't tell, always call it
+        }
+    }
+
     /**
      * Copy this flag storage and give it a new container.
      *
@@ -294,6 +543,52 @@ public class Flags implements Cloneable {
         return clone;
     }
 
+    /**
+     * Copy this flag storage for a copy of the same container, like {@link #clone(Flaggable)} but the flags aren't copied.<br>
+     * Both share the same flag objects until either one adds, parses or removes a flag, that one gets its own copies first.<br>
+     * The shared flags keep this storage as their container so only use it when the new container is an equivalent copy.
+     *
+     * @param newContainer
+     * @return
+     */
+    public Flags share(Flaggable newContainer) {
+        Flags copy = new Flags(newContainer);
+
+        copy.flags = flags;
+        copy.hookFlags = hookFlags;
+        copy.checkFlagsByCost = checkFlagsByCost;
+        copy.sourceLines = sourceLines;
+        copy.shared = true;
+        shared = true;
+
+        return copy;
+    }
+
+    /**
+     * Replaces shared flags with copies owned by this storage before it's modified.
+     */
+    private void unshare() {
+        if (!shared) {
+            return;
+        }
+
+        Map<String, Flag> copies = new LinkedHashMap<>();
+
+        for (Flag f : flags.values()) {
+            f = f.clone();
+            f.setFlagsContainer(this);
+            copies.put(f.getFlagType(), f);
+        }
+
+        flags = copies;
+        hookFlags = null;
+        shared = false;
+
+        if (sourceLines != null && sourceLines != NO_LINES) {
+            sourceLines = new ArrayList<>(sourceLines);
+        }
+    }
+
     @Override
     public Flags clone() {
         Flags clone = new Flags();
@@ -304,6 +599,12 @@ public class Flags implements Cloneable {
             clone.flags.put(f.getFlagType(), f);
         }
 
+        if (sourceLines != null && sourceLines != NO_LINES) {
+            clone.sourceLines = new ArrayList<>(sourceLines);
+        } else {
+            clone.sourceLines = sourceLines;
+        }
+
         return clone;
     }
 }
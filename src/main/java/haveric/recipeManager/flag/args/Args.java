@@ -1,5 +1,6 @@
 package haveric.recipeManager.flag.args;
 
+import haveric.recipeManager.messages.MessagePrefix;
 import haveric.recipeManager.messages.MessageSender;
 import haveric.recipeManager.messages.Messages;
 import haveric.recipeManager.recipes.BaseRecipe;
@@ -170,6 +171,16 @@ public class Args {
         sendList(sender, prefix, reasons());
     }
 
+    /**
+     * Sends the reasons with a prefix that's only rendered if there are reasons to send.
+     *
+     * @param sender
+     * @param prefix
+     */
+    public void sendReasons(CommandSender sender, MessagePrefix prefix) {
+        sendList(sender, prefix, reasons());
+    }
+
     public List<String> effects() {
         return effects;
     }
@@ -200,6 +211,16 @@ public class Args {
         sendList(sender, prefix, effects());
     }
 
+    /**
+     * Sends the effects with a prefix that's only rendered if there are effects to send.
+     *
+     * @param sender
+     * @param prefix
+     */
+    public void sendEffects(CommandSender sender, MessagePrefix prefix) {
+        sendList(sender, prefix, effects());
+    }
+
     public void clear() {
         clearReasons();
         clearEffects();
@@ -217,6 +238,18 @@ public class Args {
         }
     }
 
+    private void sendList(CommandSender sender, MessagePrefix prefix, List<String> list) {
+        if (sender == null || list == null) {
+            return;
+        }
+
+        for (String s : list) {
+            if (s != null) {
+                MessageSender.getInstance().send(sender, prefix.get() + s);
+            }
+        }
+    }
+
     public String parseVariables(String string) {
         String name;
         if (hasPlayerUUID()) {
@@ -0,0 +1,48 @@
+package haveric.recipeManager.flag.conditions;
+
+import haveric.recipeManager.ErrorReporter;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Name or lore condition, matches ignoring case or by regex when prefixed with <code>regex:</code>.<br>
+ * The regex is compiled once when the condition is created, an invalid regex is reported then and never matches.
+ */
+public class ConditionText {
+    private static final String REGEX_PREFIX = "regex:";
+
+    private final String value;
+    private final boolean regex;
+    private Pattern pattern;
+
+    public ConditionText(String newValue, String flagType) {
+        value = newValue;
+        regex = value.startsWith(REGEX_PREFIX);
+
+        if (regex) {
+            try {
+                pattern = Pattern.compile(value.substring(REGEX_PREFIX.length()));
+            } catch (PatternSyntaxException e) {
+                ErrorReporter.getInstance().error("Flag " + flagType + " has invalid regex pattern '" + e.getPattern() + "', error: " + e.getMessage(), "Use 'http://regexpal.com' (or something similar) to test your regex code before using it.");
+            }
+        }
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public boolean matches(String text) {
+        if (regex) {
+            return pattern != null && pattern.matcher(text).matches();
+        }
+
+        return value.equalsIgnoreCase(text);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -28,8 +28,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
 
 //TODO written book title, author, page num, chars per page, etc
 
@@ -43,7 +41,9 @@ public class Conditions implements Cloneable {
     private Map<Enchantment, Map<Integer, Boolean>> enchants = new HashMap<>();
     private Map<Enchantment, Map<Integer, Boolean>> bookEnchants = new HashMap<>();
     private String name;
+    private ConditionText nameCondition;
     private List<String> lores = new ArrayList<>();
+    private List<ConditionText> loreConditions = new ArrayList<>();
     private Color minColor;
     private Color maxColor;
     private Map<PotionType, ConditionPotion> potionConditions = new HashMap<>();
@@ -91,8 +91,10 @@ public class Conditions implements Cloneable {
         }
 
         name = original.name;
+        nameCondition = original.nameCondition;
 
         lores = original.lores;
+        loreConditions = original.loreConditions;
 
         minColor = original.minColor;
         maxColor = original.maxColor;
@@ -592,8 +594,10 @@ public class Conditions implements Cloneable {
     public void setName(String newName) {
         if (newName == null) {
             name = null;
+            nameCondition = null;
         } else {
             name = RMCUtil.parseColors(newName, false);
+            nameCondition = new ConditionText(name, getFlagType());
         }
     }
 
@@ -610,21 +614,7 @@ public class Conditions implements Cloneable {
             return true;
         }
 
-        if (nameToCheck != null) {
-            if (name.startsWith("regex:")) {
-                try {
-                    Pattern pattern = Pattern.compile(name.substring("regex:".length()));
-                    return pattern.matcher(nameToCheck).matches();
-                } catch (PatternSyntaxException e) {
-                    ErrorReporter.getInstance().error("Flag " + getFlagType() + " has invalid regex pattern '" + e.getPattern() + "', error: " + e.getMessage(), "Use 'http://regexpal.com' (or something similar) to test your regex code before using it.");
-                    return false;
-                }
-            }
-
-            return name.equalsIgnoreCase(nameToCheck);
-        }
-
-        return false;
+        return nameToCheck != null && nameCondition.matches(nameToCheck);
     }
 
     public List<String> getLores() {
@@ -633,7 +623,10 @@ public class Conditions implements Cloneable {
 
     public void addLore(String newLore) {
         if (newLore != null) {
-            lores.add(RMCUtil.parseColors(newLore, false));
+            String lore = RMCUtil.parseColors(newLore, false);
+
+            lores.add(lore);
+            loreConditions.add(new ConditionText(lore, getFlagType()));
         }
     }
 
@@ -650,40 +643,26 @@ public class Conditions implements Cloneable {
             return true;
         }
 
-        Pattern pattern = null;
+        if (loreToCheck == null || loreToCheck.isEmpty()) {
+            return false;
+        }
 
-        int matchedLoreChecks = 0;
-        int totalLoreChecks = lores.size();
-        for (String lore : lores) {
-            if (lore.startsWith("regex:")) {
-                try {
-                    pattern = Pattern.compile(lore.substring("regex:".length()));
-                } catch (PatternSyntaxException e) {
-                    ErrorReporter.getInstance().error("Flag " + getFlagType() + " has invalid regex pattern '" + e.getPattern() + "', error: " + e.getMessage(), "Use 'http://regexpal.com' (or something similar) to test your regex code before using it.");
-                    return false;
+        for (ConditionText lore : loreConditions) {
+            boolean matched = false;
+
+            for (String line : loreToCheck) {
+                if (line != null && lore.matches(line)) {
+                    matched = true;
+                    break;
                 }
             }
 
-            if (loreToCheck != null && !loreToCheck.isEmpty()) {
-                for (String line : loreToCheck) {
-                    if (line != null) {
-                        if (lore.startsWith("regex:")) {
-                            if (pattern.matcher(line).matches()) {
-                                matchedLoreChecks++;
-                                break;
-                            }
-                        } else {
-                            if (lore.equalsIgnoreCase(line)) {
-                                matchedLoreChecks++;
-                                break;
-                            }
-                        }
-                    }
-                }
+            if (!matched) {
+                return false;
             }
         }
 
-        return matchedLoreChecks == totalLoreChecks;
+        return true;
     }
 
     /**
@@ -995,24 +974,6 @@ public class Conditions implements Cloneable {
                 return false;
             }
         }
-        if (item.getItemMeta() instanceof EnchantmentStorageMeta) {
-            EnchantmentStorageMeta meta = (EnchantmentStorageMeta) item.getItemMeta();
-
-            if (!checkBookEnchants(meta.getStoredEnchants())) {
-                if (a == null) {
-                    return false;
-                }
-
-                if (addReasons) {
-                    a.addReason("flag.ingredientconditions.noenchants", getFailMessage(), "{item}", ToolsItem.print(item), "{enchants}", getBookEnchantsString());
-                }
-                ok = false;
-
-                if (getFailMessage() != null) {
-                    return false;
-                }
-            }
-        }
 
         if (!checkEnchants(item.getEnchantments())) {
             if (a == null) {
@@ -1029,12 +990,36 @@ public class Conditions implements Cloneable {
             }
         }
 
+        // getItemMeta() clones the meta, only get it once and only if a condition needs it
+        if (!hasMetaConditions()) {
+            return ok && item.getType() != Material.AIR;
+        }
+
         ItemMeta meta = item.getItemMeta();
 
         if (meta == null) {
             return false;
         }
 
+        if (meta instanceof EnchantmentStorageMeta) {
+            EnchantmentStorageMeta bookMeta = (EnchantmentStorageMeta) meta;
+
+            if (!checkBookEnchants(bookMeta.getStoredEnchants())) {
+                if (a == null) {
+                    return false;
+                }
+
+                if (addReasons) {
+                    a.addReason("flag.ingredientconditions.noenchants", getFailMessage(), "{item}", ToolsItem.print(item), "{enchants}", getBookEnchantsString());
+                }
+                ok = false;
+
+                if (getFailMessage() != null) {
+                    return false;
+                }
+            }
+        }
+
         if (!checkName(meta.getDisplayName())) {
             if (a == null) {
                 return false;
@@ -1230,6 +1215,13 @@ public class Conditions implements Cloneable {
         return ok;
     }
 
+    /**
+     * @return true if any of the conditions needs the item's meta to be checked
+     */
+    private boolean hasMetaConditions() {
+        return isNoMeta() || isNoBookEnchant() || hasBookEnchants() || isNoName() || hasName() || isNoLore() || hasLore() || hasColor() || hasPotion() || hasPotionEffect() || hasBannerColor() || hasBannerPatterns() || hasSpawnEggEntityType();
+    }
+
     public boolean isAllSet() {
         return allSet;
     }
@@ -6,7 +6,6 @@ import org.bukkit.inventory.ItemStack;
 
 public class ConditionsIngredient extends Conditions {
     private int needed;
-    private int neededLeft;
 
     public ConditionsIngredient() {
         super();
@@ -16,7 +15,6 @@ public class ConditionsIngredient extends Conditions {
         super(original);
 
         needed = original.needed;
-        setNeededLeft(original.getNeededLeft());
     }
 
     @Override
@@ -30,33 +28,21 @@ public class ConditionsIngredient extends Conditions {
 
     public void setNeeded(int newNeeded) {
         needed = newNeeded;
-        setNeededLeft(needed);
     }
 
     public boolean hasNeeded() {
         return needed > 0;
     }
 
-    public int getNeededLeft() {
-        return neededLeft;
-    }
-
-    public void setNeededLeft(int neededLeft) {
-        this.neededLeft = neededLeft;
-    }
-
+    /**
+     * Checks the item against the conditions, reasons are only added if the conditions don't have a needed amount.
+     *
+     * @param item
+     * @param a
+     * @return true if the item matches
+     */
     public boolean checkIngredient(ItemStack item, Args a) {
-        boolean addReasons = true;
-
-        if (hasNeeded()) {
-            addReasons = false;
-
-            if (getNeededLeft() == 0) {
-                return true;
-            }
-        }
-
-        return checkIngredient(item, a, addReasons);
+        return checkIngredient(item, a, !hasNeeded());
     }
 
     public void parse(String value, String[] args) {
@@ -1,14 +1,15 @@
 package haveric.recipeManager.flag.flags;
 
 import haveric.recipeManager.ErrorReporter;
+import haveric.recipeManager.data.Cooldowns;
 import haveric.recipeManager.flag.Flag;
 import haveric.recipeManager.flag.FlagType;
 import haveric.recipeManager.flag.args.Args;
+import haveric.recipeManager.recipes.BaseRecipe;
+import haveric.recipeManager.recipes.ItemResult;
+import haveric.recipeManager.recipes.MultiResultRecipe;
 import haveric.recipeManagerCommon.util.RMCUtil;
-import org.apache.commons.lang.mutable.MutableInt;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 public class FlagCooldown extends Flag {
@@ -31,7 +32,7 @@ public class FlagCooldown extends Flag {
             "Sets a cooldown time for crafting a recipe or result.",
             "Once a recipe/result is used, the crafter can not craft it again for the specified amount of time.",
             "If set on a result, the result will be unavailable to the crafter for the cooldown time but the rest of results and the recipe will work as before.",
-            "NOTE: cooldown is reset when reloading/restarting server.",
+            "Cooldowns are saved and kept when reloading/restarting server, they are tied to the recipe's name so renaming a recipe or changing an unnamed recipe resets them.",
             "",
             "The <number> argument must be a number, by default it's seconds.",
             "The [suffix] argument defines what the <number> value is scaled in, values for suffix can be:",
@@ -57,9 +58,7 @@ public class FlagCooldown extends Flag {
             "{flag} .5h | global | failmsg <red>Someone used this recently, wait: {time} | msg <yellow>Cooldown time: {time} // half an hour", };
     }
 
-
-    private final Map<UUID, MutableInt> cooldownTime = new HashMap<>();
-
+    private String cooldownName;
     private int cooldown;
     private boolean global = false;
     private String failMessage;
@@ -73,8 +72,7 @@ public class FlagCooldown extends Flag {
         global = flag.global;
         failMessage = flag.failMessage;
         craftMessage = flag.craftMessage;
-
-        // no cloning of cooldownTime Map.
+        cooldownName = flag.cooldownName; // clones share the cooldowns
     }
 
     @Override
@@ -105,6 +103,34 @@ public class FlagCooldown extends Flag {
         global = newGlobal;
     }
 
+    /**
+     * @return name the cooldowns are stored under, from the recipe's name and the result's position if the flag is on a result
+     */
+    public String getCooldownName() {
+        if (cooldownName == null) {
+            BaseRecipe recipe = getRecipeDeep();
+
+            if (recipe == null) {
+                return "unregistered " + System.identityHashCode(this);
+            }
+
+            StringBuilder s = new StringBuilder(recipe.getName());
+            ItemResult result = getResult();
+
+            if (result != null) {
+                s.append(" | result");
+
+                if (recipe instanceof MultiResultRecipe) {
+                    s.append(' ').append(((MultiResultRecipe) recipe).getResults().indexOf(result));
+                }
+            }
+
+            cooldownName = s.toString();
+        }
+
+        return cooldownName;
+    }
+
     /**
      * Gets the cooldown time in seconds for specified player or for global if null is specified and global is enabled.
      *
@@ -119,14 +145,7 @@ public class FlagCooldown extends Flag {
             return -1;
         }
 
-        MutableInt get = cooldownTime.get(playerUUID);
-        int time = (int) (System.currentTimeMillis() / 1000);
-
-        if (get == null || time >= get.intValue()) {
-            return 0;
-        }
-
-        return get.intValue() - time;
+        return Cooldowns.getTimeLeft(getCooldownName(), playerUUID);
     }
 
     /**
@@ -181,13 +200,7 @@ public class FlagCooldown extends Flag {
             return false;
         }
 
-        MutableInt get = cooldownTime.get(playerUUID);
-
-        if (get == null) {
-            return true;
-        }
-
-        return (System.currentTimeMillis() / 1000) >= get.intValue();
+        return Cooldowns.getTimeLeft(getCooldownName(), playerUUID) == 0;
     }
 
     public String getFailMessage() {
@@ -272,6 +285,12 @@ public class FlagCooldown extends Flag {
         return true;
     }
 
+    @Override
+    public void onRegistered() {
+        cooldownName = null;
+        getCooldownName(); // recipe is complete, name the cooldown so clones share it
+    }
+
     @Override
     public void onCheck(Args a) {
         if (!hasCooldown(a.playerUUID())) {
@@ -296,15 +315,7 @@ public class FlagCooldown extends Flag {
             playerUUID = a.playerUUID();
         }
 
-        MutableInt get = cooldownTime.get(playerUUID);
-        int diff = (int) (System.currentTimeMillis() / 1000) + getCooldownTime();
-
-        if (get == null) {
-            get = new MutableInt(diff);
-            cooldownTime.put(playerUUID, get);
-        } else {
-            get.setValue(diff);
-        }
+        Cooldowns.set(getCooldownName(), playerUUID, getCooldownTime());
 
         String message;
         if (global) {
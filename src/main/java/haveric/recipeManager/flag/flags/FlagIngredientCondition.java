@@ -8,6 +8,7 @@ import haveric.recipeManager.flag.FlagType;
 import haveric.recipeManager.flag.args.Args;
 import haveric.recipeManager.flag.conditions.ConditionsIngredient;
 import haveric.recipeManager.recipes.BaseRecipe;
+import haveric.recipeManager.tools.LongHashMap;
 import haveric.recipeManager.tools.Tools;
 import haveric.recipeManager.tools.ToolsItem;
 import haveric.recipeManagerCommon.util.ParseBit;
@@ -169,6 +170,9 @@ public class FlagIngredientCondition extends Flag {
 
     private Map<String, ConditionsIngredient> conditions = new HashMap<>();
 
+    // Conditions by item key, exact data keys also include the conditions for any data, rebuilt on the next lookup after conditions change
+    private LongHashMap<List<ConditionsIngredient>> conditionsIndex;
+
     public FlagIngredientCondition() {
     }
 
@@ -221,34 +225,95 @@ public class FlagIngredientCondition extends Flag {
                 it.remove();
             }
         }
+
+        conditionsIndex = null;
     }
+
     // TODO: Better handle conditions to allow multiple recipes per item:dur
     public void setIngredientConditions(ItemStack item, ConditionsIngredient cond) {
         Validate.notNull(item, "item argument must not be null!");
         Validate.notNull(cond, "cond argument must not be null!");
 
+        // conditions are indexed by their ingredient
+        if (cond.getIngredient() == null) {
+            cond.setIngredient(item);
+        }
+
         String conditionIdentifier = Tools.convertItemToStringId(item) + "-" + cond.hashCode();
         conditions.put(conditionIdentifier, cond);
+        conditionsIndex = null;
     }
 
+    /**
+     * @param item
+     * @return unmodifiable list of conditions for the item's type and data value or for its type with any data value, null if item is null
+     */
     public List<ConditionsIngredient> getIngredientConditions(ItemStack item) {
         if (item == null) {
             return null;
         }
 
-        List<ConditionsIngredient> conditionsList = new ArrayList<>();
-        for (Entry<String, ConditionsIngredient> entry : conditions.entrySet()) {
-            String key = entry.getKey();
-            if (key.startsWith(String.valueOf(item.getTypeId() + ":" + item.getDurability() + "-"))) {
-                conditionsList.add(entry.getValue());
-            } else if (key.startsWith(String.valueOf(item.getTypeId() + "-"))) {
-                conditionsList.add(entry.getValue());
-            }
+        if (conditionsIndex == null) {
+            conditionsIndex = buildConditionsIndex();
+        }
+
+        List<ConditionsIngredient> conditionsList = conditionsIndex.get(LongHashMap.itemKey(item));
+
+        if (conditionsList == null) {
+            conditionsList = conditionsIndex.get(LongHashMap.itemWildcardKey(item));
+        }
+
+        if (conditionsList == null) {
+            return Collections.emptyList();
         }
 
         return conditionsList;
     }
 
+    private LongHashMap<List<ConditionsIngredient>> buildConditionsIndex() {
+        LongHashMap<List<ConditionsIngredient>> wildcards = new LongHashMap<>();
+        LongHashMap<List<ConditionsIngredient>> exact = new LongHashMap<>();
+
+        for (ConditionsIngredient cond : conditions.values()) {
+            ItemStack ingredient = cond.getIngredient();
+            LongHashMap<List<ConditionsIngredient>> lists;
+            if (ingredient.getDurability() == Vanilla.DATA_WILDCARD) {
+                lists = wildcards;
+            } else {
+                lists = exact;
+            }
+
+            long key = LongHashMap.itemKey(ingredient);
+            List<ConditionsIngredient> list = lists.get(key);
+
+            if (list == null) {
+                list = new ArrayList<>(1);
+                lists.put(key, list);
+            }
+
+            list.add(cond);
+        }
+
+        LongHashMap<List<ConditionsIngredient>> index = new LongHashMap<>();
+
+        for (long key : wildcards.keys()) {
+            index.put(key, Collections.unmodifiableList(wildcards.get(key)));
+        }
+
+        for (long key : exact.keys()) {
+            List<ConditionsIngredient> list = exact.get(key);
+            List<ConditionsIngredient> anyData = wildcards.get(LongHashMap.itemKey((int) (key >>> 16), Vanilla.DATA_WILDCARD));
+
+            if (anyData != null) {
+                list.addAll(anyData);
+            }
+
+            index.put(key, Collections.unmodifiableList(list));
+        }
+
+        return index;
+    }
+
     /**
      * @param item
      *            returns false if null.
@@ -257,6 +322,14 @@ public class FlagIngredientCondition extends Flag {
      * @return true if passed, false otherwise
      */
     public boolean checkIngredientConditions(ItemStack item, Args a) {
+        return checkIngredientConditions(item, a, null);
+    }
+
+    /**
+     * @param neededLeft
+     *            number of items still needed by conditions with a needed amount, counted down for each matching item, null to check without counting
+     */
+    private boolean checkIngredientConditions(ItemStack item, Args a, Map<ConditionsIngredient, Integer> neededLeft) {
         if (item == null) {
             return false;
         }
@@ -269,12 +342,23 @@ public class FlagIngredientCondition extends Flag {
                 return true;
             }
 
-            boolean success = cond.checkIngredient(item, a);
+            Integer left = null;
+            if (neededLeft != null && cond.hasNeeded()) {
+                left = neededLeft.get(cond);
+            }
+
+            boolean success;
+            if (left != null && left == 0) {
+                success = true; // enough items already matched
+            } else {
+                success = cond.checkIngredient(item, a);
+            }
+
             if (success) {
                 anySuccess = true;
 
-                if (cond.hasNeeded() && cond.getNeededLeft() > 0) {
-                    cond.setNeededLeft(cond.getNeededLeft() - 1);
+                if (left != null && left > 0) {
+                    neededLeft.put(cond, left - 1);
                 }
             }
         }
@@ -290,14 +374,12 @@ public class FlagIngredientCondition extends Flag {
         }
 
         if (a.inventory() instanceof CraftingInventory) {
-            Iterator<Entry<String, ConditionsIngredient>> iter = conditions.entrySet().iterator();
-
-            while (iter.hasNext()) {
-                Entry<String, ConditionsIngredient> entry = iter.next();
-                ConditionsIngredient checkConditions = entry.getValue();
+            // counted per check so flags can be shared between copies of a recipe or result
+            Map<ConditionsIngredient, Integer> neededLeft = new IdentityHashMap<>();
 
+            for (ConditionsIngredient checkConditions : conditions.values()) {
                 if (checkConditions.hasNeeded()) {
-                    checkConditions.setNeededLeft(checkConditions.getNeeded());
+                    neededLeft.put(checkConditions, checkConditions.getNeeded());
                 }
             }
 
@@ -305,22 +387,13 @@ public class FlagIngredientCondition extends Flag {
                 ItemStack item = a.inventory().getItem(i);
 
                 if (item != null) {
-                    checkIngredientConditions(item, a);
+                    checkIngredientConditions(item, a, neededLeft);
                 }
             }
 
-            iter = conditions.entrySet().iterator();
-
-            while (iter.hasNext()) {
-                Entry<String, ConditionsIngredient> entry = iter.next();
-                ConditionsIngredient checkConditions = entry.getValue();
-
-                if (checkConditions.hasNeeded()) {
-                    if (!a.hasReasons() && checkConditions.getNeededLeft() > 0) {
-                        a.addCustomReason("Needed items mismatch!");
-                    }
-
-                    checkConditions.setNeededLeft(-1);
+            for (Integer left : neededLeft.values()) {
+                if (!a.hasReasons() && left > 0) {
+                    a.addCustomReason("Needed items mismatch!");
                 }
             }
 
@@ -113,4 +113,9 @@ public class FlagMessage extends Flag {
             a.addCustomEffect(a.parseVariables(s));
         }
     }
+
+    @Override
+    public void onCraftedBatch(Args a, int times) {
+        onCrafted(a); // show the messages once per batch
+    }
 }
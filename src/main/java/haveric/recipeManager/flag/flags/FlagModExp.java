@@ -172,6 +172,28 @@ public class FlagModExp extends Flag {
 
     @Override
     public void onCrafted(Args a) {
+        modExp(a, amount);
+    }
+
+    @Override
+    public void onCraftedBatch(Args a, int times) {
+        if (mod == '=') {
+            modExp(a, amount);
+        } else {
+            modExp(a, (int) Math.min((long) amount * times, Integer.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public int onAffordableTimes(Args a, int times) {
+        if (mod != '-' || amount <= 0 || !a.hasPlayer()) {
+            return times;
+        }
+
+        return Math.min(times, ToolsExp.getTotalExperience(a.player()) / amount);
+    }
+
+    private void modExp(Args a, int modAmount) {
         if (mod != '=' && amount == 0) {
             throw new IllegalArgumentException("The amount can not be 0 while mod is '+' or '-' !");
         }
@@ -186,15 +208,15 @@ public class FlagModExp extends Flag {
 
         switch (mod) {
             case '+':
-                exp = ToolsExp.getTotalExperience(p) + amount;
+                exp = ToolsExp.getTotalExperience(p) + modAmount;
 
-                a.addEffect("flag.modexp.add", failMessage, "{amount}", amount, "{modifier}", mod);
+                a.addEffect("flag.modexp.add", failMessage, "{amount}", modAmount, "{modifier}", mod);
 
                 break;
             case '-':
-                exp = Math.max(ToolsExp.getTotalExperience(p) - amount, 0);
+                exp = Math.max(ToolsExp.getTotalExperience(p) - modAmount, 0);
 
-                a.addEffect("flag.modexp.sub", failMessage, "{amount}", amount, "{modifier}", mod, "{actualamount}", exp);
+                a.addEffect("flag.modexp.sub", failMessage, "{amount}", modAmount, "{modifier}", mod, "{actualamount}", exp);
 
                 break;
             case '=':
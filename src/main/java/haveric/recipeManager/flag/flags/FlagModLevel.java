@@ -181,6 +181,28 @@ public class FlagModLevel extends Flag {
 
     @Override
     public void onCrafted(Args a) {
+        modLevel(a, amount);
+    }
+
+    @Override
+    public void onCraftedBatch(Args a, int times) {
+        if (mod == '=') {
+            modLevel(a, amount);
+        } else {
+            modLevel(a, (int) Math.min((long) amount * times, Integer.MAX_VALUE));
+        }
+    }
+
+    @Override
+    public int onAffordableTimes(Args a, int times) {
+        if (mod != '-' || amount <= 0 || !a.hasPlayer()) {
+            return times;
+        }
+
+        return Math.min(times, a.player().getLevel() / amount);
+    }
+
+    private void modLevel(Args a, int modAmount) {
         if (mod != '=' && amount == 0) {
             throw new IllegalArgumentException("The amount can not be 0 while mod is '+' or '-'!");
         }
@@ -194,17 +216,17 @@ public class FlagModLevel extends Flag {
 
         switch (mod) {
             case '+':
-                p.giveExpLevels(amount);
+                p.giveExpLevels(modAmount);
 
-                a.addEffect("flag.modlevel.add", failMessage, "{amount}", amount, "{modifier}", mod);
+                a.addEffect("flag.modlevel.add", failMessage, "{amount}", modAmount, "{modifier}", mod);
 
                 break;
             case '-':
-                int level = Math.max(p.getLevel() - amount, 0);
+                int level = Math.max(p.getLevel() - modAmount, 0);
 
                 p.setLevel(level);
 
-                a.addEffect("flag.modlevel.sub", failMessage, "{amount}", amount, "{modifier}", mod, "{actualamount}", level);
+                a.addEffect("flag.modlevel.sub", failMessage, "{amount}", modAmount, "{modifier}", mod, "{actualamount}", level);
 
                 break;
             case '=':
@@ -174,6 +174,37 @@ public class FlagModMoney extends Flag {
 
     @Override
     public void onCrafted(Args a) {
+        modMoney(a, amount);
+    }
+
+    @Override
+    public void onCraftedBatch(Args a, int times) {
+        if (mod == '=') {
+            modMoney(a, amount);
+        } else if (mod == '-') {
+            // same as taking it for each craft, where the ones the player can't pay for would fail
+            int affordable = onAffordableTimes(a, times);
+
+            if (affordable > 0) {
+                modMoney(a, amount * affordable);
+            }
+        } else {
+            modMoney(a, amount * times);
+        }
+    }
+
+    @Override
+    public int onAffordableTimes(Args a, int times) {
+        if (mod != '-' || amount <= 0 || !Econ.getInstance().isEnabled() || !a.hasPlayerUUID()) {
+            return times;
+        }
+
+        double money = Econ.getInstance().getMoney(a.playerUUID());
+
+        return (int) Math.max(Math.min(times, Math.floor(money / amount)), 0);
+    }
+
+    private void modMoney(Args a, float modAmount) {
         if (mod != '=' && amount == 0) {
             throw new IllegalArgumentException("The amount can not be 0 while mod is '+' or '-'!");
         }
@@ -189,15 +220,15 @@ public class FlagModMoney extends Flag {
 
         switch (mod) {
             case '+':
-                Econ.getInstance().modMoney(a.playerUUID(), amount);
+                Econ.getInstance().modMoney(a.playerUUID(), modAmount);
 
-                a.addEffect("flag.modmoney.add", failMessage, "{money}", Econ.getInstance().getFormat(amount), "{amount}", amount, "{modifier}", mod);
+                a.addEffect("flag.modmoney.add", failMessage, "{money}", Econ.getInstance().getFormat(modAmount), "{amount}", modAmount, "{modifier}", mod);
 
                 break;
             case '-':
-                Econ.getInstance().modMoney(a.playerUUID(), -amount);
+                Econ.getInstance().modMoney(a.playerUUID(), -modAmount);
 
-                a.addEffect("flag.modmoney.sub", failMessage, "{money}", Econ.getInstance().getFormat(amount), "{amount}", amount, "{modifier}", mod);
+                a.addEffect("flag.modmoney.sub", failMessage, "{money}", Econ.getInstance().getFormat(modAmount), "{amount}", modAmount, "{modifier}", mod);
 
                 break;
             case '=':
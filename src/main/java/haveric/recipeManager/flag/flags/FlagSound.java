@@ -206,4 +206,9 @@ public class FlagSound extends Flag {
             a.location().getWorld().playSound(a.location(), sound, volume, pitch);
         }
     }
+
+    @Override
+    public void onCraftedBatch(Args a, int times) {
+        onCrafted(a); // sounds played in the same tick overlap, once is enough
+    }
 }
@@ -0,0 +1,50 @@
+package haveric.recipeManager.messages;
+
+import haveric.recipeManager.recipes.ItemResult;
+import haveric.recipeManager.tools.Tools;
+import haveric.recipeManager.tools.ToolsItem;
+import org.bukkit.Location;
+
+/**
+ * Prefix for the messages sent by {@link haveric.recipeManager.flag.args.Args}, only rendered once there is a message to send.<br>
+ * The rendered prefix is kept for later messages.
+ */
+public abstract class MessagePrefix {
+    private String prefix;
+
+    protected abstract String render();
+
+    public final String get() {
+        if (prefix == null) {
+            prefix = render();
+        }
+
+        return prefix;
+    }
+
+    /**
+     * @param result
+     * @return the 'flag.prefix.result' message for the result
+     */
+    public static MessagePrefix result(final ItemResult result) {
+        return new MessagePrefix() {
+            @Override
+            protected String render() {
+                return Messages.getInstance().parse("flag.prefix.result", "{item}", ToolsItem.print(result));
+            }
+        };
+    }
+
+    /**
+     * @param location
+     * @return the 'flag.prefix.furnace' message for the furnace location
+     */
+    public static MessagePrefix furnace(final Location location) {
+        return new MessagePrefix() {
+            @Override
+            protected String render() {
+                return Messages.getInstance().parse("flag.prefix.furnace", "{location}", Tools.printLocation(location));
+            }
+        };
+    }
+}
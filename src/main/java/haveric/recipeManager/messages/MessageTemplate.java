@@ -0,0 +1,119 @@
+package haveric.recipeManager.messages;
+
+import haveric.recipeManagerCommon.util.RMCUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A message with its colors already parsed and split around its {variable} tokens so variables can be replaced without searching the message again.
+ */
+class MessageTemplate {
+    private final String text;
+    // text between the tokens, one more than tokens
+    private final String[] parts;
+    private final String[] tokens;
+
+    MessageTemplate(String newText) {
+        text = newText;
+
+        List<String> newParts = new ArrayList<>();
+        List<String> newTokens = new ArrayList<>();
+        int partStart = 0;
+        int open = text.indexOf('{');
+
+        while (open >= 0) {
+            int close = findClose(open);
+
+            if (close < 0) {
+                open = text.indexOf('{', open + 1);
+            } else {
+                newParts.add(text.substring(partStart, open));
+                newTokens.add(text.substring(open, close + 1));
+                partStart = close + 1;
+                open = text.indexOf('{', partStart);
+            }
+        }
+
+        newParts.add(text.substring(partStart));
+
+        parts = newParts.toArray(new String[newParts.size()]);
+        tokens = newTokens.toArray(new String[newTokens.size()]);
+    }
+
+    /**
+     * @return index of the '}' that closes the token starting at open or -1 if it's not a token
+     */
+    private int findClose(int open) {
+        for (int i = open + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '}') {
+                if (i > open + 1) {
+                    return i;
+                }
+
+                return -1;
+            }
+
+            if (c == '{' || Character.isWhitespace(c)) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    String getText() {
+        return text;
+    }
+
+    /**
+     * @param variables
+     *            pairs of variable and value, like "{item}", "Stick"
+     * @return the message with the variables replaced
+     */
+    String replace(Object... variables) {
+        if (variables == null || variables.length == 0) {
+            return text;
+        }
+
+        for (int i = 0; i < variables.length; i += 2) {
+            String variable = String.valueOf(variables[i]);
+
+            // not a {variable} token, replace it like any other text
+            if (!variable.startsWith("{") || !variable.endsWith("}")) {
+                return RMCUtil.replaceVariables(text, variables);
+            }
+        }
+
+        if (tokens.length == 0) {
+            return text;
+        }
+
+        StringBuilder builder = new StringBuilder(text.length() + 16);
+
+        for (int i = 0; i < tokens.length; i++) {
+            builder.append(parts[i]);
+
+            String value = null;
+
+            for (int j = 0; j + 1 < variables.length; j += 2) {
+                if (tokens[i].equals(String.valueOf(variables[j]))) {
+                    value = String.valueOf(variables[j + 1]);
+                    break;
+                }
+            }
+
+            if (value == null) {
+                builder.append(tokens[i]);
+            } else {
+                builder.append(value);
+            }
+        }
+
+        builder.append(parts[tokens.length]);
+
+        return builder.toString();
+    }
+}
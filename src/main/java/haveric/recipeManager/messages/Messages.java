@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static haveric.recipeManager.Files.FILE_MESSAGES;
 
@@ -21,6 +22,9 @@ public class Messages {
     private Map<String, Set<String>> sent = new HashMap<>();
 
     private Map<String,String> messages = new HashMap<>();
+    // Color parsed messages split around their variables, cleared when messages change
+    // Concurrent because messages are also parsed by the parallel recipe file parsing
+    private Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
     private Messages() {
 
@@ -74,6 +78,7 @@ public class Messages {
 
     private void putMessage(String path, String message) {
         messages.put(path, message);
+        templates.remove(path);
     }
 
     public String get(String path) {
@@ -89,11 +94,44 @@ public class Messages {
     }
 
     public String parse(String path) {
-        return RMCUtil.parseColors(get(path), false);
+        MessageTemplate template = getTemplate(path);
+
+        if (template == null) {
+            return RMCUtil.parseColors(get(path), false);
+        }
+
+        return template.getText();
     }
 
     public String parse(String path, Object... variables) {
-        return RMCUtil.replaceVariables(parse(path), variables);
+        MessageTemplate template = getTemplate(path);
+
+        if (template == null) {
+            return RMCUtil.replaceVariables(parse(path), variables);
+        }
+
+        return template.replace(variables);
+    }
+
+    /**
+     * @param path
+     * @return the parsed message or null if the message is missing
+     */
+    private MessageTemplate getTemplate(String path) {
+        MessageTemplate template = templates.get(path);
+
+        if (template == null) {
+            String message = messages.get(path);
+
+            if (message == null) {
+                return null;
+            }
+
+            template = new MessageTemplate(RMCUtil.parseColors(message, false));
+            templates.put(path, template);
+        }
+
+        return template;
     }
 
     public String parseCustom(String path, String customMessage, Object... variables) {
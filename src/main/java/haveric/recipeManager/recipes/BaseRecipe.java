@@ -185,6 +185,16 @@ public class BaseRecipe extends AbstractBaseRecipe implements Flaggable {
         return checkFlags;
     }
 
+    public boolean checkFlagsFast(Args a) {
+        boolean checkFlags = true;
+
+        if (flags != null) {
+            checkFlags = flags.checkFlagsFast(a);
+        }
+
+        return checkFlags;
+    }
+
     public boolean sendCrafted(Args a) {
         boolean sendCrafted = true;
 
@@ -195,6 +205,36 @@ public class BaseRecipe extends AbstractBaseRecipe implements Flaggable {
         return sendCrafted;
     }
 
+    public boolean sendCraftedBatch(Args a, int times) {
+        boolean sendCrafted = true;
+
+        if (flags != null) {
+            sendCrafted = flags.sendCraftedBatch(a, times);
+        }
+
+        return sendCrafted;
+    }
+
+    public boolean canCraftBatch() {
+        boolean canCraftBatch = true;
+
+        if (flags != null) {
+            canCraftBatch = flags.canCraftBatch();
+        }
+
+        return canCraftBatch;
+    }
+
+    public int getAffordableTimes(Args a, int times) {
+        int affordableTimes = times;
+
+        if (flags != null) {
+            affordableTimes = flags.getAffordableTimes(a, times);
+        }
+
+        return affordableTimes;
+    }
+
     public boolean sendPrepare(Args a) {
         boolean sendPrepare = true;
 
@@ -2,6 +2,7 @@ package haveric.recipeManager.recipes;
 
 import haveric.recipeManager.Vanilla;
 import haveric.recipeManager.flag.Flags;
+import haveric.recipeManager.tools.LongHashMap;
 import haveric.recipeManagerCommon.recipes.RMCRecipeType;
 
 import org.bukkit.inventory.ItemStack;
@@ -102,6 +103,13 @@ public class BrewRecipe extends MultiResultRecipe {
         return indexString;
     }
 
+    /**
+     * @return packed ingredient key for {@link LongHashMap} indexes
+     */
+    public long getIndexKey() {
+        return LongHashMap.itemKey(ingredient);
+    }
+
     public ItemStack getPotion() {
         return potion;
     }
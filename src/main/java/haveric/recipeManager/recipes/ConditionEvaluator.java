@@ -1,7 +1,6 @@
 package haveric.recipeManager.recipes;
 
 import haveric.recipeManager.ErrorReporter;
-import haveric.recipeManager.RecipeManager;
 import haveric.recipeManager.RecipeRegistrator;
 import haveric.recipeManager.Settings;
 import haveric.recipeManager.flag.FlagType;
@@ -39,7 +38,7 @@ public class ConditionEvaluator {
 
     public boolean recipeExists(BaseRecipe recipe, int directiveLine, String currentFile) {
         ErrorReporter.getInstance().setLine(directiveLine); // set the line to point to the directive rather than the last read line!
-        RMCRecipeInfo registered = getRecipeFromMap(recipe, RecipeManager.getRecipes().getIndex());
+        RMCRecipeInfo registered = getRecipeFromMap(recipe, registrator.getRecipes().getIndex());
 
         if (recipe.hasFlag(FlagType.OVERRIDE) || recipe.hasFlag(FlagType.REMOVE)) {
             if (registered == null) {
@@ -60,7 +59,7 @@ public class ConditionEvaluator {
 
         if (registered != null) {
             if (registered.getOwner() == RMCRecipeInfo.RecipeOwner.RECIPEMANAGER) {
-                if (!currentFile.equals(registered.getAdder())) {
+                if (!currentFile.equals(registered.getAdder()) && !registrator.isReplacedFile(registered.getAdder())) {
                     ErrorReporter.getInstance().error("Recipe already created with this plugin, file: " + registered.getAdder());
 
                     return false; // can't re-add recipes
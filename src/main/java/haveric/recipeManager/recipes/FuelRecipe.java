@@ -5,6 +5,7 @@ import haveric.recipeManager.Vanilla;
 import haveric.recipeManager.flag.FlagType;
 import haveric.recipeManager.flag.Flags;
 import haveric.recipeManager.messages.Messages;
+import haveric.recipeManager.tools.LongHashMap;
 import haveric.recipeManager.tools.ToolsItem;
 import haveric.recipeManagerCommon.RMCChatColor;
 import haveric.recipeManagerCommon.recipes.RMCRecipeType;
@@ -126,6 +127,13 @@ public class FuelRecipe extends BaseRecipe {
         return indexString;
     }
 
+    /**
+     * @return packed ingredient key for {@link LongHashMap} indexes
+     */
+    public long getIndexKey() {
+        return LongHashMap.itemKey(ingredient);
+    }
+
     @Override
     public void resetName() {
         StringBuilder s = new StringBuilder();
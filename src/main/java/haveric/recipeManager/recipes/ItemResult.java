@@ -22,7 +22,7 @@ public class ItemResult extends ItemStack implements Flaggable {
         super(result);
 
         if (result.hasFlags()) {
-            flags = result.getFlags().clone(this);
+            flags = result.getFlags().share(this); // flags are only copied if this result's flags get modified
         } else {
             flags = null;
         }
@@ -142,6 +142,16 @@ public class ItemResult extends ItemStack implements Flaggable {
         return checkFlags;
     }
 
+    public boolean checkFlagsFast(Args a) {
+        boolean checkFlags = true;
+
+        if (flags != null) {
+            checkFlags = flags.checkFlagsFast(a);
+        }
+
+        return checkFlags;
+    }
+
     public boolean sendCrafted(Args a) {
         boolean sendCrafted = true;
 
@@ -152,6 +162,36 @@ public class ItemResult extends ItemStack implements Flaggable {
         return sendCrafted;
     }
 
+    public boolean sendCraftedBatch(Args a, int times) {
+        boolean sendCrafted = true;
+
+        if (flags != null) {
+            sendCrafted = flags.sendCraftedBatch(a, times);
+        }
+
+        return sendCrafted;
+    }
+
+    public boolean canCraftBatch() {
+        boolean canCraftBatch = true;
+
+        if (flags != null) {
+            canCraftBatch = flags.canCraftBatch() && !flags.hasPrepareFlags();
+        }
+
+        return canCraftBatch;
+    }
+
+    public int getAffordableTimes(Args a, int times) {
+        int affordableTimes = times;
+
+        if (flags != null) {
+            affordableTimes = flags.getAffordableTimes(a, times);
+        }
+
+        return affordableTimes;
+    }
+
     public boolean sendPrepare(Args a) {
         boolean sendPrepare = true;
 
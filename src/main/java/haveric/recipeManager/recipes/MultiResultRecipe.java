@@ -5,8 +5,8 @@ import haveric.recipeManager.flag.*;
 import haveric.recipeManager.flag.args.ArgBuilder;
 import haveric.recipeManager.flag.args.Args;
 import haveric.recipeManager.flag.flags.FlagIndividualResults;
+import haveric.recipeManager.messages.MessagePrefix;
 import haveric.recipeManager.messages.Messages;
-import haveric.recipeManager.tools.ToolsItem;
 import org.apache.commons.lang.Validate;
 import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
@@ -188,7 +188,7 @@ public class MultiResultRecipe extends BaseRecipe {
             for (ItemResult r : results) {
                 a.clear();
 
-                if (r.checkFlags(a)) {
+                if (r.checkFlagsFast(a)) {
                     float chance = r.getChance();
                     float rand = RecipeManager.random.nextFloat() * 100;
 
@@ -205,7 +205,7 @@ public class MultiResultRecipe extends BaseRecipe {
             for (ItemResult r : results) {
                 a.clear();
 
-                if (r.checkFlags(a)) {
+                if (r.checkFlagsFast(a)) {
                     list.add(r);
                     maxChance += r.getChance();
                 }
@@ -229,7 +229,7 @@ public class MultiResultRecipe extends BaseRecipe {
 
         if (result != null) {
             if (result.sendPrepare(a)) {
-                a.sendEffects(a.player(), Messages.getInstance().parse("flag.prefix.result", "{item}", ToolsItem.print(result)));
+                a.sendEffects(a.player(), MessagePrefix.result(result));
             }
 
             if (result.getType() == Material.AIR && hasFlags()) {
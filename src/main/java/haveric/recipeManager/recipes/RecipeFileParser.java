@@ -29,7 +29,7 @@ public class RecipeFileParser {
         if (currentFile.isEmpty()) {
             currentFile = RMCUtil.removeExtensions(root, Files.FILE_RECIPE_EXTENSIONS);
         }
-        ErrorReporter.getInstance().setFile(currentFile);
+        ErrorReporter.getInstance().setFile(currentFile, fileName);
         fileFlags = new Flags();
         boolean added = false;
         int loaded = 0;
@@ -68,4 +68,11 @@ public class RecipeFileParser {
 
         reader.close();
     }
+
+    /**
+     * @return the file name used for error reporting of the last parsed file
+     */
+    public String getCurrentFile() {
+        return currentFile;
+    }
 }
@@ -7,6 +7,7 @@ import haveric.recipeManager.flag.args.ArgBuilder;
 import haveric.recipeManager.flag.conditions.ConditionsIngredient;
 import haveric.recipeManager.flag.flags.FlagIngredientCondition;
 import haveric.recipeManager.messages.Messages;
+import haveric.recipeManager.tools.LongHashMap;
 import haveric.recipeManager.tools.ToolsItem;
 import haveric.recipeManagerCommon.RMCChatColor;
 import haveric.recipeManagerCommon.recipes.RMCRecipeType;
@@ -185,6 +186,20 @@ public class SmeltRecipe extends SingleResultRecipe {
         return fuelIndex;
     }
 
+    /**
+     * @return packed ingredient key for {@link LongHashMap} indexes
+     */
+    public long getIndexKey() {
+        return LongHashMap.itemKey(ingredient);
+    }
+
+    /**
+     * @return packed fuel key for {@link LongHashMap} indexes
+     */
+    public long getFuelIndexKey() {
+        return LongHashMap.itemKey(fuel);
+    }
+
     @Override
     public int hashCode() {
         return hash;
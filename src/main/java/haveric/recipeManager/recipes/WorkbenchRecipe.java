@@ -8,6 +8,7 @@ import haveric.recipeManager.flag.conditions.ConditionsIngredient;
 import haveric.recipeManager.flag.flags.FlagDisplayResult;
 import haveric.recipeManager.flag.flags.FlagIngredientCondition;
 import haveric.recipeManager.flag.flags.FlagKeepItem;
+import haveric.recipeManager.messages.MessagePrefix;
 import haveric.recipeManager.messages.Messages;
 import haveric.recipeManager.tools.ToolsItem;
 import org.bukkit.Material;
@@ -16,9 +17,19 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class WorkbenchRecipe extends MultiResultRecipe {
+    private static final int DISPLAY_CACHE_MAX_RESULTS = 63;
+    private static final int DISPLAY_CACHE_PER_RECIPE = 32;
+    private static final long DISPLAY_DENIED = -1;
+
+    // Rendered display results by recipe and a bit mask of the results that passed their checks
+    private static final Map<WorkbenchRecipe, Map<Long, ItemResult>> displayCache = new IdentityHashMap<>();
+
     protected WorkbenchRecipe() {
     }
 
@@ -39,10 +50,24 @@ public class WorkbenchRecipe extends MultiResultRecipe {
     public ItemResult getDisplayResult(Args a) {
         a.clear();
 
+        List<ItemResult> results = getResults();
+        // the display only depends on which results passed if no flag changes the results on prepare
+        boolean cacheable = results.size() <= DISPLAY_CACHE_MAX_RESULTS && a.hasRecipe() && a.recipe() == this;
+
         if (!checkFlags(a)) {
             a.sendReasons(a.player(), Messages.getInstance().get("flag.prefix.recipe"));
 
-            return ToolsItem.create(Settings.getInstance().getFailMaterial(), 0, 0, Messages.getInstance().parse("craft.result.denied.title"), Messages.getInstance().parse("craft.result.denied.info"));
+            ItemResult denied = getCachedDisplayResult(DISPLAY_DENIED);
+
+            if (denied == null) {
+                denied = ToolsItem.create(Settings.getInstance().getFailMaterial(), 0, 0, Messages.getInstance().parse("craft.result.denied.title"), Messages.getInstance().parse("craft.result.denied.info"));
+
+                if (cacheable) {
+                    cacheDisplayResult(DISPLAY_DENIED, denied);
+                }
+            }
+
+            return denied.clone();
         }
 
         List<ItemResult> displayResults = new ArrayList<>();
@@ -51,12 +76,18 @@ public class WorkbenchRecipe extends MultiResultRecipe {
         float secretChance = 0;
         int unavailableNum = 0;
         float unavailableChance = 0;
-        int displayNum;
         int failedLores = 0;
 
         List<String> lore = new ArrayList<>();
+        long passed = 0;
+
+        for (int i = 0; i < results.size(); i++) {
+            ItemResult r = results.get(i);
+
+            if (r.hasFlags() && r.getFlags().hasPrepareFlags()) {
+                cacheable = false;
+            }
 
-        for (ItemResult r : getResults()) {
             r = r.clone();
             a.clearReasons();
             a.setResult(r);
@@ -73,6 +104,8 @@ public class WorkbenchRecipe extends MultiResultRecipe {
             }
 
             if (r.checkFlags(a)) {
+                passed |= 1L << i;
+
                 if (r.hasFlag(FlagType.SECRET)) {
                     secretNum++;
                     secretChance += r.getChance();
@@ -81,7 +114,7 @@ public class WorkbenchRecipe extends MultiResultRecipe {
                 } else {
                     displayResults.add(r);
 
-                    a.sendEffects(a.player(), Messages.getInstance().parse("flag.prefix.result", "{item}", ToolsItem.print(r)));
+                    a.sendEffects(a.player(), MessagePrefix.result(r));
                 }
             } else {
                 unavailableNum++;
@@ -96,7 +129,64 @@ public class WorkbenchRecipe extends MultiResultRecipe {
             }
         }
 
-        displayNum = displayResults.size();
+        if (cacheable) {
+            ItemResult cached = getCachedDisplayResult(passed);
+
+            if (cached != null) {
+                return cached.clone();
+            }
+        }
+
+        ItemResult displayResult = renderDisplayResult(a, displayResults, lore, failChance, secretNum, secretChance, unavailableNum, unavailableChance, failedLores);
+
+        if (cacheable && displayResult != null) {
+            cacheDisplayResult(passed, displayResult.clone());
+        }
+
+        return displayResult;
+    }
+
+    private ItemResult getCachedDisplayResult(long passed) {
+        Map<Long, ItemResult> cached = displayCache.get(this);
+
+        if (cached == null) {
+            return null;
+        }
+
+        return cached.get(passed);
+    }
+
+    private void cacheDisplayResult(long passed, ItemResult displayResult) {
+        Map<Long, ItemResult> cached = displayCache.get(this);
+
+        if (cached == null) {
+            cached = new HashMap<>();
+            displayCache.put(this, cached);
+        }
+
+        if (cached.size() < DISPLAY_CACHE_PER_RECIPE) {
+            cached.put(passed, displayResult);
+        }
+    }
+
+    /**
+     * Forgets the rendered display results of all recipes, needed when recipes, messages or settings are reloaded.
+     */
+    public static void clearDisplayResults() {
+        displayCache.clear();
+    }
+
+    /**
+     * Forgets the rendered display results of a recipe, needed when the recipe is removed.
+     *
+     * @param recipe
+     */
+    public static void clearDisplayResults(WorkbenchRecipe recipe) {
+        displayCache.remove(recipe);
+    }
+
+    private ItemResult renderDisplayResult(Args a, List<ItemResult> displayResults, List<String> lore, float failChance, int secretNum, float secretChance, int unavailableNum, float unavailableChance, int failedLores) {
+        int displayNum = displayResults.size();
         boolean receive = (secretNum + displayNum - failedLores) > 0;
 
         FlagDisplayResult flag;
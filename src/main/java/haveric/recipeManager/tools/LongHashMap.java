@@ -0,0 +1,235 @@
+package haveric.recipeManager.tools;
+
+import haveric.recipeManager.Vanilla;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open addressing hash map with primitive long keys, lookups don't allocate.<br>
+ * Used for item indexes where the key is packed from the item's type id and data value, see {@link #itemKey(int, int)}.<br>
+ * Null values are not supported, putting null removes the key.
+ *
+ * @param <V> value type
+ */
+public class LongHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int mask;
+    private int resizeAt;
+
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+
+        allocate(capacity);
+    }
+
+    /**
+     * Packs an item type id and data value into an index key.
+     *
+     * @param typeId
+     * @param data
+     *            data value, use {@link Vanilla#DATA_WILDCARD} for the wildcard slot
+     * @return packed key
+     */
+    public static long itemKey(int typeId, int data) {
+        return ((long) typeId << 16) | (data & 0xFFFF);
+    }
+
+    /**
+     * @param item
+     * @return packed key of the item's type id and data value
+     */
+    public static long itemKey(ItemStack item) {
+        return itemKey(item.getTypeId(), item.getDurability());
+    }
+
+    /**
+     * @param item
+     * @return packed key of the item's type id with wildcard data value
+     */
+    public static long itemWildcardKey(ItemStack item) {
+        return itemKey(item.getTypeId(), Vanilla.DATA_WILDCARD);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slot(key);
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            return remove(key);
+        }
+
+        int slot = slot(key);
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+
+        if (size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = slot(key);
+
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                shiftDown(slot);
+                size--;
+                return old;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the keys in this map
+     */
+    public long[] keys() {
+        long[] list = new long[size];
+        int index = 0;
+
+        int length = keys.length;
+        for (int i = 0; i < length; i++) {
+            if (values[i] != null) {
+                list[index++] = keys[i];
+            }
+        }
+
+        return list;
+    }
+
+    /**
+     * @return a copy of the values in this map
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+
+        for (Object value : values) {
+            if (value != null) {
+                list.add((V) value);
+            }
+        }
+
+        return list;
+    }
+
+    private int slot(long key) {
+        // mix the bits so sequential type ids don't cluster
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+
+        return (int) key & mask;
+    }
+
+    /**
+     * Removes the entry at slot and moves back following entries of the same probe chain, no tombstones needed.
+     */
+    private void shiftDown(int slot) {
+        int free = slot;
+        int next = (slot + 1) & mask;
+
+        while (values[next] != null) {
+            int ideal = slot(keys[next]);
+
+            // move the entry if its ideal slot isn't cyclically between the free slot and its current slot
+            if (((next - ideal) & mask) >= ((next - free) & mask)) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                free = next;
+            }
+
+            next = (next + 1) & mask;
+        }
+
+        values[free] = null;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        allocate(capacity);
+        size = 0;
+
+        int oldLength = oldKeys.length;
+        for (int i = 0; i < oldLength; i++) {
+            if (oldValues[i] != null) {
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
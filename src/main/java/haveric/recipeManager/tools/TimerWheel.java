@@ -0,0 +1,106 @@
+package haveric.recipeManager.tools;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timing wheel driven by ticks, values are scheduled a number of ticks ahead and returned by {@link #advance()} once due.<br>
+ * Scheduling is O(1), each tick only visits the values in one slot. Delays longer than the wheel stay in their slot for extra turns.
+ *
+ * @param <T> value type
+ */
+public class TimerWheel<T> {
+    private final List<List<Timer<T>>> slots;
+    private final int mask;
+    private long tick = 0;
+    private int size = 0;
+
+    private static class Timer<T> {
+        private final T value;
+        private final long deadline;
+
+        private Timer(T newValue, long newDeadline) {
+            value = newValue;
+            deadline = newDeadline;
+        }
+    }
+
+    /**
+     * @param ticks
+     *            number of slots, rounded up to a power of two
+     */
+    public TimerWheel(int ticks) {
+        int capacity = 1;
+
+        while (capacity < ticks) {
+            capacity <<= 1;
+        }
+
+        slots = new ArrayList<>(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            slots.add(new ArrayList<Timer<T>>(0));
+        }
+
+        mask = capacity - 1;
+    }
+
+    /**
+     * @param value
+     * @param delay
+     *            ticks from now, values with less than 1 are returned by the next {@link #advance()}
+     */
+    public void schedule(T value, long delay) {
+        long deadline = tick + Math.max(delay, 1);
+
+        slots.get((int) (deadline & mask)).add(new Timer<>(value, deadline));
+        size++;
+    }
+
+    /**
+     * Moves to the next tick.
+     *
+     * @return values that are due, in the order they were scheduled
+     */
+    public List<T> advance() {
+        tick++;
+
+        List<Timer<T>> slot = slots.get((int) (tick & mask));
+        List<T> due = new ArrayList<>();
+
+        if (slot.isEmpty()) {
+            return due;
+        }
+
+        Iterator<Timer<T>> iter = slot.iterator();
+
+        while (iter.hasNext()) {
+            Timer<T> timer = iter.next();
+
+            if (timer.deadline <= tick) {
+                due.add(timer.value);
+                iter.remove();
+            }
+        }
+
+        size -= due.size();
+
+        return due;
+    }
+
+    /**
+     * @return number of scheduled values
+     */
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (List<Timer<T>> slot : slots) {
+            slot.clear();
+        }
+
+        size = 0;
+    }
+}
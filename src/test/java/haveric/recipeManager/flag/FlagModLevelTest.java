@@ -9,12 +9,16 @@ import haveric.recipeManager.recipes.CraftRecipe;
 import haveric.recipeManager.recipes.ItemResult;
 import haveric.recipeManagerCommon.recipes.RMCRecipeInfo;
 import org.bukkit.Material;
+import org.bukkit.entity.Player;
 import org.junit.Test;
 
 import java.io.File;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class FlagModLevelTest extends FlagBaseTest {
 
@@ -54,4 +58,42 @@ public class FlagModLevelTest extends FlagBaseTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void onCraftedBatch() {
+        Player mockPlayer = mock(Player.class);
+        when(mockPlayer.getLevel()).thenReturn(100);
+        Args a = ArgBuilder.create().player(mockPlayer).build().processArgs();
+
+        FlagModLevel flag = new FlagModLevel();
+        flag.setAmount('+', 5);
+        flag.onCraftedBatch(a, 3);
+        verify(mockPlayer).giveExpLevels(15);
+        assertEquals(1, a.effects().size());
+
+        a.clear();
+        flag.setAmount('-', 5);
+        flag.onCraftedBatch(a, 3);
+        verify(mockPlayer).setLevel(85);
+
+        a.clear();
+        flag.setAmount('=', 7);
+        flag.onCraftedBatch(a, 3);
+        verify(mockPlayer).setLevel(7);
+    }
+
+    @Test
+    public void onAffordableTimes() {
+        Player mockPlayer = mock(Player.class);
+        when(mockPlayer.getLevel()).thenReturn(12);
+        Args a = ArgBuilder.create().player(mockPlayer).build().processArgs();
+
+        FlagModLevel flag = new FlagModLevel();
+        flag.setAmount('-', 5);
+        assertEquals(2, flag.onAffordableTimes(a, 3));
+        assertEquals(1, flag.onAffordableTimes(a, 1));
+
+        flag.setAmount('+', 5);
+        assertEquals(3, flag.onAffordableTimes(a, 3));
+    }
+}
@@ -0,0 +1,85 @@
+package haveric.recipeManager.tools;
+
+import haveric.recipeManager.Vanilla;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares item index lookups through {@link LongHashMap} against the old "id:data" string keys.<br>
+ * Not a unit test, run the main method manually.
+ */
+public class LongHashMapBenchmark {
+    private static final int RECIPES = 3000;
+    private static final int LOOKUPS = 2000000;
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        Random random = new Random(1);
+        Map<String, Integer> stringIndex = new HashMap<>();
+        LongHashMap<Integer> longIndex = new LongHashMap<>();
+
+        for (int i = 0; i < RECIPES; i++) {
+            int id = random.nextInt(2000);
+            int data;
+            if (random.nextBoolean()) {
+                data = Vanilla.DATA_WILDCARD;
+            } else {
+                data = random.nextInt(16);
+            }
+
+            stringIndex.put(id + ":" + data, i);
+            longIndex.put(LongHashMap.itemKey(id, data), i);
+        }
+
+        int[] ids = new int[LOOKUPS];
+        short[] datas = new short[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = random.nextInt(2000);
+            datas[i] = (short) random.nextInt(16);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int stringHits = 0;
+
+            for (int i = 0; i < LOOKUPS; i++) {
+                Integer found = stringIndex.get(ids[i] + ":" + datas[i]);
+
+                if (found == null) {
+                    found = stringIndex.get(ids[i] + ":" + Vanilla.DATA_WILDCARD);
+                }
+
+                if (found != null) {
+                    stringHits++;
+                }
+            }
+
+            long stringTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int longHits = 0;
+
+            for (int i = 0; i < LOOKUPS; i++) {
+                Integer found = longIndex.get(LongHashMap.itemKey(ids[i], datas[i]));
+
+                if (found == null) {
+                    found = longIndex.get(LongHashMap.itemKey(ids[i], Vanilla.DATA_WILDCARD));
+                }
+
+                if (found != null) {
+                    longHits++;
+                }
+            }
+
+            long longTime = System.nanoTime() - start;
+
+            if (stringHits != longHits) {
+                throw new IllegalStateException("Index results differ: " + stringHits + " != " + longHits);
+            }
+
+            System.out.println(String.format("Round %d: string keys %.1f ns/op, packed keys %.1f ns/op (%d hits)", round + 1, (double) stringTime / LOOKUPS, (double) longTime / LOOKUPS, longHits));
+        }
+    }
+}
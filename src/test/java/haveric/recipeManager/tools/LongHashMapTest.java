@@ -0,0 +1,83 @@
+package haveric.recipeManager.tools;
+
+import haveric.recipeManager.Vanilla;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongHashMapTest {
+    @Test
+    public void testItemKey() {
+        assertNotEquals(LongHashMap.itemKey(263, 0), LongHashMap.itemKey(263, 1));
+        assertNotEquals(LongHashMap.itemKey(263, 0), LongHashMap.itemKey(264, 0));
+        assertNotEquals(LongHashMap.itemKey(263, 0), LongHashMap.itemKey(263, Vanilla.DATA_WILDCARD));
+        assertEquals(LongHashMap.itemKey(263, -1), LongHashMap.itemKey(263, 0xFFFF));
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        LongHashMap<String> map = new LongHashMap<>();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, "a"));
+        assertEquals("a", map.put(1, "b"));
+        assertEquals("b", map.get(1));
+        assertEquals(1, map.size());
+
+        assertNull(map.get(2));
+        assertEquals("b", map.remove(1));
+        assertNull(map.get(1));
+        assertTrue(map.isEmpty());
+
+        map.put(3, "c");
+        map.put(3, null);
+        assertFalse(map.containsKey(3));
+    }
+
+    @Test
+    public void testKeys() {
+        LongHashMap<String> map = new LongHashMap<>();
+        map.put(-5, "a");
+        map.put(0, "b");
+        map.put(1L << 40, "c");
+        map.remove(0);
+
+        long[] keys = map.keys();
+        Arrays.sort(keys);
+
+        assertArrayEquals(new long[] { -5, 1L << 40 }, keys);
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            long key = LongHashMap.itemKey(random.nextInt(400), random.nextInt(20));
+
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), map.values().size());
+
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertTrue(map.values().isEmpty());
+    }
+}
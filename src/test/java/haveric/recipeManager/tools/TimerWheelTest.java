@@ -0,0 +1,67 @@
+package haveric.recipeManager.tools;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+    @Test
+    public void testAdvance() {
+        TimerWheel<String> wheel = new TimerWheel<>(8);
+
+        wheel.schedule("a", 1);
+        wheel.schedule("b", 3);
+        wheel.schedule("c", 3);
+        wheel.schedule("now", 0);
+        assertEquals(4, wheel.size());
+
+        assertEquals(Arrays.asList("a", "now"), wheel.advance());
+        assertEquals(Collections.emptyList(), wheel.advance());
+        assertEquals(Arrays.asList("b", "c"), wheel.advance());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testLongDelay() {
+        TimerWheel<Integer> wheel = new TimerWheel<>(4);
+
+        wheel.schedule(1, 2);
+        wheel.schedule(2, 10);
+        wheel.schedule(3, 6);
+
+        for (int tick = 1; tick <= 10; tick++) {
+            List<Integer> due = wheel.advance();
+
+            switch (tick) {
+                case 2:
+                    assertEquals(Collections.singletonList(1), due);
+                    break;
+                case 6:
+                    assertEquals(Collections.singletonList(3), due);
+                    break;
+                case 10:
+                    assertEquals(Collections.singletonList(2), due);
+                    break;
+                default:
+                    assertTrue(due.isEmpty());
+            }
+        }
+
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testClear() {
+        TimerWheel<String> wheel = new TimerWheel<>(4);
+
+        wheel.schedule("a", 1);
+        wheel.clear();
+
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance().isEmpty());
+    }
+}